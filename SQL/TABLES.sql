@@ -1,3 +1,144 @@
+-- Portfolios, several per user
+CREATE TABLE IF NOT EXISTS portfolios (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    portfolio_name VARCHAR(255) NOT NULL,
+    owner_id VARCHAR(64) NOT NULL,
+    created_at DATETIME(6) NOT NULL,
+    -- Currency totals are reported in; NULL means the application default
+    reporting_currency CHAR(3),
+    PRIMARY KEY (id),
+    KEY idx_portfolios_owner (owner_id)
+);
+
+CREATE TABLE IF NOT EXISTS stocks (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    stock_name VARCHAR(255) NOT NULL,
+    portfolio_id BIGINT,
+    ticker VARCHAR(255) NOT NULL,
+    quantity INT NOT NULL,
+    buy_price DOUBLE NOT NULL,
+    current_price DOUBLE,
+    percentage_change DOUBLE NOT NULL DEFAULT 0,
+    -- Listing currency of the ticker; buy_price and current_price are in this currency
+    currency CHAR(3) NOT NULL DEFAULT 'USD',
+    PRIMARY KEY (id),
+    -- A ticker appears at most once per portfolio
+    UNIQUE KEY uk_stocks_portfolio_ticker (portfolio_id, ticker),
+    -- Keyset paging by id within a portfolio
+    KEY idx_stocks_portfolio_id (portfolio_id, id),
+    -- Top N by percentage change
+    KEY idx_stocks_percentage_change (portfolio_id, percentage_change),
+    -- Covers SUM(quantity * buy_price), SUM(quantity * current_price) and the per-name, per-currency GROUP BY
+    KEY idx_stocks_name_value (portfolio_id, stock_name, currency, quantity, current_price, buy_price),
+    CONSTRAINT fk_stocks_portfolio FOREIGN KEY (portfolio_id) REFERENCES portfolios (id)
+);
+
+-- Progress of the stock price refresh job, so an interrupted run can resume
+CREATE TABLE IF NOT EXISTS price_refresh_checkpoints (
+    job_name VARCHAR(64) NOT NULL,
+    last_stock_id BIGINT NOT NULL,
+    run_started_at DATETIME(6) NOT NULL,
+    run_finished_at DATETIME(6),
+    rows_scanned BIGINT NOT NULL,
+    rows_updated BIGINT NOT NULL,
+    PRIMARY KEY (job_name)
+);
+
+-- Append-only history of every fetched quote (epoch milliseconds, same unit as stocks.current_price)
+CREATE TABLE IF NOT EXISTS price_ticks (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    ticker VARCHAR(32) NOT NULL,
+    fetched_at BIGINT NOT NULL,
+    price DOUBLE NOT NULL,
+    PRIMARY KEY (id),
+    -- Range scans per ticker, covering the columns the history endpoint reads
+    KEY idx_price_ticks_ticker_time (ticker, fetched_at, price)
+);
+
+-- Trade ledger: append-only trades, positions folded from them, and periodic position snapshots
+CREATE TABLE IF NOT EXISTS trades (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    portfolio_id BIGINT NOT NULL,
+    ticker VARCHAR(32) NOT NULL,
+    trade_type VARCHAR(16) NOT NULL,
+    quantity DOUBLE NOT NULL,
+    price DOUBLE NOT NULL,
+    executed_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    KEY idx_trades_portfolio_id (portfolio_id, id),
+    CONSTRAINT fk_trades_portfolio FOREIGN KEY (portfolio_id) REFERENCES portfolios (id)
+);
+
+CREATE TABLE IF NOT EXISTS positions (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    portfolio_id BIGINT NOT NULL,
+    ticker VARCHAR(32) NOT NULL,
+    quantity DOUBLE NOT NULL,
+    cost_basis DOUBLE NOT NULL,
+    realized_pnl DOUBLE NOT NULL,
+    dividends DOUBLE NOT NULL,
+    PRIMARY KEY (id),
+    UNIQUE KEY uk_positions_portfolio_ticker (portfolio_id, ticker)
+);
+
+CREATE TABLE IF NOT EXISTS position_snapshots (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    portfolio_id BIGINT NOT NULL,
+    as_of_trade_id BIGINT NOT NULL,
+    ticker VARCHAR(32) NOT NULL,
+    quantity DOUBLE NOT NULL,
+    cost_basis DOUBLE NOT NULL,
+    realized_pnl DOUBLE NOT NULL,
+    dividends DOUBLE NOT NULL,
+    PRIMARY KEY (id),
+    KEY idx_position_snapshots_portfolio (portfolio_id, as_of_trade_id)
+);
+
+-- Alert rules: price rules fire once, PORTFOLIO_CHANGE rules at most once per UTC day
+CREATE TABLE IF NOT EXISTS alert_rules (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    portfolio_id BIGINT NOT NULL,
+    rule_type VARCHAR(32) NOT NULL,
+    ticker VARCHAR(32),
+    stock_id BIGINT,
+    percent DOUBLE,
+    threshold DOUBLE,
+    created_at DATETIME(6) NOT NULL,
+    triggered_at DATETIME(6),
+    triggered_value DOUBLE,
+    PRIMARY KEY (id),
+    KEY idx_alert_rules_portfolio_id (portfolio_id, id)
+);
+
+-- Existing databases: add the portfolio column and per-portfolio indexes. Stocks without a portfolio
+-- are moved into the default portfolio when the application starts.
+-- ALTER TABLE stocks ADD COLUMN portfolio_id BIGINT AFTER stock_name;
+-- ALTER TABLE stocks DROP INDEX uk_stocks_ticker;
+-- ALTER TABLE stocks DROP INDEX idx_stocks_percentage_change, DROP INDEX idx_stocks_name_value;
+-- CREATE UNIQUE INDEX uk_stocks_portfolio_ticker ON stocks (portfolio_id, ticker);
+-- CREATE INDEX idx_stocks_portfolio_id ON stocks (portfolio_id, id);
+-- CREATE INDEX idx_stocks_percentage_change ON stocks (portfolio_id, percentage_change);
+-- CREATE INDEX idx_stocks_name_value ON stocks (portfolio_id, stock_name, quantity, current_price, buy_price);
+-- ALTER TABLE stocks ADD CONSTRAINT fk_stocks_portfolio FOREIGN KEY (portfolio_id) REFERENCES portfolios (id);
+
+-- Existing databases: listing and reporting currencies. Prices used to be stored converted to INR
+-- at the fixed rate of 85.76 per USD, and every stock was a USD listing, so stored prices and price
+-- history are converted back to USD. Otherwise daily closes jump by a factor of 85.76 at the changeover
+-- and the risk model sees that as a return. Set @fx_cutover_ms to the epoch milliseconds at which the
+-- listing-currency version first started (or to the current time, before starting it); ticks from
+-- that moment on are already in USD.
+-- ALTER TABLE portfolios ADD COLUMN reporting_currency CHAR(3);
+-- ALTER TABLE stocks ADD COLUMN currency CHAR(3) NOT NULL DEFAULT 'USD';
+-- ALTER TABLE stocks DROP INDEX idx_stocks_name_value;
+-- CREATE INDEX idx_stocks_name_value ON stocks (portfolio_id, stock_name, currency, quantity, current_price, buy_price);
+-- SET @fx_cutover_ms = UNIX_TIMESTAMP() * 1000;
+-- UPDATE price_ticks SET price = price / 85.76 WHERE fetched_at < @fx_cutover_ms;
+-- Only if the listing-currency version has not run a price refresh yet (current_price still in INR).
+-- MySQL applies the assignments in order, so percentage_change is computed from the converted price.
+-- UPDATE stocks SET current_price = current_price / 85.76,
+--     percentage_change = IF(buy_price > 0, (current_price - buy_price) / buy_price * 100, 0)
+--     WHERE current_price IS NOT NULL;
+
 INSERT INTO stocks (stock_name, ticker, quantity, buy_price) 
 VALUES ('Apple Inc.', 'APPL', 10, 150.50), 
        ('Google LLC', 'GOGL', 5, 2800.75);
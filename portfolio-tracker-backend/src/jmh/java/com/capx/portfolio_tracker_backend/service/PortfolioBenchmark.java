@@ -0,0 +1,147 @@
+package com.capx.portfolio_tracker_backend.service;
+
+import com.capx.portfolio_tracker_backend.models.Stock;
+import com.capx.portfolio_tracker_backend.repository.PortfolioRepository;
+import com.capx.portfolio_tracker_backend.repository.StockRepository;
+import com.capx.portfolio_tracker_backend.service.fx.FxRateService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// Portfolio metrics over 10, 1k and 100k holdings with in-memory repositories and a stub price service.
+// Each invocation marks the holdings as changed, so the snapshot is recomputed rather than served
+// from the memo; memoizedSnapshot measures the memo hit for comparison.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+public class PortfolioBenchmark {
+    private static final long PORTFOLIO_ID = 1L;
+
+    @Param({"10", "1000", "100000"})
+    private int holdings;
+
+    private StockService stockService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        List<Stock> stocks = new ArrayList<>(holdings);
+        Map<String, Double> prices = new HashMap<>();
+        for (int i = 0; i < holdings; i++) {
+            String ticker = "BENCH" + i;
+            double buyPrice = 10 + random.nextDouble(990);
+            Stock stock = new Stock("Holding " + (i % 500), ticker, 1 + random.nextInt(100), buyPrice, null);
+            if (i % 4 == 0) {
+                stock.setCurrency("EUR");
+            }
+            stocks.add(stock);
+            prices.put(ticker, buyPrice * (0.5 + random.nextDouble()));
+        }
+
+        FxRateService fxRateService = new FxRateService();
+        ReflectionTestUtils.setField(fxRateService, "baseCurrency", "USD");
+        ReflectionTestUtils.setField(fxRateService, "fallbackRates", "INR=85.76,EUR=0.92");
+        ReflectionTestUtils.setField(fxRateService, "defaultReportingCurrency", "INR");
+        fxRateService.init();
+
+        stockService = new StockService();
+        ReflectionTestUtils.setField(stockService, "stockRepository", stockRepository(stocks));
+        ReflectionTestUtils.setField(stockService, "portfolioRepository", portfolioRepository());
+        ReflectionTestUtils.setField(stockService, "stockPriceService", new StubStockPriceService(prices));
+        ReflectionTestUtils.setField(stockService, "fxRateService", fxRateService);
+        ReflectionTestUtils.setField(stockService, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(stockService, "snapshotMaxAgeSeconds", 60L);
+        ReflectionTestUtils.setField(stockService, "snapshotCacheSize", 10L);
+        ReflectionTestUtils.setField(stockService, "aggregateMaxAgeSeconds", 300L);
+        stockService.init();
+    }
+
+    @Benchmark
+    public double calculatePortfolioValue() {
+        stockService.onPortfolioChanged(PORTFOLIO_ID);
+        return stockService.calculatePortfolioValue(PORTFOLIO_ID);
+    }
+
+    @Benchmark
+    public Map<String, Double> getPortfolioDistribution() {
+        stockService.onPortfolioChanged(PORTFOLIO_ID);
+        return stockService.getPortfolioDistribution(PORTFOLIO_ID);
+    }
+
+    @Benchmark
+    public Stock getTopPerformingStock() {
+        stockService.onPortfolioChanged(PORTFOLIO_ID);
+        return stockService.getTopPerformingStock(PORTFOLIO_ID);
+    }
+
+    @Benchmark
+    public double memoizedSnapshot() {
+        return stockService.calculatePortfolioValue(PORTFOLIO_ID);
+    }
+
+    // Serves every holding's price as if from the cache, without any upstream calls
+    static final class StubStockPriceService extends StockPriceService {
+        private final Map<String, Double> prices;
+
+        StubStockPriceService(Map<String, Double> prices) {
+            this.prices = prices;
+        }
+
+        @Override
+        public Map<String, Double> getStockPrices(Collection<String> tickers) {
+            Map<String, Double> found = new HashMap<>();
+            for (String ticker : tickers) {
+                Double price = prices.get(ticker);
+                if (price != null) {
+                    found.put(ticker, price);
+                }
+            }
+            return found;
+        }
+
+        @Override
+        public long getPriceVersion() {
+            return 0;
+        }
+    }
+
+    private static StockRepository stockRepository(List<Stock> stocks) {
+        return (StockRepository) Proxy.newProxyInstance(StockRepository.class.getClassLoader(),
+                new Class<?>[]{StockRepository.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("findByPortfolioId") && args.length == 1) {
+                        return stocks;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private static PortfolioRepository portfolioRepository() {
+        return (PortfolioRepository) Proxy.newProxyInstance(PortfolioRepository.class.getClassLoader(),
+                new Class<?>[]{PortfolioRepository.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("findById")) {
+                        return Optional.empty();
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
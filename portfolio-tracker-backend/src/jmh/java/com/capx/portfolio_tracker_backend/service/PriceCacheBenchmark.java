@@ -0,0 +1,69 @@
+package com.capx.portfolio_tracker_backend.service;
+
+import com.capx.portfolio_tracker_backend.config.PriceCacheProperties;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.time.Instant;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Price cache throughput with several threads on one cache: reads alone, and reads mixed with
+// the writes a price refresh makes (three readers per writer). Tickers are drawn uniformly from a
+// key set that fits the cache, so reads hit and writes replace existing entries.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+public class PriceCacheBenchmark {
+    private static final int TICKERS = 8192;
+
+    private PriceCache cache;
+    private String[] tickers;
+    private Instant now;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        cache = new PriceCache(new PriceCacheProperties());
+        tickers = new String[TICKERS];
+        now = Instant.now();
+        for (int i = 0; i < TICKERS; i++) {
+            tickers[i] = "CACHE" + i;
+            cache.put(tickers[i], 100.0 + i, now);
+        }
+    }
+
+    @Benchmark
+    @Threads(4)
+    public PriceCache.CachedPrice readOnly() {
+        return cache.get(randomTicker());
+    }
+
+    @Benchmark
+    @Group("readWrite")
+    @GroupThreads(3)
+    public PriceCache.CachedPrice read() {
+        return cache.get(randomTicker());
+    }
+
+    @Benchmark
+    @Group("readWrite")
+    @GroupThreads(1)
+    public Double write() {
+        return cache.put(randomTicker(), ThreadLocalRandom.current().nextDouble(1, 1000), now);
+    }
+
+    private String randomTicker() {
+        return tickers[ThreadLocalRandom.current().nextInt(TICKERS)];
+    }
+}
@@ -0,0 +1,61 @@
+package com.capx.portfolio_tracker_backend.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// Risk model over a year of daily returns for 50 and 500 holdings: the correlation matrix, and
+// Monte Carlo VaR over 100k paths. Both run on the common fork-join pool, so results scale with
+// the cores available to the fork.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+public class RiskBenchmark {
+    private static final int DAYS = 252;
+    private static final int PATHS = 100_000;
+
+    @Param({"50", "500"})
+    private int holdings;
+
+    private double[][] returns;
+    private double[] values;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        double[] market = new double[DAYS];
+        for (int t = 0; t < DAYS; t++) {
+            market[t] = random.nextGaussian() * 0.01;
+        }
+        returns = new double[holdings][DAYS];
+        values = new double[holdings];
+        for (int i = 0; i < holdings; i++) {
+            double beta = random.nextDouble(0.5, 1.5);
+            for (int t = 0; t < DAYS; t++) {
+                returns[i][t] = beta * market[t] + random.nextGaussian() * 0.015;
+            }
+            values[i] = random.nextDouble(1_000, 100_000);
+        }
+    }
+
+    @Benchmark
+    public double[][] correlationMatrix() {
+        return RiskCalculator.correlationMatrix(returns);
+    }
+
+    @Benchmark
+    public double monteCarloVar() {
+        return RiskCalculator.monteCarloVar(returns, values, 0.95, 1, PATHS, 42);
+    }
+}
@@ -0,0 +1,46 @@
+package com.capx.portfolio_tracker_backend.service.alert;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Cost of checking a quote against one ticker's price rules, for a thousand and a million rules.
+// Thresholds lie below 90 and above 110 and quotes between, so nothing fires and the index stays
+// the same size; per-quote time should not grow with the rule count.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+public class ThresholdIndexBenchmark {
+    @Param({"1000", "1000000"})
+    private int rules;
+
+    private ThresholdIndex index;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        index = new ThresholdIndex();
+        for (int id = 0; id < rules; id++) {
+            boolean below = random.nextBoolean();
+            index.append(id, below ? random.nextDouble(50.0, 90.0) : random.nextDouble(110.0, 150.0), below);
+        }
+        index.sort();
+    }
+
+    @Benchmark
+    public long[] quote() {
+        return index.takeTriggered(ThreadLocalRandom.current().nextDouble(90.0, 110.0));
+    }
+}
@@ -0,0 +1,73 @@
+package com.capx.portfolio_tracker_backend.service.fx;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// Converting 1000 holding values in four listing currencies into a reporting currency: a rate
+// lookup per amount (conversion on every read) against one Conversion table per computation, as
+// StockService does per snapshot. unconverted is the plain sum, the floor for both.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+public class FxConversionBenchmark {
+    private static final int AMOUNTS = 1000;
+    private static final String[] CURRENCIES = {"USD", "EUR", "GBP", "INR"};
+    private static final String TARGET = "INR";
+
+    private FxRates rates;
+    private double[] amounts;
+    private String[] currencies;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        rates = new FxRates("USD", Map.of("INR", 85.76, "EUR", 0.92, "GBP", 0.79, "JPY", 150.2), 1, Instant.now());
+        SplittableRandom random = new SplittableRandom(42);
+        amounts = new double[AMOUNTS];
+        currencies = new String[AMOUNTS];
+        for (int i = 0; i < AMOUNTS; i++) {
+            amounts[i] = random.nextDouble(10, 10_000);
+            currencies[i] = CURRENCIES[random.nextInt(CURRENCIES.length)];
+        }
+    }
+
+    @Benchmark
+    public double perLookup() {
+        double total = 0.0;
+        for (int i = 0; i < AMOUNTS; i++) {
+            total += amounts[i] * rates.rate(currencies[i], TARGET);
+        }
+        return total;
+    }
+
+    @Benchmark
+    public double perSnapshot() {
+        FxRates.Conversion conversion = rates.to(TARGET);
+        double total = 0.0;
+        for (int i = 0; i < AMOUNTS; i++) {
+            total += amounts[i] * conversion.factor(currencies[i]);
+        }
+        return total;
+    }
+
+    @Benchmark
+    public double unconverted() {
+        double total = 0.0;
+        for (int i = 0; i < AMOUNTS; i++) {
+            total += amounts[i];
+        }
+        return total;
+    }
+}
@@ -0,0 +1,104 @@
+package com.capx.portfolio_tracker_backend.service.quote;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Parsing Alpha Vantage responses: the streaming readers AlphaVantageQuoteProvider uses, against
+// building a JsonNode tree of the same body, for a GLOBAL_QUOTE and a 100 symbol bulk response.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+public class QuoteParsingBenchmark {
+    private static final int BULK_SYMBOLS = 100;
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private byte[] globalQuote;
+    private byte[] bulkQuotes;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        globalQuote = ("{\"Global Quote\": {\"01. symbol\": \"IBM\", \"02. open\": \"231.5000\", "
+                + "\"03. high\": \"233.9900\", \"04. low\": \"230.1100\", \"05. price\": \"232.8700\", "
+                + "\"06. volume\": \"3562811\", \"07. latest trading day\": \"2025-01-10\", "
+                + "\"08. previous close\": \"231.0900\", \"09. change\": \"1.7800\", "
+                + "\"10. change percent\": \"0.7703%\"}}").getBytes(StandardCharsets.UTF_8);
+        StringBuilder bulk = new StringBuilder("{\"endpoint\": \"Realtime Bulk Quotes\", \"data\": [");
+        for (int i = 0; i < BULK_SYMBOLS; i++) {
+            if (i > 0) {
+                bulk.append(',');
+            }
+            bulk.append("{\"symbol\": \"SYM").append(i).append("\", \"timestamp\": \"2025-01-10 16:15:00.000\", ")
+                    .append("\"open\": \"").append(100 + i).append(".10\", \"high\": \"").append(101 + i)
+                    .append(".20\", \"low\": \"").append(99 + i).append(".30\", \"close\": \"").append(100 + i)
+                    .append(".55\", \"volume\": \"1234567\", \"previous_close\": \"").append(100 + i)
+                    .append(".00\", \"change\": \"0.55\", \"change_percent\": \"0.55\"}");
+        }
+        bulkQuotes = bulk.append("]}").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public double globalQuoteStreaming() throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(globalQuote)) {
+            parser.nextToken();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("Global Quote".equals(field) && value == JsonToken.START_OBJECT) {
+                    return AlphaVantageQuoteProvider.readGlobalQuotePrice(parser);
+                }
+                parser.skipChildren();
+            }
+        }
+        return 0.0;
+    }
+
+    @Benchmark
+    public double globalQuoteTree() throws IOException {
+        return objectMapper.readTree(globalQuote).path("Global Quote").path("05. price").asDouble();
+    }
+
+    @Benchmark
+    public Map<String, Double> bulkQuotesStreaming() throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(bulkQuotes)) {
+            parser.nextToken();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("data".equals(field) && value == JsonToken.START_ARRAY) {
+                    return AlphaVantageQuoteProvider.readBulkQuotes(parser);
+                }
+                parser.skipChildren();
+            }
+        }
+        return Map.of();
+    }
+
+    @Benchmark
+    public Map<String, Double> bulkQuotesTree() throws IOException {
+        Map<String, Double> prices = new HashMap<>();
+        for (JsonNode quote : objectMapper.readTree(bulkQuotes).path("data")) {
+            prices.put(quote.path("symbol").asText(), quote.path("close").asDouble());
+        }
+        return prices;
+    }
+}
@@ -0,0 +1,32 @@
+package com.capx.portfolio_tracker_backend.config;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+// Threads that deliver fired alerts and evaluate portfolio rules, so neither runs on the quote fetching thread
+@Configuration
+public class AlertConfig {
+    @Bean("alertExecutor")
+    @ConditionalOnThreading(Threading.PLATFORM)
+    public AsyncTaskExecutor alertExecutor(@Value("${alert.threads:2}") int threads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setThreadNamePrefix("alert-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
+    }
+    // One virtual thread per task; a slow webhook only parks its own thread
+    @Bean("alertExecutor")
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public AsyncTaskExecutor virtualAlertExecutor() {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("alert-");
+        executor.setVirtualThreads(true);
+        return executor;
+    }
+}
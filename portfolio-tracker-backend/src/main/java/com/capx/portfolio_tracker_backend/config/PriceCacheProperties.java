@@ -0,0 +1,58 @@
+package com.capx.portfolio_tracker_backend.config;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import java.util.HashMap;
+import java.util.Map;
+// Settings for the quote cache (quote.cache.*)
+@Component
+@ConfigurationProperties(prefix = "quote.cache")
+public class PriceCacheProperties {
+    // Max number of tickers kept in memory; least valuable entries are evicted beyond this
+    private long maxSize = 10_000;
+    // TTL while the ticker's exchange is trading
+    private long marketOpenTtlSeconds = 300;
+    // TTL after the close, capped at the next session open
+    private long marketClosedTtlSeconds = 86_400;
+    // How long past expiry a price may still be served while it is refreshed in the background
+    private long maxStaleSeconds = 86_400;
+    // Fixed TTL per ticker (e.g. AAPL=60), overriding the market-hours TTLs
+    private Map<String, Long> tickerTtlSeconds = new HashMap<>();
+    // Fixed TTL per exchange suffix (e.g. BSE=900, US for unsuffixed tickers)
+    private Map<String, Long> exchangeTtlSeconds = new HashMap<>();
+    public long getMaxSize() {
+        return maxSize;
+    }
+    public void setMaxSize(long maxSize) {
+        this.maxSize = maxSize;
+    }
+    public long getMarketOpenTtlSeconds() {
+        return marketOpenTtlSeconds;
+    }
+    public void setMarketOpenTtlSeconds(long marketOpenTtlSeconds) {
+        this.marketOpenTtlSeconds = marketOpenTtlSeconds;
+    }
+    public long getMarketClosedTtlSeconds() {
+        return marketClosedTtlSeconds;
+    }
+    public void setMarketClosedTtlSeconds(long marketClosedTtlSeconds) {
+        this.marketClosedTtlSeconds = marketClosedTtlSeconds;
+    }
+    public long getMaxStaleSeconds() {
+        return maxStaleSeconds;
+    }
+    public void setMaxStaleSeconds(long maxStaleSeconds) {
+        this.maxStaleSeconds = maxStaleSeconds;
+    }
+    public Map<String, Long> getTickerTtlSeconds() {
+        return tickerTtlSeconds;
+    }
+    public void setTickerTtlSeconds(Map<String, Long> tickerTtlSeconds) {
+        this.tickerTtlSeconds = tickerTtlSeconds;
+    }
+    public Map<String, Long> getExchangeTtlSeconds() {
+        return exchangeTtlSeconds;
+    }
+    public void setExchangeTtlSeconds(Map<String, Long> exchangeTtlSeconds) {
+        this.exchangeTtlSeconds = exchangeTtlSeconds;
+    }
+}
@@ -0,0 +1,91 @@
+package com.capx.portfolio_tracker_backend.config;
+import com.fasterxml.jackson.core.JsonFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import java.net.http.HttpClient;
+import java.time.Duration;
+// Shared HTTP client and executors for upstream quote providers.
+// With spring.threads.virtual.enabled=true on Java 21 the executors run on virtual threads.
+@Configuration
+public class QuoteClientConfig {
+    // One client for the whole app: keeps connections alive and negotiates HTTP/2 where offered
+    @Bean
+    public HttpClient quoteHttpClient(@Value("${quote.http.connect-timeout-ms:2000}") long connectTimeoutMs) {
+        return HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+    }
+    // Thread-safe and reusable, so quote parsing does not rebuild Jackson state per response
+    @Bean
+    public JsonFactory quoteJsonFactory() {
+        return new JsonFactory();
+    }
+    // Fan-out pool for single-quote fetches, bounded by quote.fetch.parallelism
+    @Bean("quoteFetchExecutor")
+    @ConditionalOnThreading(Threading.PLATFORM)
+    public AsyncTaskExecutor quoteFetchExecutor(@Value("${quote.fetch.parallelism:5}") int parallelism) {
+        return platformExecutor("quote-fetch-", parallelism);
+    }
+    // Submitting blocks once the limit is reached, which is fine since the caller waits on the results anyway
+    @Bean("quoteFetchExecutor")
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public AsyncTaskExecutor virtualQuoteFetchExecutor(@Value("${quote.fetch.parallelism:5}") int parallelism) {
+        SimpleAsyncTaskExecutor executor = virtualExecutor("quote-fetch-");
+        executor.setConcurrencyLimit(parallelism);
+        return executor;
+    }
+    // Runs stale-while-revalidate refreshes, kept apart from the fan-out pool it submits to
+    @Bean("quoteRefreshExecutor")
+    @ConditionalOnThreading(Threading.PLATFORM)
+    public AsyncTaskExecutor quoteRefreshExecutor() {
+        return platformExecutor("quote-refresh-", 2);
+    }
+    // Left unbounded so handing off a refresh never blocks the request thread
+    @Bean("quoteRefreshExecutor")
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public AsyncTaskExecutor virtualQuoteRefreshExecutor() {
+        return virtualExecutor("quote-refresh-");
+    }
+    // Runs hedged lookups: the primary call, and the secondary call once the primary is slow. Kept apart
+    // from the fan-out pool because fan-out tasks wait on these. By default two threads per fan-out
+    // thread, so a full fan-out can hedge every lookup. There is no queue: a lookup that finds every
+    // thread busy is not hedged, rather than waiting its hedge delay away in a queue.
+    @Bean("quoteHedgeExecutor")
+    @ConditionalOnThreading(Threading.PLATFORM)
+    public AsyncTaskExecutor quoteHedgeExecutor(@Value("${quote.hedge.threads:0}") int threads,
+                                                @Value("${quote.fetch.parallelism:5}") int parallelism) {
+        return platformExecutor("quote-hedge-", threads > 0 ? threads : 2 * parallelism, 0);
+    }
+    @Bean("quoteHedgeExecutor")
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public AsyncTaskExecutor virtualQuoteHedgeExecutor() {
+        return virtualExecutor("quote-hedge-");
+    }
+    private static AsyncTaskExecutor platformExecutor(String prefix, int threads) {
+        return platformExecutor(prefix, threads, Integer.MAX_VALUE);
+    }
+    private static AsyncTaskExecutor platformExecutor(String prefix, int threads, int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix(prefix);
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
+    }
+    // One cheap virtual thread per task
+    private static SimpleAsyncTaskExecutor virtualExecutor(String prefix) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(prefix);
+        executor.setVirtualThreads(true);
+        return executor;
+    }
+}
@@ -0,0 +1,55 @@
+package com.capx.portfolio_tracker_backend.config;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+// Settings for provider failover (quote.resilience.*): circuit breakers, the secondary provider and hedging
+@Component
+@ConfigurationProperties(prefix = "quote.resilience")
+public class QuoteResilienceProperties {
+    // Provider asked when quote.provider fails, is circuit-broken or is slow; empty for none
+    private String secondaryProvider = "";
+    // Consecutive failed calls that open a provider's circuit
+    private int failureThreshold = 5;
+    // How long an open circuit refuses calls before one trial call is let through
+    private long openMs = 30_000;
+    // Interactive single-quote lookups also ask the secondary once the primary has taken this long; 0 disables
+    private long hedgeDelayMs = 1_000;
+    // Rate limit of the secondary provider (the primary uses quote.rate-limit.*); per-day 0 for none
+    private int secondaryPerMinute = 60;
+    private int secondaryPerDay = 0;
+    public String getSecondaryProvider() {
+        return secondaryProvider;
+    }
+    public void setSecondaryProvider(String secondaryProvider) {
+        this.secondaryProvider = secondaryProvider;
+    }
+    public int getFailureThreshold() {
+        return failureThreshold;
+    }
+    public void setFailureThreshold(int failureThreshold) {
+        this.failureThreshold = failureThreshold;
+    }
+    public long getOpenMs() {
+        return openMs;
+    }
+    public void setOpenMs(long openMs) {
+        this.openMs = openMs;
+    }
+    public long getHedgeDelayMs() {
+        return hedgeDelayMs;
+    }
+    public void setHedgeDelayMs(long hedgeDelayMs) {
+        this.hedgeDelayMs = hedgeDelayMs;
+    }
+    public int getSecondaryPerMinute() {
+        return secondaryPerMinute;
+    }
+    public void setSecondaryPerMinute(int secondaryPerMinute) {
+        this.secondaryPerMinute = secondaryPerMinute;
+    }
+    public int getSecondaryPerDay() {
+        return secondaryPerDay;
+    }
+    public void setSecondaryPerDay(int secondaryPerDay) {
+        this.secondaryPerDay = secondaryPerDay;
+    }
+}
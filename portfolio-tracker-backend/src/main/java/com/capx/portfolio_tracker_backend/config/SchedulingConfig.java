@@ -0,0 +1,8 @@
+package com.capx.portfolio_tracker_backend.config;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+// Turns on @Scheduled jobs such as the stock price refresh
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,33 @@
+package com.capx.portfolio_tracker_backend.config;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+// Threads that write portfolio stream events to subscribers, so a slow client never blocks the broadcaster
+@Configuration
+public class StreamConfig {
+    // At most one task per subscriber is queued at a time
+    @Bean("portfolioStreamExecutor")
+    @ConditionalOnThreading(Threading.PLATFORM)
+    public AsyncTaskExecutor portfolioStreamExecutor(@Value("${portfolio.stream.send-threads:4}") int threads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setThreadNamePrefix("portfolio-stream-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
+    }
+    // One virtual thread per pending send; a blocked write only parks its own thread
+    @Bean("portfolioStreamExecutor")
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public AsyncTaskExecutor virtualPortfolioStreamExecutor() {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("portfolio-stream-");
+        executor.setVirtualThreads(true);
+        return executor;
+    }
+}
@@ -14,6 +14,7 @@ public class WebConfig {
                         .allowedOrigins("https://stockify-kavin-narayanan.vercel.app") // Allow only your frontend
                         .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS") // Specify allowed methods
                         .allowedHeaders("*") // Allow all headers
+                        .exposedHeaders("X-Next-Cursor") // Let the frontend read the next page cursor
                         .allowCredentials(true); // Allow cookies if needed
             }
         };
@@ -0,0 +1,45 @@
+package com.capx.portfolio_tracker_backend.controller;
+import com.capx.portfolio_tracker_backend.models.AlertRule;
+import com.capx.portfolio_tracker_backend.service.PortfolioNotFoundException;
+import com.capx.portfolio_tracker_backend.service.PortfolioService;
+import com.capx.portfolio_tracker_backend.service.alert.AlertService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import java.util.List;
+@RestController
+@RequestMapping("/portfolios/{portfolioId}")
+public class AlertController {
+    @Autowired
+    private AlertService alertService;
+    @Autowired
+    private PortfolioService portfolioService;
+    @ExceptionHandler(PortfolioNotFoundException.class)
+    public ResponseEntity<String> portfolioNotFound(PortfolioNotFoundException e) {
+        return new ResponseEntity<>(e.getMessage(), HttpStatus.NOT_FOUND);
+    }
+    // Register a PRICE_BELOW/PRICE_ABOVE (ticker, threshold), POSITION_DROP (stockId, percent) or
+    // PORTFOLIO_CHANGE (percent) rule
+    @PostMapping("/alerts")
+    public ResponseEntity<?> createAlert(@PathVariable Long portfolioId, @RequestBody AlertRule rule) {
+        try {
+            AlertRule saved = alertService.createRule(portfolioService.resolve(portfolioId), rule);
+            return new ResponseEntity<>(saved, HttpStatus.CREATED);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+    // Get the portfolio's rules with when each last fired
+    @GetMapping("/alerts")
+    public List<AlertRule> getAlerts(@PathVariable Long portfolioId) {
+        return alertService.getRules(portfolioService.resolve(portfolioId));
+    }
+    @DeleteMapping("/alerts/{id}")
+    public ResponseEntity<Void> deleteAlert(@PathVariable Long portfolioId, @PathVariable Long id) {
+        if (alertService.deleteRule(portfolioService.resolve(portfolioId), id)) {
+            return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+        }
+        return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+    }
+}
@@ -0,0 +1,77 @@
+package com.capx.portfolio_tracker_backend.controller;
+import com.capx.portfolio_tracker_backend.models.Position;
+import com.capx.portfolio_tracker_backend.models.Trade;
+import com.capx.portfolio_tracker_backend.service.LedgerService;
+import com.capx.portfolio_tracker_backend.service.PortfolioNotFoundException;
+import com.capx.portfolio_tracker_backend.service.PortfolioService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+@RestController
+@RequestMapping("/portfolios/{portfolioId}")
+public class LedgerController {
+    @Autowired
+    private LedgerService ledgerService;
+    @Autowired
+    private PortfolioService portfolioService;
+    @ExceptionHandler(PortfolioNotFoundException.class)
+    public ResponseEntity<String> portfolioNotFound(PortfolioNotFoundException e) {
+        return new ResponseEntity<>(e.getMessage(), HttpStatus.NOT_FOUND);
+    }
+    // Append a buy, sell, dividend or split; the position is updated in the same transaction
+    @PostMapping("/trades")
+    public ResponseEntity<?> addTrade(@PathVariable Long portfolioId, @RequestBody Trade trade) {
+        try {
+            Trade saved = ledgerService.appendTrade(portfolioService.resolve(portfolioId), trade);
+            return new ResponseEntity<>(saved, HttpStatus.CREATED);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+    // Get trades in id order; pass the last id seen as afterId for the next page
+    @GetMapping("/trades")
+    public ResponseEntity<?> getTrades(@PathVariable Long portfolioId,
+                                       @RequestParam(defaultValue = "0") long afterId,
+                                       @RequestParam(defaultValue = "100") int limit) {
+        if (limit < 1 || limit > 1000) {
+            return new ResponseEntity<>("limit must be between 1 and 1000", HttpStatus.BAD_REQUEST);
+        }
+        List<Trade> trades = ledgerService.getTrades(portfolioService.resolve(portfolioId), afterId, limit);
+        return new ResponseEntity<>(trades, HttpStatus.OK);
+    }
+    // Bulk import trades from a CSV body (type,ticker,quantity,price[,executed_at]); all or nothing
+    @PostMapping(value = "/trades/import", consumes = "text/csv")
+    public ResponseEntity<?> importTrades(@PathVariable Long portfolioId, HttpServletRequest request) throws IOException {
+        long id = portfolioService.resolve(portfolioId);
+        try {
+            Map<String, Object> stats = ledgerService.importTrades(id, request.getInputStream());
+            return new ResponseEntity<>(stats, HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+    // Get positions with average cost, realized and unrealized P&L
+    @GetMapping("/positions")
+    public List<Position> getPositions(@PathVariable Long portfolioId) {
+        return ledgerService.getPositions(portfolioService.resolve(portfolioId));
+    }
+    // Snapshot the positions now (normally done every ledger.snapshot.interval-ms)
+    @PostMapping("/positions/snapshot")
+    public ResponseEntity<?> snapshotPositions(@PathVariable Long portfolioId) {
+        Long asOf = ledgerService.snapshot(portfolioService.resolve(portfolioId));
+        if (asOf == null) {
+            return new ResponseEntity<>(HttpStatus.NO_CONTENT); // No trades since the last snapshot
+        }
+        return new ResponseEntity<>(Map.of("asOfTradeId", asOf), HttpStatus.OK);
+    }
+    // Recompute positions from the latest snapshot and the trades after it
+    @PostMapping("/positions/rebuild")
+    public Map<String, Object> rebuildPositions(@PathVariable Long portfolioId) {
+        return ledgerService.rebuildPositions(portfolioService.resolve(portfolioId));
+    }
+}
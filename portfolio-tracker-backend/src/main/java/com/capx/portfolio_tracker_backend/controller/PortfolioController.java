@@ -1,24 +1,77 @@
 package com.capx.portfolio_tracker_backend.controller;
+import com.capx.portfolio_tracker_backend.models.PortfolioSnapshot;
+import com.capx.portfolio_tracker_backend.models.RiskReport;
+import com.capx.portfolio_tracker_backend.service.PortfolioNotFoundException;
+import com.capx.portfolio_tracker_backend.service.PortfolioService;
+import com.capx.portfolio_tracker_backend.service.PortfolioStreamService;
+import com.capx.portfolio_tracker_backend.service.RiskService;
 import com.capx.portfolio_tracker_backend.service.StockService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import java.util.Map;
 @RestController
 @RequestMapping("/portfolio")
 public class PortfolioController {
     @Autowired
     private StockService stockService;
+    @Autowired
+    private PortfolioStreamService portfolioStreamService;
+    @Autowired
+    private PortfolioService portfolioService;
+    @Autowired
+    private RiskService riskService;
+    // Every endpoint takes an optional portfolioId; without it the default portfolio is used
+    @ExceptionHandler(PortfolioNotFoundException.class)
+    public ResponseEntity<String> portfolioNotFound(PortfolioNotFoundException e) {
+        return new ResponseEntity<>(e.getMessage(), HttpStatus.NOT_FOUND);
+    }
     // Get the total portfolio value
     @GetMapping("/value")
-    public double getPortfolioValue() {
-        return stockService.calculatePortfolioValue();
+    public double getPortfolioValue(@RequestParam(required = false) Long portfolioId) {
+        return stockService.getPortfolioSnapshot(portfolioService.resolve(portfolioId)).getTotalValue();
     }
     // Get portfolio metrics (value and stock count)
     @GetMapping("/metrics")
-    public String getPortfolioMetrics() {
-        double totalValue = stockService.calculatePortfolioValue();
-        int totalStocks = stockService.getAllStocks().size();
-        return String.format("Total Portfolio Value: %.2f | Total Stocks: %d", totalValue, totalStocks);
+    public String getPortfolioMetrics(@RequestParam(required = false) Long portfolioId) {
+        PortfolioSnapshot snapshot = stockService.getPortfolioSnapshot(portfolioService.resolve(portfolioId));
+        return String.format("Total Portfolio Value: %.2f | Total Stocks: %d", snapshot.getTotalValue(), snapshot.getStockCount());
+    }
+    // Get the full portfolio snapshot (value, P&L, distribution, top performer)
+    @GetMapping("/snapshot")
+    public PortfolioSnapshot getPortfolioSnapshot(@RequestParam(required = false) Long portfolioId) {
+        return stockService.getPortfolioSnapshot(portfolioService.resolve(portfolioId));
+    }
+    // Get the stored value (quantity x current price) of each holding by ticker
+    @GetMapping("/holdings")
+    public Map<String, Double> getHoldingValues(@RequestParam(required = false) Long portfolioId) {
+        return stockService.getHoldingValues(portfolioService.resolve(portfolioId));
+    }
+    // Get volatility, beta, correlations and value at risk of the portfolio from its daily price history
+    @GetMapping("/risk")
+    public RiskReport getRiskReport(@RequestParam(required = false) Long portfolioId) {
+        return riskService.getRiskReport(portfolioService.resolve(portfolioId));
+    }
+    // Subscribe to portfolio updates as Server-Sent Events: a "snapshot" event first, then a "delta"
+    // event with only the changed fields whenever a price or holding changes
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamPortfolio(@RequestParam(required = false) Long portfolioId) {
+        SseEmitter emitter = portfolioStreamService.subscribe(portfolioService.resolve(portfolioId));
+        if (emitter == null) {
+            return new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE); // Subscriber limit reached
+        }
+        return new ResponseEntity<>(emitter, HttpStatus.OK);
+    }
+    // Get subscriber and event counters for the portfolio stream
+    @GetMapping("/stream/metrics")
+    public Map<String, Long> getStreamMetrics() {
+        return portfolioStreamService.getStats();
     }
 }
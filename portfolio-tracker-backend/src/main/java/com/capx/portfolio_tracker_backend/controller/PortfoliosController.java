@@ -0,0 +1,54 @@
+package com.capx.portfolio_tracker_backend.controller;
+import com.capx.portfolio_tracker_backend.models.Portfolio;
+import com.capx.portfolio_tracker_backend.service.PortfolioNotFoundException;
+import com.capx.portfolio_tracker_backend.service.PortfolioService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import java.util.List;
+@RestController
+@RequestMapping("/portfolios")
+public class PortfoliosController {
+    @Autowired
+    private PortfolioService portfolioService;
+    // Get the portfolios of a user
+    @GetMapping
+    public List<Portfolio> getPortfolios(@RequestParam String ownerId) {
+        return portfolioService.getPortfolios(ownerId);
+    }
+    // Create a portfolio (name and ownerId, optionally reportingCurrency)
+    @PostMapping
+    public ResponseEntity<?> createPortfolio(@RequestBody Portfolio portfolio) {
+        try {
+            Portfolio saved = portfolioService.createPortfolio(portfolio.getName(), portfolio.getOwnerId(),
+                    portfolio.getReportingCurrency());
+            return new ResponseEntity<>(saved, HttpStatus.CREATED);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+    // Change the currency the portfolio's totals are reported in
+    @PutMapping("/{id}/currency")
+    public ResponseEntity<?> setReportingCurrency(@PathVariable Long id, @RequestParam(required = false) String currency) {
+        try {
+            return new ResponseEntity<>(portfolioService.setReportingCurrency(id, currency), HttpStatus.OK);
+        } catch (PortfolioNotFoundException e) {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.NOT_FOUND);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+    // Delete a portfolio and all of its stocks
+    @DeleteMapping("/{id}")
+    public ResponseEntity<?> deletePortfolio(@PathVariable Long id) {
+        try {
+            if (portfolioService.deletePortfolio(id)) {
+                return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+            }
+            return new ResponseEntity<>("Portfolio not found with ID: " + id, HttpStatus.NOT_FOUND);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+}
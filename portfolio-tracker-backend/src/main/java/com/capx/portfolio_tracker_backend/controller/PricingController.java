@@ -0,0 +1,47 @@
+package com.capx.portfolio_tracker_backend.controller;
+import com.capx.portfolio_tracker_backend.service.PriceRefreshJob;
+import com.capx.portfolio_tracker_backend.service.StockPriceService;
+import com.capx.portfolio_tracker_backend.service.fx.FxRateService;
+import com.capx.portfolio_tracker_backend.service.fx.FxRates;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import java.util.Map;
+@RestController
+@RequestMapping("/pricing")
+public class PricingController {
+    @Autowired
+    private StockPriceService stockPriceService;
+    @Autowired
+    private PriceRefreshJob priceRefreshJob;
+    @Autowired
+    private FxRateService fxRateService;
+    // Get price cache and fetch coalescing counters
+    @GetMapping("/metrics")
+    public Map<String, Long> getPricingMetrics() {
+        return stockPriceService.getFetchMetrics();
+    }
+    // Get rows scanned/updated, duration and throughput of the last price refresh run
+    @GetMapping("/refresh")
+    public Map<String, Object> getLastRefresh() {
+        return priceRefreshJob.getLastRun();
+    }
+    // Get the exchange rate table used for reporting currency conversion
+    @GetMapping("/fx")
+    public FxRates getFxRates() {
+        return fxRateService.getRates();
+    }
+    // Refresh persisted prices now, resuming an interrupted run if there is one
+    @PostMapping("/refresh")
+    public ResponseEntity<Map<String, Object>> refreshPrices() {
+        Map<String, Object> stats = priceRefreshJob.refresh();
+        if (stats == null) {
+            return new ResponseEntity<>(HttpStatus.CONFLICT); // A run is already in progress
+        }
+        return new ResponseEntity<>(stats, HttpStatus.OK);
+    }
+}
@@ -1,44 +1,128 @@
 package com.capx.portfolio_tracker_backend.controller;
 import com.capx.portfolio_tracker_backend.models.Stock;
+import com.capx.portfolio_tracker_backend.models.StockPage;
+import com.capx.portfolio_tracker_backend.service.PortfolioNotFoundException;
+import com.capx.portfolio_tracker_backend.service.PortfolioService;
+import com.capx.portfolio_tracker_backend.service.PriceHistoryService;
 import com.capx.portfolio_tracker_backend.service.StockService;
+import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
 @RestController
 @RequestMapping("/stocks")
-@CrossOrigin(origins = "https://stockify-kavin-narayanan.vercel.app")
+@CrossOrigin(origins = "https://stockify-kavin-narayanan.vercel.app", exposedHeaders = "X-Next-Cursor")
 public class StockController {
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final String TICKER_CONSTRAINT = "uk_stocks_portfolio_ticker";
     @Autowired
     private StockService stockService;
+    @Autowired
+    private PriceHistoryService priceHistoryService;
+    @Autowired
+    private PortfolioService portfolioService;
+    // Every endpoint takes an optional portfolioId; without it the default portfolio is used
+    @ExceptionHandler(PortfolioNotFoundException.class)
+    public ResponseEntity<String> portfolioNotFound(PortfolioNotFoundException e) {
+        return new ResponseEntity<>(e.getMessage(), HttpStatus.NOT_FOUND);
+    }
     // Add a new stock to the portfolio
     @PostMapping("/add")
-    public ResponseEntity<Stock> addStock(@RequestBody Stock stock) {
-        Stock savedStock = stockService.saveStock(stock);
-        return new ResponseEntity<>(savedStock, HttpStatus.CREATED);
+    public ResponseEntity<?> addStock(@RequestBody Stock stock, @RequestParam(required = false) Long portfolioId) {
+        try {
+            Stock savedStock = stockService.saveStock(portfolioService.resolve(portfolioId), stock);
+            return new ResponseEntity<>(savedStock, HttpStatus.CREATED);
+        } catch (DataIntegrityViolationException e) {
+            return integrityViolation(e, stock);
+        }
     }
-    // Get all stocks in the portfolio
+    // Get all stocks in the portfolio, optionally sorted (sort=name&direction=desc).
+    // Passing limit or cursor returns one keyset page; the cursor for the next page is sent in the
+    // X-Next-Cursor header and is absent on the last page.
     @GetMapping("/all")
-    public ResponseEntity<List<Stock>> getAllStocks() {
-        List<Stock> stocks = stockService.getAllStocks();
-        return new ResponseEntity<>(stocks, HttpStatus.OK);
+    public ResponseEntity<?> getAllStocks(@RequestParam(required = false) String cursor,
+                                          @RequestParam(required = false) Integer limit,
+                                          @RequestParam(defaultValue = "id") String sort,
+                                          @RequestParam(defaultValue = "asc") String direction,
+                                          @RequestParam(required = false) Long portfolioId) {
+        long id = portfolioService.resolve(portfolioId);
+        try {
+            Sort.Direction sortDirection = Sort.Direction.fromString(direction);
+            if (cursor == null && limit == null) {
+                List<Stock> stocks = stockService.getAllStocks(id, sort, sortDirection);
+                return new ResponseEntity<>(stocks, HttpStatus.OK);
+            }
+            StockPage page = stockService.getStocksPage(id, cursor, limit != null ? limit : DEFAULT_PAGE_SIZE, sort, sortDirection);
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (page.getNextCursor() != null) {
+                response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+            }
+            return response.body(page.getStocks());
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+    // Export every stock of the portfolio as newline-delimited JSON, streamed straight from the database
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportStocks(@RequestParam(required = false) Long portfolioId) {
+        long id = portfolioService.resolve(portfolioId);
+        StreamingResponseBody body = out -> stockService.exportStocks(id, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .header("Content-Disposition", "attachment; filename=\"stocks.ndjson\"")
+                .body(body);
     }
     // Get stock by ID
     @GetMapping("/{id}")
-    public ResponseEntity<?> getStockById(@PathVariable Long id) {
-        Optional<Stock> stock = stockService.getStockById(id);
+    public ResponseEntity<?> getStockById(@PathVariable Long id, @RequestParam(required = false) Long portfolioId) {
+        Optional<Stock> stock = stockService.getStockById(portfolioService.resolve(portfolioId), id);
         if (stock.isPresent()) {
             return new ResponseEntity<>(stock.get(), HttpStatus.OK);
         }
         return new ResponseEntity<>("Stock not found with ID: " + id, HttpStatus.NOT_FOUND);
     }
+    // Get price history for a stock as OHLC per minute, hour or day (default), or raw ticks with interval=raw.
+    // from/to are ISO-8601 instants; the range defaults to the last year (last day for raw).
+    @GetMapping("/{id}/history")
+    public ResponseEntity<?> getStockHistory(@PathVariable Long id,
+                                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+                                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+                                             @RequestParam(defaultValue = "day") String interval,
+                                             @RequestParam(required = false) Long portfolioId) {
+        Optional<Stock> stock = stockService.getStockById(portfolioService.resolve(portfolioId), id);
+        if (stock.isEmpty()) {
+            return new ResponseEntity<>("Stock not found with ID: " + id, HttpStatus.NOT_FOUND);
+        }
+        boolean raw = "raw".equals(interval);
+        Instant end = to != null ? to : Instant.now();
+        Instant start = from != null ? from : end.minus(raw ? Duration.ofDays(1) : Duration.ofDays(365));
+        try {
+            String ticker = stock.get().getTicker();
+            if (raw) {
+                return new ResponseEntity<>(priceHistoryService.getTicks(ticker, start, end), HttpStatus.OK);
+            }
+            return new ResponseEntity<>(priceHistoryService.getOhlc(ticker, start, end, interval), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
     // Delete a stock by ID
     @DeleteMapping("/{id}")
-    public ResponseEntity<?> deleteStock(@PathVariable Long id) {
-        boolean isDeleted = stockService.deleteStock(id);
+    public ResponseEntity<?> deleteStock(@PathVariable Long id, @RequestParam(required = false) Long portfolioId) {
+        boolean isDeleted = stockService.deleteStock(portfolioService.resolve(portfolioId), id);
         if (isDeleted) {
             return new ResponseEntity<>(HttpStatus.NO_CONTENT);
         } else {
@@ -47,32 +131,50 @@ public class StockController {
     }
     // Get the top-performing stock
     @GetMapping("/top-performing")
-    public ResponseEntity<?> getTopPerformingStock() {
-        Stock topStock = stockService.getTopPerformingStock();
+    public ResponseEntity<?> getTopPerformingStock(@RequestParam(required = false) Long portfolioId) {
+        Stock topStock = stockService.getPortfolioSnapshot(portfolioService.resolve(portfolioId)).getTopPerformingStock();
         if (topStock != null) {
             return new ResponseEntity<>(topStock, HttpStatus.OK);
         } else {
             return new ResponseEntity<>("No top-performing stock found", HttpStatus.NO_CONTENT);
         }
     }
+    // Get the N best performers by stored percentage change
+    @GetMapping("/top")
+    public ResponseEntity<?> getTopPerformingStocks(@RequestParam(defaultValue = "5") int limit, @RequestParam(required = false) Long portfolioId) {
+        if (limit < 1 || limit > 100) {
+            return new ResponseEntity<>("limit must be between 1 and 100", HttpStatus.BAD_REQUEST);
+        }
+        return new ResponseEntity<>(stockService.getTopPerformingStocks(portfolioService.resolve(portfolioId), limit), HttpStatus.OK);
+    }
     // Get portfolio distribution
     @GetMapping("/distribution")
-    public ResponseEntity<Map<String, Double>> getPortfolioDistribution() {
-        Map<String, Double> distribution = stockService.getPortfolioDistribution();
+    public ResponseEntity<Map<String, Double>> getPortfolioDistribution(@RequestParam(required = false) Long portfolioId) {
+        Map<String, Double> distribution = stockService.getPortfolioSnapshot(portfolioService.resolve(portfolioId)).getDistribution();
         return new ResponseEntity<>(distribution, HttpStatus.OK);
     }
     // Update an existing stock
     @PutMapping("/{id}")
-    public ResponseEntity<?> updateStock(@PathVariable Long id, @RequestBody Stock updatedStock) {
+    public ResponseEntity<?> updateStock(@PathVariable Long id, @RequestBody Stock updatedStock, @RequestParam(required = false) Long portfolioId) {
+        long portfolio = portfolioService.resolve(portfolioId);
         try {
-            Stock stock = stockService.updateStock(id, updatedStock);
-            // Ensure portfolio value and other data are refreshed after update
-            stockService.calculatePortfolioValue();
-            stockService.getTopPerformingStock();
-            stockService.getPortfolioDistribution();
+            // The portfolio snapshot is invalidated by the update and recomputed on the next read
+            Stock stock = stockService.updateStock(portfolio, id, updatedStock);
             return new ResponseEntity<>(stock, HttpStatus.OK);
+        } catch (DataIntegrityViolationException e) {
+            return integrityViolation(e, updatedStock);
         } catch (Exception e) {
             return new ResponseEntity<>(e.getMessage(), HttpStatus.NOT_FOUND);
         }
     }
+
+    // 409 only for a ticker the portfolio already holds; other violations (missing name, oversized
+    // ticker, deleted portfolio) are bad requests and report their own cause
+    private static ResponseEntity<String> integrityViolation(DataIntegrityViolationException e, Stock stock) {
+        if (e.getCause() instanceof ConstraintViolationException violation && violation.getConstraintName() != null
+                && violation.getConstraintName().toLowerCase(Locale.ROOT).contains(TICKER_CONSTRAINT)) {
+            return new ResponseEntity<>("Ticker " + stock.getTicker() + " is already in the portfolio", HttpStatus.CONFLICT);
+        }
+        return new ResponseEntity<>(e.getMostSpecificCause().getMessage(), HttpStatus.BAD_REQUEST);
+    }
 }
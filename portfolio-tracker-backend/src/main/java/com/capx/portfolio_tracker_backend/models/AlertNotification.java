@@ -0,0 +1,55 @@
+package com.capx.portfolio_tracker_backend.models;
+
+import java.time.Instant;
+
+// What an alert sink delivers when a rule fires
+public class AlertNotification {
+    private final long ruleId;
+    private final long portfolioId;
+    private final AlertRuleType type;
+    private final String ticker;
+    private final double value;
+    private final String message;
+    private final Instant triggeredAt;
+
+    public AlertNotification(long ruleId, long portfolioId, AlertRuleType type, String ticker, double value,
+                             String message, Instant triggeredAt) {
+        this.ruleId = ruleId;
+        this.portfolioId = portfolioId;
+        this.type = type;
+        this.ticker = ticker;
+        this.value = value;
+        this.message = message;
+        this.triggeredAt = triggeredAt;
+    }
+
+    public long getRuleId() {
+        return ruleId;
+    }
+
+    public long getPortfolioId() {
+        return portfolioId;
+    }
+
+    public AlertRuleType getType() {
+        return type;
+    }
+
+    // Null for PORTFOLIO_CHANGE
+    public String getTicker() {
+        return ticker;
+    }
+
+    // The price that fired the rule, or the portfolio's percent change today
+    public double getValue() {
+        return value;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public Instant getTriggeredAt() {
+        return triggeredAt;
+    }
+}
@@ -0,0 +1,100 @@
+package com.capx.portfolio_tracker_backend.models;
+import jakarta.persistence.*;
+import java.time.Instant;
+// A user's alert rule. Price rules (including POSITION_DROP, stored with the price it resolves to) fire once;
+// PORTFOLIO_CHANGE rules fire at most once per UTC day.
+@Entity
+@Table(name = "alert_rules", indexes = {
+        @Index(name = "idx_alert_rules_portfolio_id", columnList = "portfolio_id, id")
+})
+public class AlertRule {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY) // Auto-increment primary key
+    private Long id;
+    @Column(name = "portfolio_id", nullable = false)
+    private Long portfolioId;
+    @Enumerated(EnumType.STRING)
+    @Column(name = "rule_type", nullable = false, length = 32)
+    private AlertRuleType type;
+    @Column(name = "ticker", length = 32) // Null for PORTFOLIO_CHANGE
+    private String ticker;
+    @Column(name = "stock_id") // Holding a POSITION_DROP rule watches
+    private Long stockId;
+    @Column(name = "percent") // POSITION_DROP and PORTFOLIO_CHANGE
+    private Double percent;
+    @Column(name = "threshold") // Price the quote is compared with; null for PORTFOLIO_CHANGE
+    private Double threshold;
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+    @Column(name = "triggered_at") // Last time the rule fired
+    private Instant triggeredAt;
+    @Column(name = "triggered_value") // Price, or percent change for PORTFOLIO_CHANGE, when it fired
+    private Double triggeredValue;
+    // Default constructor (required by JPA)
+    public AlertRule() {
+    }
+    public AlertRule(AlertRuleType type, String ticker, Long stockId, Double percent, Double threshold) {
+        this.type = type;
+        this.ticker = ticker;
+        this.stockId = stockId;
+        this.percent = percent;
+        this.threshold = threshold;
+    }
+    public Long getId() {
+        return id;
+    }
+    public Long getPortfolioId() {
+        return portfolioId;
+    }
+    public void setPortfolioId(Long portfolioId) {
+        this.portfolioId = portfolioId;
+    }
+    public AlertRuleType getType() {
+        return type;
+    }
+    public void setType(AlertRuleType type) {
+        this.type = type;
+    }
+    public String getTicker() {
+        return ticker;
+    }
+    public void setTicker(String ticker) {
+        this.ticker = ticker;
+    }
+    public Long getStockId() {
+        return stockId;
+    }
+    public void setStockId(Long stockId) {
+        this.stockId = stockId;
+    }
+    public Double getPercent() {
+        return percent;
+    }
+    public void setPercent(Double percent) {
+        this.percent = percent;
+    }
+    public Double getThreshold() {
+        return threshold;
+    }
+    public void setThreshold(Double threshold) {
+        this.threshold = threshold;
+    }
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+    public Instant getTriggeredAt() {
+        return triggeredAt;
+    }
+    public void setTriggeredAt(Instant triggeredAt) {
+        this.triggeredAt = triggeredAt;
+    }
+    public Double getTriggeredValue() {
+        return triggeredValue;
+    }
+    public void setTriggeredValue(Double triggeredValue) {
+        this.triggeredValue = triggeredValue;
+    }
+}
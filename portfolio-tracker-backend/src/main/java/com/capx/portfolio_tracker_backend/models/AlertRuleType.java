@@ -0,0 +1,10 @@
+package com.capx.portfolio_tracker_backend.models;
+// Kinds of alert rule. PRICE_BELOW and PRICE_ABOVE compare a ticker's quote with threshold (listing currency);
+// POSITION_DROP fires when a holding's price falls percent below its buy price; PORTFOLIO_CHANGE fires when
+// the portfolio's value moves by at least percent (either way) during the current UTC day.
+public enum AlertRuleType {
+    PRICE_BELOW,
+    PRICE_ABOVE,
+    POSITION_DROP,
+    PORTFOLIO_CHANGE
+}
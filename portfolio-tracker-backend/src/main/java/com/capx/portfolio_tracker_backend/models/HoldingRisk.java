@@ -0,0 +1,43 @@
+package com.capx.portfolio_tracker_backend.models;
+
+// Risk metrics of one ticker held in the portfolio. Volatility and beta are null when the ticker
+// (or the benchmark) has too little price history to be part of the risk model.
+public class HoldingRisk {
+    private final String ticker;
+    private final double value;
+    private final double weight;
+    private final Double volatility;
+    private final Double beta;
+
+    public HoldingRisk(String ticker, double value, double weight, Double volatility, Double beta) {
+        this.ticker = ticker;
+        this.value = value;
+        this.weight = weight;
+        this.volatility = volatility;
+        this.beta = beta;
+    }
+
+    public String getTicker() {
+        return ticker;
+    }
+
+    // Current value in the portfolio's reporting currency
+    public double getValue() {
+        return value;
+    }
+
+    // Share of the portfolio's total value, 0 to 1
+    public double getWeight() {
+        return weight;
+    }
+
+    // Annualized standard deviation of daily log returns
+    public Double getVolatility() {
+        return volatility;
+    }
+
+    // Against the benchmark ticker, over the same days
+    public Double getBeta() {
+        return beta;
+    }
+}
@@ -0,0 +1,12 @@
+package com.capx.portfolio_tracker_backend.models;
+
+// Persisted value (quantity * current_price) of one ticker, or of all holdings sharing a name,
+// in the listing currency
+public interface HoldingValue {
+    String getHolding();
+
+    // Null for rows created before currencies were tracked
+    String getCurrency();
+
+    double getAmount();
+}
@@ -0,0 +1,91 @@
+package com.capx.portfolio_tracker_backend.models;
+
+import java.util.Arrays;
+
+// Open/high/low/close per fixed-width time bucket, built from ticks in time order.
+// Stored and serialized as parallel primitive arrays; empty buckets are omitted.
+public class OhlcSeries {
+    private final String ticker;
+    private final String interval;
+    private final long bucketMillis;
+    private long[] times = new long[64];
+    private double[] open = new double[64];
+    private double[] high = new double[64];
+    private double[] low = new double[64];
+    private double[] close = new double[64];
+    private int[] ticks = new int[64];
+    private int size;
+
+    public OhlcSeries(String ticker, String interval, long bucketMillis) {
+        this.ticker = ticker;
+        this.interval = interval;
+        this.bucketMillis = bucketMillis;
+    }
+
+    // Ticks must arrive in ascending time order
+    public void add(long epochMillis, double price) {
+        long bucket = Math.floorDiv(epochMillis, bucketMillis) * bucketMillis;
+        int last = size - 1;
+        if (last >= 0 && times[last] == bucket) {
+            high[last] = Math.max(high[last], price);
+            low[last] = Math.min(low[last], price);
+            close[last] = price;
+            ticks[last]++;
+            return;
+        }
+        if (size == times.length) {
+            int capacity = size * 2;
+            times = Arrays.copyOf(times, capacity);
+            open = Arrays.copyOf(open, capacity);
+            high = Arrays.copyOf(high, capacity);
+            low = Arrays.copyOf(low, capacity);
+            close = Arrays.copyOf(close, capacity);
+            ticks = Arrays.copyOf(ticks, capacity);
+        }
+        times[size] = bucket;
+        open[size] = price;
+        high[size] = price;
+        low[size] = price;
+        close[size] = price;
+        ticks[size] = 1;
+        size++;
+    }
+
+    public String getTicker() {
+        return ticker;
+    }
+
+    public String getInterval() {
+        return interval;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    // Bucket start, epoch milliseconds
+    public long[] getT() {
+        return Arrays.copyOf(times, size);
+    }
+
+    public double[] getOpen() {
+        return Arrays.copyOf(open, size);
+    }
+
+    public double[] getHigh() {
+        return Arrays.copyOf(high, size);
+    }
+
+    public double[] getLow() {
+        return Arrays.copyOf(low, size);
+    }
+
+    public double[] getClose() {
+        return Arrays.copyOf(close, size);
+    }
+
+    // Number of ticks in each bucket
+    public int[] getTicks() {
+        return Arrays.copyOf(ticks, size);
+    }
+}
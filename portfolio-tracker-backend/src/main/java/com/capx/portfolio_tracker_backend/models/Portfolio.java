@@ -0,0 +1,52 @@
+package com.capx.portfolio_tracker_backend.models;
+import jakarta.persistence.*;
+import java.time.Instant;
+@Entity
+@Table(name = "portfolios", indexes = {
+        @Index(name = "idx_portfolios_owner", columnList = "owner_id")
+})
+public class Portfolio {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY) // Auto-increment primary key
+    private Long id;
+    @Column(name = "portfolio_name", nullable = false)
+    private String name;
+    @Column(name = "owner_id", nullable = false, length = 64) // User the portfolio belongs to
+    private String ownerId;
+    @Column(name = "reporting_currency", length = 3) // Currency values are reported in; null means the configured default
+    private String reportingCurrency;
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+    // Default constructor (required by JPA)
+    public Portfolio() {
+    }
+    public Portfolio(String name, String ownerId) {
+        this.name = name;
+        this.ownerId = ownerId;
+        this.createdAt = Instant.now();
+    }
+    public Long getId() {
+        return id;
+    }
+    public String getName() {
+        return name;
+    }
+    public void setName(String name) {
+        this.name = name;
+    }
+    public String getOwnerId() {
+        return ownerId;
+    }
+    public void setOwnerId(String ownerId) {
+        this.ownerId = ownerId;
+    }
+    public String getReportingCurrency() {
+        return reportingCurrency;
+    }
+    public void setReportingCurrency(String reportingCurrency) {
+        this.reportingCurrency = reportingCurrency;
+    }
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+}
@@ -0,0 +1,96 @@
+package com.capx.portfolio_tracker_backend.models;
+
+import java.util.Collections;
+import java.util.Map;
+
+// Point-in-time view of the portfolio computed from one repository scan and one batch price lookup
+public class PortfolioSnapshot {
+    // Prices looked up through the live price cache
+    public static final String SOURCE_LIVE = "live";
+    // Aggregated by the database from prices the refresh job persisted
+    public static final String SOURCE_PERSISTED = "persisted";
+
+    private final double totalValue;
+    private final double totalInvested;
+    private final int stockCount;
+    private final String currency;
+    private final Map<String, Double> distribution;
+    private final Stock topPerformingStock;
+    private final long priceVersion;
+    private final long dataVersion;
+    private final long fxVersion;
+    private final long computedAt;
+    private final String source;
+
+    public PortfolioSnapshot(double totalValue, double totalInvested, int stockCount, String currency,
+                             Map<String, Double> distribution, Stock topPerformingStock,
+                             long priceVersion, long dataVersion, long fxVersion, long computedAt, String source) {
+        this.totalValue = totalValue;
+        this.totalInvested = totalInvested;
+        this.stockCount = stockCount;
+        this.currency = currency;
+        this.distribution = Collections.unmodifiableMap(distribution);
+        this.topPerformingStock = topPerformingStock;
+        this.priceVersion = priceVersion;
+        this.dataVersion = dataVersion;
+        this.fxVersion = fxVersion;
+        this.computedAt = computedAt;
+        this.source = source;
+    }
+
+    public double getTotalValue() {
+        return totalValue;
+    }
+
+    public double getTotalInvested() {
+        return totalInvested;
+    }
+
+    public double getProfitLoss() {
+        return totalValue - totalInvested;
+    }
+
+    public double getProfitLossPercentage() {
+        return totalInvested > 0 ? (getProfitLoss() / totalInvested) * 100 : 0.0;
+    }
+
+    public int getStockCount() {
+        return stockCount;
+    }
+
+    // Reporting currency of totalValue and totalInvested
+    public String getCurrency() {
+        return currency;
+    }
+
+    // Share of total value per stock name, in percent
+    public Map<String, Double> getDistribution() {
+        return distribution;
+    }
+
+    public Stock getTopPerformingStock() {
+        return topPerformingStock;
+    }
+
+    public long getPriceVersion() {
+        return priceVersion;
+    }
+
+    public long getDataVersion() {
+        return dataVersion;
+    }
+
+    public long getFxVersion() {
+        return fxVersion;
+    }
+
+    // Epoch seconds when the snapshot was computed
+    public long getComputedAt() {
+        return computedAt;
+    }
+
+    // SOURCE_LIVE or SOURCE_PERSISTED
+    public String getSource() {
+        return source;
+    }
+}
@@ -0,0 +1,15 @@
+package com.capx.portfolio_tracker_backend.models;
+
+// Portfolio sums for one listing currency, computed by the database from the persisted columns
+public interface PortfolioTotals {
+    // Null for rows created before currencies were tracked
+    String getCurrency();
+
+    long getStockCount();
+
+    // SUM(quantity * buy_price)
+    double getTotalInvested();
+
+    // SUM(quantity * current_price) over rows that have a price
+    double getTotalValue();
+}
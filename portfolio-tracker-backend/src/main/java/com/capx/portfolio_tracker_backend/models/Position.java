@@ -0,0 +1,108 @@
+package com.capx.portfolio_tracker_backend.models;
+import jakarta.persistence.*;
+// Holding of one ticker in a portfolio, folded from its trades using the average cost method.
+// Updated in place as each trade is appended, so reads never replay the ledger.
+@Entity
+@Table(name = "positions", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_positions_portfolio_ticker", columnNames = {"portfolio_id", "ticker"})
+})
+public class Position {
+    // Remaining quantities below this are treated as a closed position
+    private static final double EPSILON = 1e-9;
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY) // Auto-increment primary key
+    private Long id;
+    @Column(name = "portfolio_id", nullable = false)
+    private Long portfolioId;
+    @Column(name = "ticker", nullable = false, length = 32)
+    private String ticker;
+    @Column(name = "quantity", nullable = false)
+    private double quantity;
+    @Column(name = "cost_basis", nullable = false) // Total cost of the shares still held
+    private double costBasis;
+    @Column(name = "realized_pnl", nullable = false)
+    private double realizedPnl;
+    @Column(name = "dividends", nullable = false)
+    private double dividends;
+    @Transient
+    private Double marketPrice;
+    // Default constructor (required by JPA)
+    public Position() {
+    }
+    public Position(Long portfolioId, String ticker) {
+        this.portfolioId = portfolioId;
+        this.ticker = ticker;
+    }
+    public Position(Long portfolioId, String ticker, double quantity, double costBasis, double realizedPnl, double dividends) {
+        this(portfolioId, ticker);
+        this.quantity = quantity;
+        this.costBasis = costBasis;
+        this.realizedPnl = realizedPnl;
+        this.dividends = dividends;
+    }
+    // Fold one trade into the position
+    public void apply(TradeType type, double tradeQuantity, double tradePrice) {
+        switch (type) {
+            case BUY -> {
+                quantity += tradeQuantity;
+                costBasis += tradeQuantity * tradePrice;
+            }
+            case SELL -> {
+                if (tradeQuantity > quantity + EPSILON) {
+                    throw new IllegalArgumentException("Cannot sell " + tradeQuantity + " " + ticker + ", only " + quantity + " held");
+                }
+                double averageCost = getAverageCost();
+                realizedPnl += tradeQuantity * (tradePrice - averageCost);
+                quantity -= tradeQuantity;
+                costBasis -= tradeQuantity * averageCost;
+                if (quantity < EPSILON) {
+                    quantity = 0;
+                    costBasis = 0;
+                }
+            }
+            case DIVIDEND -> dividends += quantity * tradePrice;
+            case SPLIT -> {
+                if (tradeQuantity <= 0) {
+                    throw new IllegalArgumentException("Split ratio must be positive");
+                }
+                quantity *= tradeQuantity; // Cost basis is unchanged, so the average cost divides by the ratio
+            }
+        }
+    }
+    public Long getId() {
+        return id;
+    }
+    public Long getPortfolioId() {
+        return portfolioId;
+    }
+    public String getTicker() {
+        return ticker;
+    }
+    public double getQuantity() {
+        return quantity;
+    }
+    public double getCostBasis() {
+        return costBasis;
+    }
+    public double getAverageCost() {
+        return quantity > 0 ? costBasis / quantity : 0.0;
+    }
+    public double getRealizedPnl() {
+        return realizedPnl;
+    }
+    public double getDividends() {
+        return dividends;
+    }
+    public Double getMarketPrice() {
+        return marketPrice;
+    }
+    public void setMarketPrice(Double marketPrice) {
+        this.marketPrice = marketPrice;
+    }
+    public Double getMarketValue() {
+        return marketPrice != null ? quantity * marketPrice : null;
+    }
+    public Double getUnrealizedPnl() {
+        return marketPrice != null ? quantity * marketPrice - costBasis : null;
+    }
+}
@@ -0,0 +1,30 @@
+package com.capx.portfolio_tracker_backend.models;
+import jakarta.persistence.*;
+// Copy of a portfolio's positions as of one trade id. Rebuilds start from the latest snapshot and
+// replay only the trades after it. Defines the schema only; rows are written and read with JDBC.
+@Entity
+@Table(name = "position_snapshots", indexes = {
+        @Index(name = "idx_position_snapshots_portfolio", columnList = "portfolio_id, as_of_trade_id")
+})
+public class PositionSnapshot {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY) // Auto-increment primary key
+    private Long id;
+    @Column(name = "portfolio_id", nullable = false)
+    private Long portfolioId;
+    @Column(name = "as_of_trade_id", nullable = false) // Last trade folded into this snapshot
+    private long asOfTradeId;
+    @Column(name = "ticker", nullable = false, length = 32)
+    private String ticker;
+    @Column(name = "quantity", nullable = false)
+    private double quantity;
+    @Column(name = "cost_basis", nullable = false)
+    private double costBasis;
+    @Column(name = "realized_pnl", nullable = false)
+    private double realizedPnl;
+    @Column(name = "dividends", nullable = false)
+    private double dividends;
+    // Default constructor (required by JPA)
+    public PositionSnapshot() {
+    }
+}
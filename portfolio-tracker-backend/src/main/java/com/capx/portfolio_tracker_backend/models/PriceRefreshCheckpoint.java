@@ -0,0 +1,69 @@
+package com.capx.portfolio_tracker_backend.models;
+import jakarta.persistence.*;
+import java.time.Instant;
+// Progress of a price refresh run, written in the same transaction as each chunk of updates.
+// A run with no finish time was interrupted and is resumed after lastStockId.
+@Entity
+@Table(name = "price_refresh_checkpoints")
+public class PriceRefreshCheckpoint {
+    @Id
+    @Column(name = "job_name", length = 64)
+    private String jobName;
+    @Column(name = "last_stock_id", nullable = false)
+    private long lastStockId;
+    @Column(name = "run_started_at", nullable = false)
+    private Instant runStartedAt;
+    @Column(name = "run_finished_at")
+    private Instant runFinishedAt;
+    @Column(name = "rows_scanned", nullable = false)
+    private long rowsScanned;
+    @Column(name = "rows_updated", nullable = false)
+    private long rowsUpdated;
+    // Default constructor (required by JPA)
+    public PriceRefreshCheckpoint() {
+    }
+    public PriceRefreshCheckpoint(String jobName) {
+        this.jobName = jobName;
+    }
+    // Reset progress for a new run
+    public void start(Instant startedAt) {
+        this.lastStockId = 0;
+        this.runStartedAt = startedAt;
+        this.runFinishedAt = null;
+        this.rowsScanned = 0;
+        this.rowsUpdated = 0;
+    }
+    public boolean isRunning() {
+        return runStartedAt != null && runFinishedAt == null;
+    }
+    public String getJobName() {
+        return jobName;
+    }
+    public long getLastStockId() {
+        return lastStockId;
+    }
+    public void setLastStockId(long lastStockId) {
+        this.lastStockId = lastStockId;
+    }
+    public Instant getRunStartedAt() {
+        return runStartedAt;
+    }
+    public Instant getRunFinishedAt() {
+        return runFinishedAt;
+    }
+    public void setRunFinishedAt(Instant runFinishedAt) {
+        this.runFinishedAt = runFinishedAt;
+    }
+    public long getRowsScanned() {
+        return rowsScanned;
+    }
+    public void setRowsScanned(long rowsScanned) {
+        this.rowsScanned = rowsScanned;
+    }
+    public long getRowsUpdated() {
+        return rowsUpdated;
+    }
+    public void setRowsUpdated(long rowsUpdated) {
+        this.rowsUpdated = rowsUpdated;
+    }
+}
@@ -0,0 +1,43 @@
+package com.capx.portfolio_tracker_backend.models;
+
+import java.util.Arrays;
+
+// Raw ticks in time order, held as parallel primitive arrays and serialized as columns
+// ({"t": [...], "price": [...]}) rather than one object per tick
+public class PriceSeries {
+    private final String ticker;
+    private long[] times = new long[64];
+    private double[] prices = new double[64];
+    private int size;
+
+    public PriceSeries(String ticker) {
+        this.ticker = ticker;
+    }
+
+    public void append(long epochMillis, double price) {
+        if (size == times.length) {
+            times = Arrays.copyOf(times, size * 2);
+            prices = Arrays.copyOf(prices, size * 2);
+        }
+        times[size] = epochMillis;
+        prices[size] = price;
+        size++;
+    }
+
+    public String getTicker() {
+        return ticker;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    // Epoch milliseconds
+    public long[] getT() {
+        return Arrays.copyOf(times, size);
+    }
+
+    public double[] getPrice() {
+        return Arrays.copyOf(prices, size);
+    }
+}
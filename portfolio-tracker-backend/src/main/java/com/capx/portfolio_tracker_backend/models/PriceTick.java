@@ -0,0 +1,35 @@
+package com.capx.portfolio_tracker_backend.models;
+import jakarta.persistence.*;
+// One fetched quote. The table is append-only: rows are batch-inserted and read back with JDBC by
+// PriceHistoryService; this entity only declares the schema.
+@Entity
+@Table(name = "price_ticks", indexes = {
+        // Range scans per ticker in time order
+        @Index(name = "idx_price_ticks_ticker_time", columnList = "ticker, fetched_at, price")
+})
+public class PriceTick {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    @Column(name = "ticker", nullable = false, length = 32)
+    private String ticker;
+    @Column(name = "fetched_at", nullable = false) // Epoch milliseconds
+    private long fetchedAt;
+    @Column(name = "price", nullable = false) // Same unit as stocks.current_price
+    private double price;
+    // Default constructor (required by JPA)
+    public PriceTick() {
+    }
+    public Long getId() {
+        return id;
+    }
+    public String getTicker() {
+        return ticker;
+    }
+    public long getFetchedAt() {
+        return fetchedAt;
+    }
+    public double getPrice() {
+        return price;
+    }
+}
@@ -0,0 +1,138 @@
+package com.capx.portfolio_tracker_backend.models;
+
+import java.util.Collections;
+import java.util.List;
+
+// Portfolio risk computed from daily closes of the held tickers: per-holding volatility and beta,
+// the correlation matrix of the modelled tickers, and portfolio volatility, beta and value at risk.
+// Portfolio-level figures are null when no holding has enough price history.
+public class RiskReport {
+    private final String currency;
+    private final double totalValue;
+    private final double modelledValue;
+    private final int observations;
+    private final String benchmark;
+    private final double confidence;
+    private final int horizonDays;
+    private final Double volatility;
+    private final Double beta;
+    private final Double historicalVar;
+    private final Double monteCarloVar;
+    private final int monteCarloPaths;
+    private final List<HoldingRisk> holdings;
+    private final List<String> tickers;
+    private final double[][] correlation;
+    private final long priceVersion;
+    private final long dataVersion;
+    private final long fxVersion;
+    private final long computedAt;
+
+    public RiskReport(String currency, double totalValue, double modelledValue, int observations, String benchmark,
+                      double confidence, int horizonDays, Double volatility, Double beta, Double historicalVar,
+                      Double monteCarloVar, int monteCarloPaths, List<HoldingRisk> holdings, List<String> tickers,
+                      double[][] correlation, long priceVersion, long dataVersion, long fxVersion, long computedAt) {
+        this.currency = currency;
+        this.totalValue = totalValue;
+        this.modelledValue = modelledValue;
+        this.observations = observations;
+        this.benchmark = benchmark;
+        this.confidence = confidence;
+        this.horizonDays = horizonDays;
+        this.volatility = volatility;
+        this.beta = beta;
+        this.historicalVar = historicalVar;
+        this.monteCarloVar = monteCarloVar;
+        this.monteCarloPaths = monteCarloPaths;
+        this.holdings = Collections.unmodifiableList(holdings);
+        this.tickers = Collections.unmodifiableList(tickers);
+        this.correlation = correlation;
+        this.priceVersion = priceVersion;
+        this.dataVersion = dataVersion;
+        this.fxVersion = fxVersion;
+        this.computedAt = computedAt;
+    }
+
+    // Reporting currency of every amount
+    public String getCurrency() {
+        return currency;
+    }
+
+    public double getTotalValue() {
+        return totalValue;
+    }
+
+    // Value of the holdings with enough history to be in the risk model; VaR covers only these
+    public double getModelledValue() {
+        return modelledValue;
+    }
+
+    // Daily returns the model was fitted on
+    public int getObservations() {
+        return observations;
+    }
+
+    public String getBenchmark() {
+        return benchmark;
+    }
+
+    public double getConfidence() {
+        return confidence;
+    }
+
+    public int getHorizonDays() {
+        return horizonDays;
+    }
+
+    // Annualized volatility of the portfolio's daily returns
+    public Double getVolatility() {
+        return volatility;
+    }
+
+    public Double getBeta() {
+        return beta;
+    }
+
+    // Loss not exceeded with the given confidence over the horizon, from the observed daily returns
+    public Double getHistoricalVar() {
+        return historicalVar;
+    }
+
+    // Same, from simulated correlated returns
+    public Double getMonteCarloVar() {
+        return monteCarloVar;
+    }
+
+    public int getMonteCarloPaths() {
+        return monteCarloPaths;
+    }
+
+    public List<HoldingRisk> getHoldings() {
+        return holdings;
+    }
+
+    // Row and column order of the correlation matrix
+    public List<String> getTickers() {
+        return tickers;
+    }
+
+    public double[][] getCorrelation() {
+        return correlation;
+    }
+
+    public long getPriceVersion() {
+        return priceVersion;
+    }
+
+    public long getDataVersion() {
+        return dataVersion;
+    }
+
+    public long getFxVersion() {
+        return fxVersion;
+    }
+
+    // Epoch seconds when the report was computed
+    public long getComputedAt() {
+        return computedAt;
+    }
+}
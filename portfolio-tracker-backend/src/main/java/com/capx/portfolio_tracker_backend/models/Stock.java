@@ -1,20 +1,45 @@
 package com.capx.portfolio_tracker_backend.models;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 import java.util.Objects;
 @Entity
-@Table(name = "stocks") // Explicitly define table name
+// Kept in the "stocks" second-level cache region; rows written with plain JDBC must be evicted (see StockService)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "stocks")
+@Table(name = "stocks", uniqueConstraints = { // Explicitly define table name
+        // A ticker appears at most once per portfolio
+        @UniqueConstraint(name = "uk_stocks_portfolio_ticker", columnNames = {"portfolio_id", "ticker"})
+}, indexes = {
+        // Keyset paging by id within a portfolio
+        @Index(name = "idx_stocks_portfolio_id", columnList = "portfolio_id, id"),
+        // Serves top-N by percentage change without a sort
+        @Index(name = "idx_stocks_percentage_change", columnList = "portfolio_id, percentage_change"),
+        // Covering index for the SUM/GROUP BY aggregates, so they never touch the table rows
+        @Index(name = "idx_stocks_name_value", columnList = "portfolio_id, stock_name, currency, quantity, current_price, buy_price")
+})
 public class Stock {
+    // Listing currency of rows created before currencies were tracked
+    public static final String DEFAULT_CURRENCY = "USD";
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY) // Auto-increment primary key
     private Long id;
     @Column(name = "stock_name", nullable = false) // Add column name and constraints
     private String name;
-    @Column(name = "ticker", nullable = false, unique = true) // Add uniqueness constraint
+    @Column(name = "portfolio_id") // Owning portfolio (portfolios.id)
+    private Long portfolioId;
+    @Column(name = "ticker", nullable = false) // Unique per portfolio, see uk_stocks_portfolio_ticker
     private String ticker;
     @Column(name = "quantity", nullable = false)
     private int quantity;
     @Column(name = "buy_price", nullable = false)
     private double buyPrice;
+    // Listing currency of buy_price and current_price (ISO 4217). Hibernate writes every column, so the
+    // column default only covers plain JDBC inserts; requests without a currency get it here.
+    @Column(name = "currency", length = 3, nullable = false)
+    @ColumnDefault("'" + DEFAULT_CURRENCY + "'")
+    private String currency = DEFAULT_CURRENCY;
     @Column(name = "current_price")  // Column to store the current stock price
     private Double currentPrice;  // This is the field for the current stock price
     @Column(name = "percentage_change")
@@ -43,12 +68,24 @@ public class Stock {
     public void setName(String name) {
         this.name = name;
     }
+    public Long getPortfolioId() {
+        return portfolioId;
+    }
+    public void setPortfolioId(Long portfolioId) {
+        this.portfolioId = portfolioId;
+    }
     public String getTicker() {
         return ticker;
     }
     public void setTicker(String ticker) {
         this.ticker = ticker;
     }
+    public String getCurrency() {
+        return currency;
+    }
+    public void setCurrency(String currency) {
+        this.currency = currency != null && !currency.isBlank() ? currency : DEFAULT_CURRENCY;
+    }
     public int getQuantity() {
         return quantity;
     }
@@ -78,6 +115,7 @@ public class Stock {
     public String toString() {
         return "Stock{" +
                 "id=" + id +
+                ", portfolioId=" + portfolioId +
                 ", name='" + name + '\'' +
                 ", ticker='" + ticker + '\'' +
                 ", quantity=" + quantity +
@@ -0,0 +1,22 @@
+package com.capx.portfolio_tracker_backend.models;
+
+import java.util.List;
+
+// One keyset page of stocks. nextCursor is null on the last page.
+public class StockPage {
+    private final List<Stock> stocks;
+    private final String nextCursor;
+
+    public StockPage(List<Stock> stocks, String nextCursor) {
+        this.stocks = stocks;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<Stock> getStocks() {
+        return stocks;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
@@ -0,0 +1,76 @@
+package com.capx.portfolio_tracker_backend.models;
+import jakarta.persistence.*;
+import java.time.Instant;
+// One append-only ledger entry. Positions are derived from the trades of a portfolio in id order.
+@Entity
+@Table(name = "trades", indexes = {
+        // Replay and keyset listing of one portfolio's trades in id order
+        @Index(name = "idx_trades_portfolio_id", columnList = "portfolio_id, id")
+})
+public class Trade {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY) // Auto-increment primary key
+    private Long id;
+    @Column(name = "portfolio_id", nullable = false)
+    private Long portfolioId;
+    @Column(name = "ticker", nullable = false, length = 32)
+    private String ticker;
+    @Enumerated(EnumType.STRING)
+    @Column(name = "trade_type", nullable = false, length = 16)
+    private TradeType type;
+    @Column(name = "quantity", nullable = false)
+    private double quantity;
+    @Column(name = "price", nullable = false)
+    private double price;
+    @Column(name = "executed_at", nullable = false)
+    private Instant executedAt;
+    // Default constructor (required by JPA)
+    public Trade() {
+    }
+    public Trade(String ticker, TradeType type, double quantity, double price, Instant executedAt) {
+        this.ticker = ticker;
+        this.type = type;
+        this.quantity = quantity;
+        this.price = price;
+        this.executedAt = executedAt;
+    }
+    public Long getId() {
+        return id;
+    }
+    public Long getPortfolioId() {
+        return portfolioId;
+    }
+    public void setPortfolioId(Long portfolioId) {
+        this.portfolioId = portfolioId;
+    }
+    public String getTicker() {
+        return ticker;
+    }
+    public void setTicker(String ticker) {
+        this.ticker = ticker;
+    }
+    public TradeType getType() {
+        return type;
+    }
+    public void setType(TradeType type) {
+        this.type = type;
+    }
+    public double getQuantity() {
+        return quantity;
+    }
+    public void setQuantity(double quantity) {
+        this.quantity = quantity;
+    }
+    public double getPrice() {
+        return price;
+    }
+    public void setPrice(double price) {
+        this.price = price;
+    }
+    public Instant getExecutedAt() {
+        return executedAt;
+    }
+    public void setExecutedAt(Instant executedAt) {
+        this.executedAt = executedAt;
+    }
+}
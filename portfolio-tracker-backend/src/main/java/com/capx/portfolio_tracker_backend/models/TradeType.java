@@ -0,0 +1,9 @@
+package com.capx.portfolio_tracker_backend.models;
+// Kinds of ledger entry. For BUY/SELL quantity is shares and price is per share; for DIVIDEND price is the
+// cash paid per share held; for SPLIT quantity is the ratio (2 for a 2-for-1 split) and price is unused.
+public enum TradeType {
+    BUY,
+    SELL,
+    DIVIDEND,
+    SPLIT
+}
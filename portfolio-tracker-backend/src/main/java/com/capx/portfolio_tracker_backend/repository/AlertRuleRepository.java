@@ -0,0 +1,27 @@
+package com.capx.portfolio_tracker_backend.repository;
+import com.capx.portfolio_tracker_backend.models.AlertRule;
+import com.capx.portfolio_tracker_backend.models.AlertRuleType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+@Repository
+public interface AlertRuleRepository extends JpaRepository<AlertRule, Long> {
+    List<AlertRule> findByPortfolioIdOrderByIdAsc(Long portfolioId);
+    List<AlertRule> findByType(AlertRuleType type);
+    // Remove every rule of a portfolio in one statement
+    @Transactional
+    @Modifying
+    @Query("delete from AlertRule r where r.portfolioId = :portfolioId")
+    int deleteByPortfolioId(@Param("portfolioId") Long portfolioId);
+    // Record that the rules fired on the same value, without loading them
+    @Transactional
+    @Modifying
+    @Query("update AlertRule r set r.triggeredAt = :at, r.triggeredValue = :value where r.id in :ids")
+    int markTriggered(@Param("ids") Collection<Long> ids, @Param("at") Instant at, @Param("value") double value);
+}
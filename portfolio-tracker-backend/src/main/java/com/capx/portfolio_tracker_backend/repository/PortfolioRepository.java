@@ -0,0 +1,19 @@
+package com.capx.portfolio_tracker_backend.repository;
+import com.capx.portfolio_tracker_backend.models.Portfolio;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+import java.util.Optional;
+@Repository
+public interface PortfolioRepository extends JpaRepository<Portfolio, Long> {
+    List<Portfolio> findByOwnerIdOrderById(String ownerId);
+    Optional<Portfolio> findFirstByOwnerIdAndNameOrderById(String ownerId, String name);
+    // Row lock that serializes ledger writes of one portfolio. Must be called inside a transaction.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select p from Portfolio p where p.id = :id")
+    Optional<Portfolio> lockById(@Param("id") Long id);
+}
@@ -0,0 +1,19 @@
+package com.capx.portfolio_tracker_backend.repository;
+import com.capx.portfolio_tracker_backend.models.Position;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.List;
+import java.util.Optional;
+@Repository
+public interface PositionRepository extends JpaRepository<Position, Long> {
+    List<Position> findByPortfolioIdOrderByTicker(Long portfolioId);
+    Optional<Position> findByPortfolioIdAndTicker(Long portfolioId, String ticker);
+    @Transactional
+    @Modifying
+    @Query("delete from Position p where p.portfolioId = :portfolioId")
+    int deleteByPortfolioId(@Param("portfolioId") Long portfolioId);
+}
@@ -0,0 +1,7 @@
+package com.capx.portfolio_tracker_backend.repository;
+import com.capx.portfolio_tracker_backend.models.PriceRefreshCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+@Repository
+public interface PriceRefreshCheckpointRepository extends JpaRepository<PriceRefreshCheckpoint, String> {
+}
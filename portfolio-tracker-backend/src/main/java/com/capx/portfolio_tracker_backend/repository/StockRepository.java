@@ -1,9 +1,72 @@
 package com.capx.portfolio_tracker_backend.repository;
+import com.capx.portfolio_tracker_backend.models.HoldingValue;
+import com.capx.portfolio_tracker_backend.models.PortfolioTotals;
 import com.capx.portfolio_tracker_backend.models.Stock;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.List;
+import java.util.stream.Stream;
 @Repository
 public interface StockRepository extends JpaRepository<Stock, Long> {
-   
+    // Keyset page over every portfolio: the next rows after the given id, in id order
+    List<Stock> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+    // Holdings of one portfolio. Results are kept in the query cache as ids, resolved through the entity cache,
+    // and dropped whenever the stocks table is written through Hibernate (or by StockService.onStocksChanged).
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<Stock> findByPortfolioId(Long portfolioId);
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<Stock> findByPortfolioId(Long portfolioId, Sort sort);
+    // Keyset page of one portfolio in any sort order; the position carries the sort keys of the last row returned
+    Window<Stock> findByPortfolioId(Long portfolioId, ScrollPosition position, Sort sort, Limit limit);
+    // Count, invested amount and persisted value of a portfolio per listing currency in one aggregate query
+    @Query("select s.currency as currency, count(s) as stockCount, coalesce(sum(s.quantity * s.buyPrice), 0) as totalInvested, "
+            + "coalesce(sum(s.quantity * s.currentPrice), 0) as totalValue from Stock s where s.portfolioId = :portfolioId "
+            + "group by s.currency")
+    List<PortfolioTotals> aggregateTotals(@Param("portfolioId") Long portfolioId);
+    // Persisted value per ticker
+    @Query("select s.ticker as holding, s.currency as currency, s.quantity * s.currentPrice as amount from Stock s "
+            + "where s.portfolioId = :portfolioId and s.currentPrice is not null")
+    List<HoldingValue> findValueByTicker(@Param("portfolioId") Long portfolioId);
+    // Persisted value per stock name and listing currency, as used by the distribution
+    @Query("select s.name as holding, s.currency as currency, sum(s.quantity * s.currentPrice) as amount from Stock s "
+            + "where s.portfolioId = :portfolioId and s.currentPrice is not null group by s.name, s.currency")
+    List<HoldingValue> sumValueByName(@Param("portfolioId") Long portfolioId);
+    // Best performers by persisted percentage change
+    List<Stock> findByPortfolioIdAndCurrentPriceIsNotNullOrderByPercentageChangeDesc(Long portfolioId, Limit limit);
+    // Latest price persisted for a ticker in any portfolio, used when no quote provider answers
+    @Query("select s.currentPrice from Stock s where s.ticker = :ticker and s.currentPrice > 0 order by s.id desc")
+    List<Double> findPersistedPrices(@Param("ticker") String ticker, Limit limit);
+    // One persisted price per distinct ticker across all portfolios
+    @Query("select s.ticker as holding, s.currency as currency, max(s.currentPrice) as amount from Stock s "
+            + "where s.currentPrice is not null group by s.ticker, s.currency")
+    List<HoldingValue> findPersistedPriceByTicker();
+    // Every stock of a portfolio in id order. Must be consumed inside a transaction. MySQL Connector/J only reads
+    // 500-row chunks through a server cursor with useCursorFetch=true on the URL; otherwise it buffers the whole result.
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select s from Stock s where s.portfolioId = :portfolioId order by s.id")
+    Stream<Stock> streamByPortfolioIdOrderById(@Param("portfolioId") Long portfolioId);
+    // Remove every holding of a portfolio in one statement
+    @Transactional
+    @Modifying
+    @Query("delete from Stock s where s.portfolioId = :portfolioId")
+    int deleteByPortfolioId(@Param("portfolioId") Long portfolioId);
+    // Move holdings created before portfolios existed into the given portfolio
+    @Transactional
+    @Modifying
+    @Query("update Stock s set s.portfolioId = :portfolioId where s.portfolioId is null")
+    int assignUnownedStocks(@Param("portfolioId") Long portfolioId);
 }
-
@@ -0,0 +1,22 @@
+package com.capx.portfolio_tracker_backend.repository;
+import com.capx.portfolio_tracker_backend.models.Trade;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.List;
+@Repository
+public interface TradeRepository extends JpaRepository<Trade, Long> {
+    // Keyset page of a portfolio's trades after the given id
+    List<Trade> findByPortfolioIdAndIdGreaterThanOrderByIdAsc(Long portfolioId, Long id, Limit limit);
+    // Last trade id of a portfolio, 0 if it has none
+    @Query("select coalesce(max(t.id), 0) from Trade t where t.portfolioId = :portfolioId")
+    long findMaxId(@Param("portfolioId") Long portfolioId);
+    @Transactional
+    @Modifying
+    @Query("delete from Trade t where t.portfolioId = :portfolioId")
+    int deleteByPortfolioId(@Param("portfolioId") Long portfolioId);
+}
@@ -0,0 +1,369 @@
+package com.capx.portfolio_tracker_backend.service;
+
+import com.capx.portfolio_tracker_backend.models.Position;
+import com.capx.portfolio_tracker_backend.models.Trade;
+import com.capx.portfolio_tracker_backend.models.TradeType;
+import com.capx.portfolio_tracker_backend.repository.PortfolioRepository;
+import com.capx.portfolio_tracker_backend.repository.PositionRepository;
+import com.capx.portfolio_tracker_backend.repository.TradeRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+// Append-only trade ledger with positions maintained incrementally.
+// Every write to a portfolio's ledger holds that portfolio's row lock, so trades are folded into the
+// positions table in id order and a snapshot always matches the trades up to its as-of id. Rebuilding
+// the positions starts from the latest snapshot and replays only the trades after it.
+@Service
+public class LedgerService {
+    private static final Logger log = LoggerFactory.getLogger(LedgerService.class);
+
+    private static final String INSERT_TRADE_SQL = "INSERT INTO trades (portfolio_id, ticker, trade_type, quantity, price, executed_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_POSITION_SQL = "INSERT INTO positions (portfolio_id, ticker, quantity, cost_basis, realized_pnl, dividends) "
+            + "VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String SELECT_TRADES_AFTER_SQL = "SELECT id, ticker, trade_type, quantity, price FROM trades "
+            + "WHERE portfolio_id = ? AND id > ? ORDER BY id";
+    private static final String LATEST_SNAPSHOT_SQL = "SELECT MAX(as_of_trade_id) FROM position_snapshots WHERE portfolio_id = ?";
+    private static final String SELECT_SNAPSHOT_SQL = "SELECT ticker, quantity, cost_basis, realized_pnl, dividends "
+            + "FROM position_snapshots WHERE portfolio_id = ? AND as_of_trade_id = ?";
+    private static final String COPY_POSITIONS_SQL = "INSERT INTO position_snapshots "
+            + "(portfolio_id, as_of_trade_id, ticker, quantity, cost_basis, realized_pnl, dividends) "
+            + "SELECT portfolio_id, ?, ticker, quantity, cost_basis, realized_pnl, dividends FROM positions WHERE portfolio_id = ?";
+    private static final String DELETE_OLD_SNAPSHOTS_SQL = "DELETE FROM position_snapshots WHERE portfolio_id = ? AND as_of_trade_id < ?";
+    // Portfolios with trades newer than their latest snapshot
+    private static final String STALE_SNAPSHOTS_SQL = "SELECT t.portfolio_id FROM trades t GROUP BY t.portfolio_id "
+            + "HAVING MAX(t.id) > COALESCE((SELECT MAX(s.as_of_trade_id) FROM position_snapshots s WHERE s.portfolio_id = t.portfolio_id), 0)";
+    // Rows per round trip for large reads; MySQL Connector/J ignores it unless the URL sets useCursorFetch=true
+    private static final int READ_FETCH_SIZE = 1000;
+
+    @Autowired
+    private TradeRepository tradeRepository;
+
+    @Autowired
+    private PositionRepository positionRepository;
+
+    @Autowired
+    private PortfolioRepository portfolioRepository;
+
+    @Autowired
+    private StockPriceService stockPriceService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Trades per JDBC batch during a CSV import
+    @Value("${ledger.import.batch-size:5000}")
+    private int importBatchSize;
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // Append one trade and fold it into its position
+    public Trade appendTrade(long portfolioId, Trade trade) {
+        validate(trade);
+        trade.setPortfolioId(portfolioId);
+        if (trade.getExecutedAt() == null) {
+            trade.setExecutedAt(Instant.now());
+        }
+        return transactionTemplate.execute(status -> {
+            lockPortfolio(portfolioId);
+            Position position = positionRepository.findByPortfolioIdAndTicker(portfolioId, trade.getTicker())
+                    .orElseGet(() -> new Position(portfolioId, trade.getTicker()));
+            position.apply(trade.getType(), trade.getQuantity(), trade.getPrice());
+            positionRepository.save(position);
+            return tradeRepository.save(trade);
+        });
+    }
+
+    // Keyset page of the portfolio's trades after the given id
+    public List<Trade> getTrades(long portfolioId, long afterId, int limit) {
+        return tradeRepository.findByPortfolioIdAndIdGreaterThanOrderByIdAsc(portfolioId, afterId, Limit.of(limit));
+    }
+
+    // Positions with market value and unrealized P&L at the cached price. Closed positions are included
+    // for their realized P&L.
+    public List<Position> getPositions(long portfolioId) {
+        List<Position> positions = positionRepository.findByPortfolioIdOrderByTicker(portfolioId);
+        Set<String> open = new LinkedHashSet<>();
+        for (Position position : positions) {
+            if (position.getQuantity() > 0) {
+                open.add(position.getTicker());
+            }
+        }
+        Map<String, Double> prices = open.isEmpty() ? Map.of() : stockPriceService.getStockPrices(open);
+        for (Position position : positions) {
+            if (position.getQuantity() > 0) {
+                position.setMarketPrice(prices.get(position.getTicker()));
+            }
+        }
+        return positions;
+    }
+
+    // Import trades from CSV lines "type,ticker,quantity,price[,executed_at]" (optional header line).
+    // Lines are parsed while streaming, folded into in-memory positions and written in JDBC batches;
+    // the positions are written once at the end. The whole import is one transaction, so a bad line
+    // (reported with its line number) leaves the ledger untouched.
+    public Map<String, Object> importTrades(long portfolioId, InputStream csv) {
+        long start = System.currentTimeMillis();
+        long[] imported = new long[1];
+        int positionsTouched = transactionTemplate.execute(status -> {
+            lockPortfolio(portfolioId);
+            Map<String, Position> positions = new HashMap<>();
+            for (Position position : positionRepository.findByPortfolioIdOrderByTicker(portfolioId)) {
+                positions.put(position.getTicker(), position);
+            }
+            Set<String> touched = new LinkedHashSet<>();
+            Instant now = Instant.now();
+            List<Trade> batch = new ArrayList<>(importBatchSize);
+            try {
+                BufferedReader reader = new BufferedReader(new InputStreamReader(csv, StandardCharsets.UTF_8));
+                String line;
+                long lineNumber = 0;
+                while ((line = reader.readLine()) != null) {
+                    lineNumber++;
+                    if (line.isBlank() || (lineNumber == 1 && line.regionMatches(true, 0, "type", 0, 4))) {
+                        continue;
+                    }
+                    Trade trade = parseLine(line, lineNumber, now);
+                    trade.setPortfolioId(portfolioId);
+                    Position position = positions.computeIfAbsent(trade.getTicker(), ticker -> new Position(portfolioId, ticker));
+                    try {
+                        position.apply(trade.getType(), trade.getQuantity(), trade.getPrice());
+                    } catch (IllegalArgumentException e) {
+                        throw new IllegalArgumentException("Line " + lineNumber + ": " + e.getMessage());
+                    }
+                    touched.add(trade.getTicker());
+                    batch.add(trade);
+                    if (batch.size() == importBatchSize) {
+                        jdbcTemplate.batchUpdate(INSERT_TRADE_SQL, new TradeBatch(batch));
+                        imported[0] += batch.size();
+                        batch.clear();
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            jdbcTemplate.batchUpdate(INSERT_TRADE_SQL, new TradeBatch(batch));
+            imported[0] += batch.size();
+            // Existing positions are managed and flushed on commit; only new ones need saving
+            for (String ticker : touched) {
+                Position position = positions.get(ticker);
+                if (position.getId() == null) {
+                    positionRepository.save(position);
+                }
+            }
+            return touched.size();
+        });
+        long durationMs = System.currentTimeMillis() - start;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("tradesImported", imported[0]);
+        stats.put("positionsUpdated", positionsTouched);
+        stats.put("durationMs", durationMs);
+        stats.put("tradesPerSecond", durationMs > 0 ? imported[0] * 1000 / durationMs : imported[0]);
+        return stats;
+    }
+
+    // Copy the portfolio's positions into position_snapshots as of its last trade, replacing the older
+    // snapshot. Returns the as-of trade id, or null if nothing changed since the last snapshot.
+    public Long snapshot(long portfolioId) {
+        return transactionTemplate.execute(status -> {
+            lockPortfolio(portfolioId);
+            long asOf = tradeRepository.findMaxId(portfolioId);
+            Long latest = jdbcTemplate.queryForObject(LATEST_SNAPSHOT_SQL, Long.class, portfolioId);
+            if (asOf == 0 || (latest != null && latest == asOf)) {
+                return null;
+            }
+            jdbcTemplate.update(COPY_POSITIONS_SQL, asOf, portfolioId);
+            jdbcTemplate.update(DELETE_OLD_SNAPSHOTS_SQL, portfolioId, asOf);
+            return asOf;
+        });
+    }
+
+    // Snapshot every portfolio that has trades newer than its latest snapshot
+    @Scheduled(initialDelayString = "${ledger.snapshot.interval-ms:3600000}",
+            fixedDelayString = "${ledger.snapshot.interval-ms:3600000}")
+    public void snapshotAll() {
+        List<Long> portfolioIds = jdbcTemplate.queryForList(STALE_SNAPSHOTS_SQL, Long.class);
+        for (Long portfolioId : portfolioIds) {
+            snapshot(portfolioId);
+        }
+        if (!portfolioIds.isEmpty()) {
+            log.info("Snapshotted positions of {} portfolios", portfolioIds.size());
+        }
+    }
+
+    // Recompute the portfolio's positions from its latest snapshot plus the trades after it, and
+    // replace the positions table rows with the result
+    public Map<String, Object> rebuildPositions(long portfolioId) {
+        long start = System.currentTimeMillis();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        transactionTemplate.executeWithoutResult(status -> {
+            lockPortfolio(portfolioId);
+            Long asOf = jdbcTemplate.queryForObject(LATEST_SNAPSHOT_SQL, Long.class, portfolioId);
+            Map<String, Position> positions = new LinkedHashMap<>();
+            if (asOf != null) {
+                jdbcTemplate.query(SELECT_SNAPSHOT_SQL, rs -> {
+                    String ticker = rs.getString(1);
+                    positions.put(ticker, new Position(portfolioId, ticker, rs.getDouble(2), rs.getDouble(3),
+                            rs.getDouble(4), rs.getDouble(5)));
+                }, portfolioId, asOf);
+            }
+            long[] replayed = new long[1];
+            long afterId = asOf != null ? asOf : 0;
+            PreparedStatementCreator statement = connection -> {
+                PreparedStatement ps = connection.prepareStatement(SELECT_TRADES_AFTER_SQL);
+                ps.setFetchSize(READ_FETCH_SIZE);
+                ps.setLong(1, portfolioId);
+                ps.setLong(2, afterId);
+                return ps;
+            };
+            jdbcTemplate.query(statement, rs -> {
+                String ticker = rs.getString(2);
+                positions.computeIfAbsent(ticker, t -> new Position(portfolioId, t))
+                        .apply(TradeType.valueOf(rs.getString(3)), rs.getDouble(4), rs.getDouble(5));
+                replayed[0]++;
+            });
+            positionRepository.deleteByPortfolioId(portfolioId);
+            jdbcTemplate.batchUpdate(INSERT_POSITION_SQL, new PositionBatch(new ArrayList<>(positions.values())));
+            stats.put("snapshotTradeId", asOf);
+            stats.put("tradesReplayed", replayed[0]);
+            stats.put("positions", positions.size());
+        });
+        stats.put("durationMs", System.currentTimeMillis() - start);
+        return stats;
+    }
+
+    // Remove the ledger of a deleted portfolio
+    public void deleteLedger(long portfolioId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update("DELETE FROM position_snapshots WHERE portfolio_id = ?", portfolioId);
+            positionRepository.deleteByPortfolioId(portfolioId);
+            tradeRepository.deleteByPortfolioId(portfolioId);
+        });
+    }
+
+    private void lockPortfolio(long portfolioId) {
+        if (portfolioRepository.lockById(portfolioId).isEmpty()) {
+            throw new PortfolioNotFoundException(portfolioId);
+        }
+    }
+
+    // Also normalises the ticker, so " aapl" from a CSV and "AAPL" from the API fold into one position
+    private static void validate(Trade trade) {
+        if (trade.getTicker() == null || trade.getTicker().isBlank() || trade.getType() == null) {
+            throw new IllegalArgumentException("ticker and type are required");
+        }
+        trade.setTicker(trade.getTicker().trim().toUpperCase(Locale.ROOT));
+        if (!Double.isFinite(trade.getQuantity()) || !Double.isFinite(trade.getPrice())) {
+            throw new IllegalArgumentException("quantity and price must be finite numbers");
+        }
+        if (trade.getType() != TradeType.DIVIDEND && !(trade.getQuantity() > 0)) {
+            throw new IllegalArgumentException("quantity must be positive");
+        }
+        if (trade.getType() != TradeType.SPLIT && !(trade.getPrice() >= 0)) {
+            throw new IllegalArgumentException("price must not be negative");
+        }
+    }
+
+    private static Trade parseLine(String line, long lineNumber, Instant defaultTime) {
+        String[] fields = line.split(",", -1);
+        if (fields.length < 4 || fields.length > 5) {
+            throw new IllegalArgumentException("Line " + lineNumber + ": expected type,ticker,quantity,price[,executed_at]");
+        }
+        try {
+            Instant executedAt = fields.length == 5 && !fields[4].isBlank() ? Instant.parse(fields[4].trim()) : defaultTime;
+            Trade trade = new Trade(fields[1].trim(), TradeType.valueOf(fields[0].trim().toUpperCase(Locale.ROOT)),
+                    Double.parseDouble(fields[2].trim()), Double.parseDouble(fields[3].trim()), executedAt);
+            validate(trade);
+            return trade;
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Line " + lineNumber + ": " + e.getMessage());
+        }
+    }
+
+    private static final class TradeBatch implements BatchPreparedStatementSetter {
+        private final List<Trade> trades;
+
+        TradeBatch(List<Trade> trades) {
+            this.trades = trades;
+        }
+
+        @Override
+        public void setValues(PreparedStatement ps, int i) throws SQLException {
+            Trade trade = trades.get(i);
+            ps.setLong(1, trade.getPortfolioId());
+            ps.setString(2, trade.getTicker());
+            ps.setString(3, trade.getType().name());
+            ps.setDouble(4, trade.getQuantity());
+            ps.setDouble(5, trade.getPrice());
+            ps.setTimestamp(6, Timestamp.from(trade.getExecutedAt()));
+        }
+
+        @Override
+        public int getBatchSize() {
+            return trades.size();
+        }
+    }
+
+    private static final class PositionBatch implements BatchPreparedStatementSetter {
+        private final List<Position> positions;
+
+        PositionBatch(List<Position> positions) {
+            this.positions = positions;
+        }
+
+        @Override
+        public void setValues(PreparedStatement ps, int i) throws SQLException {
+            Position position = positions.get(i);
+            ps.setLong(1, position.getPortfolioId());
+            ps.setString(2, position.getTicker());
+            ps.setDouble(3, position.getQuantity());
+            ps.setDouble(4, position.getCostBasis());
+            ps.setDouble(5, position.getRealizedPnl());
+            ps.setDouble(6, position.getDividends());
+        }
+
+        @Override
+        public int getBatchSize() {
+            return positions.size();
+        }
+    }
+}
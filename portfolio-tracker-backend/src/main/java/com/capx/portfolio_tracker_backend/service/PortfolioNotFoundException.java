@@ -0,0 +1,8 @@
+package com.capx.portfolio_tracker_backend.service;
+
+// Thrown when a request names a portfolio that does not exist
+public class PortfolioNotFoundException extends RuntimeException {
+    public PortfolioNotFoundException(long portfolioId) {
+        super("Portfolio with ID " + portfolioId + " not found.");
+    }
+}
@@ -0,0 +1,105 @@
+package com.capx.portfolio_tracker_backend.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+// Load generator: fills the database with seed.portfolios portfolios spread over several users, each
+// holding seed.holdings-per-portfolio stocks drawn from a shared pool of seed.ticker-pool tickers, so
+// the same ticker appears in many portfolios. Start with --seed.portfolios=10000 (and quote.provider=stub
+// unless the real quote API should be asked for every pooled ticker). Does nothing if seed data exists.
+@Component
+@ConditionalOnProperty("seed.portfolios")
+public class PortfolioSeeder implements ApplicationRunner {
+    private static final Logger log = LoggerFactory.getLogger(PortfolioSeeder.class);
+
+    static final String OWNER_PREFIX = "seed-user-";
+    private static final String INSERT_PORTFOLIO_SQL = "INSERT INTO portfolios (portfolio_name, owner_id, created_at) VALUES (?, ?, ?)";
+    private static final String INSERT_STOCK_SQL = "INSERT INTO stocks (stock_name, portfolio_id, ticker, quantity, buy_price, percentage_change) "
+            + "VALUES (?, ?, ?, ?, ?, 0)";
+    private static final int BATCH_SIZE = 1000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private StockService stockService;
+
+    @Value("${seed.portfolios}")
+    private int portfolios;
+
+    @Value("${seed.portfolios-per-user:5}")
+    private int portfoliosPerUser;
+
+    @Value("${seed.holdings-per-portfolio:10}")
+    private int holdingsPerPortfolio;
+
+    @Value("${seed.ticker-pool:200}")
+    private int tickerPool;
+
+    // Fixed so repeated runs produce the same data
+    @Value("${seed.random-seed:42}")
+    private long randomSeed;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        Integer existing = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM portfolios WHERE owner_id LIKE ?", Integer.class, OWNER_PREFIX + "%");
+        if (existing != null && existing > 0) {
+            log.info("Seed data already present ({} portfolios), skipping", existing);
+            return;
+        }
+        long start = System.currentTimeMillis();
+        Timestamp now = Timestamp.from(Instant.now());
+        List<Object[]> rows = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < portfolios; i++) {
+            rows.add(new Object[]{"Portfolio " + i, OWNER_PREFIX + (i / portfoliosPerUser), now});
+            if (rows.size() == BATCH_SIZE) {
+                jdbcTemplate.batchUpdate(INSERT_PORTFOLIO_SQL, rows);
+                rows.clear();
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_PORTFOLIO_SQL, rows);
+        rows.clear();
+
+        List<Long> ids = jdbcTemplate.queryForList(
+                "SELECT id FROM portfolios WHERE owner_id LIKE ? ORDER BY id", Long.class, OWNER_PREFIX + "%");
+        SplittableRandom random = new SplittableRandom(randomSeed);
+        int holdings = Math.min(holdingsPerPortfolio, tickerPool);
+        long stocks = 0;
+        for (Long id : ids) {
+            // Consecutive pool entries from a random offset, so no ticker repeats within a portfolio
+            int offset = random.nextInt(tickerPool);
+            for (int h = 0; h < holdings; h++) {
+                int ticker = (offset + h) % tickerPool;
+                rows.add(new Object[]{"Seed Stock " + ticker, id, tickerName(ticker),
+                        1 + random.nextInt(100), Math.round(random.nextDouble(10, 500) * 100) / 100.0});
+                stocks++;
+            }
+            if (rows.size() >= BATCH_SIZE) {
+                jdbcTemplate.batchUpdate(INSERT_STOCK_SQL, rows);
+                rows.clear();
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_STOCK_SQL, rows);
+        stockService.onStocksChanged();
+        log.info("Seeded {} portfolios with {} stocks over {} tickers in {} ms",
+                ids.size(), stocks, tickerPool, System.currentTimeMillis() - start);
+    }
+
+    static String tickerName(int index) {
+        return String.format("SEED%03d", index);
+    }
+}
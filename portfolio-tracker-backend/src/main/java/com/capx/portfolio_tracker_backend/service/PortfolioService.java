@@ -0,0 +1,143 @@
+package com.capx.portfolio_tracker_backend.service;
+
+import com.capx.portfolio_tracker_backend.models.Portfolio;
+import com.capx.portfolio_tracker_backend.repository.PortfolioRepository;
+import com.capx.portfolio_tracker_backend.repository.StockRepository;
+import com.capx.portfolio_tracker_backend.service.alert.AlertService;
+import com.capx.portfolio_tracker_backend.service.fx.FxRateService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Portfolios and their owners. Requests that do not name a portfolio use the default one, which
+// also receives any holdings created before portfolios existed.
+@Service
+public class PortfolioService {
+    private static final Logger log = LoggerFactory.getLogger(PortfolioService.class);
+
+    static final String DEFAULT_OWNER = "default";
+    static final String DEFAULT_NAME = "Default";
+
+    @Autowired
+    private PortfolioRepository portfolioRepository;
+
+    @Autowired
+    private StockRepository stockRepository;
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private LedgerService ledgerService;
+
+    @Autowired
+    private FxRateService fxRateService;
+
+    @Autowired
+    private AlertService alertService;
+
+    // Ids already checked against the portfolios table, so every request does not re-read it
+    private final Set<Long> knownIds = ConcurrentHashMap.newKeySet();
+
+    private volatile Long defaultPortfolioId;
+
+    // The portfolio a request refers to: the default one if none is given
+    public long resolve(Long portfolioId) {
+        if (portfolioId == null) {
+            return getDefaultPortfolioId();
+        }
+        if (!knownIds.contains(portfolioId)) {
+            if (!portfolioRepository.existsById(portfolioId)) {
+                throw new PortfolioNotFoundException(portfolioId);
+            }
+            knownIds.add(portfolioId);
+        }
+        return portfolioId;
+    }
+
+    // Create the default portfolio and adopt unowned holdings at startup rather than on the first request
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureDefaultPortfolio() {
+        getDefaultPortfolioId();
+    }
+
+    public long getDefaultPortfolioId() {
+        Long id = defaultPortfolioId;
+        return id != null ? id : initDefaultPortfolio();
+    }
+
+    private synchronized long initDefaultPortfolio() {
+        if (defaultPortfolioId == null) {
+            Portfolio portfolio = portfolioRepository.findFirstByOwnerIdAndNameOrderById(DEFAULT_OWNER, DEFAULT_NAME)
+                    .orElseGet(() -> portfolioRepository.save(new Portfolio(DEFAULT_NAME, DEFAULT_OWNER)));
+            int migrated = stockRepository.assignUnownedStocks(portfolio.getId());
+            if (migrated > 0) {
+                log.info("Moved {} stocks into the default portfolio", migrated);
+                stockService.onPortfolioChanged(portfolio.getId());
+            }
+            knownIds.add(portfolio.getId());
+            defaultPortfolioId = portfolio.getId();
+        }
+        return defaultPortfolioId;
+    }
+
+    public List<Portfolio> getPortfolios(String ownerId) {
+        return portfolioRepository.findByOwnerIdOrderById(ownerId);
+    }
+
+    // The reporting currency is optional; without one the portfolio reports in fx.default-reporting-currency
+    public Portfolio createPortfolio(String name, String ownerId, String reportingCurrency) {
+        if (name == null || name.isBlank() || ownerId == null || ownerId.isBlank()) {
+            throw new IllegalArgumentException("name and ownerId are required");
+        }
+        Portfolio portfolio = new Portfolio(name, ownerId);
+        portfolio.setReportingCurrency(checkCurrency(reportingCurrency));
+        Portfolio saved = portfolioRepository.save(portfolio);
+        knownIds.add(saved.getId());
+        return saved;
+    }
+
+    // Change the currency a portfolio's totals are reported in; null reverts to the default
+    public Portfolio setReportingCurrency(long portfolioId, String reportingCurrency) {
+        Portfolio portfolio = portfolioRepository.findById(portfolioId)
+                .orElseThrow(() -> new PortfolioNotFoundException(portfolioId));
+        portfolio.setReportingCurrency(checkCurrency(reportingCurrency));
+        Portfolio saved = portfolioRepository.save(portfolio);
+        stockService.onPortfolioChanged(portfolioId);
+        return saved;
+    }
+
+    private String checkCurrency(String currency) {
+        if (currency == null || currency.isBlank()) {
+            return null;
+        }
+        String code = currency.trim().toUpperCase();
+        if (!fxRateService.getRates().supports(code)) {
+            throw new IllegalArgumentException("No exchange rate for currency " + code);
+        }
+        return code;
+    }
+
+    // Delete a portfolio together with its holdings, trades and alert rules. The default portfolio cannot be deleted.
+    public boolean deletePortfolio(long portfolioId) {
+        if (portfolioId == getDefaultPortfolioId()) {
+            throw new IllegalArgumentException("The default portfolio cannot be deleted");
+        }
+        if (!portfolioRepository.existsById(portfolioId)) {
+            return false;
+        }
+        knownIds.remove(portfolioId);
+        stockService.deleteAllStocks(portfolioId);
+        ledgerService.deleteLedger(portfolioId);
+        alertService.deleteAllRules(portfolioId);
+        portfolioRepository.deleteById(portfolioId);
+        return true;
+    }
+}
@@ -0,0 +1,310 @@
+package com.capx.portfolio_tracker_backend.service;
+
+import com.capx.portfolio_tracker_backend.models.PortfolioSnapshot;
+import com.capx.portfolio_tracker_backend.models.Stock;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Pushes portfolio changes to Server-Sent Events subscribers, grouped into one channel per portfolio.
+// Every portfolio.stream.debounce-ms the broadcaster asks StockService for each watched portfolio's
+// memoized snapshot; only when a price or holding changed is there a new snapshot, and its delta is
+// computed once for all subscribers of that portfolio.
+// Each subscriber keeps just the latest undelivered snapshot, so a slow client skips intermediate
+// states and receives one delta against what it last saw instead of a growing backlog.
+@Service
+public class PortfolioStreamService {
+    static final String SNAPSHOT_EVENT = "snapshot";
+    static final String DELTA_EVENT = "delta";
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    @Qualifier("portfolioStreamExecutor")
+    private AsyncTaskExecutor sendExecutor;
+
+    @Value("${portfolio.stream.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    @Value("${portfolio.stream.max-subscribers:1000}")
+    private int maxSubscribers;
+
+    // Comment line sent to idle subscribers so proxies keep the connection open and dead clients are noticed
+    @Value("${portfolio.stream.heartbeat-ms:15000}")
+    private long heartbeatMs;
+
+    // Only portfolios with at least one subscriber have a channel
+    private final ConcurrentMap<Long, Channel> channels = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final AtomicLong eventIds = new AtomicLong();
+    private long lastHeartbeat = System.currentTimeMillis();
+
+    private final AtomicLong broadcasts = new AtomicLong();
+    private final AtomicLong eventsSent = new AtomicLong();
+    private final AtomicLong eventsSuperseded = new AtomicLong();
+    private final AtomicLong subscribersDropped = new AtomicLong();
+
+    // Open a stream of the portfolio that starts with the full snapshot. Returns null when at capacity.
+    public SseEmitter subscribe(long portfolioId) {
+        if (subscriberCount.get() >= maxSubscribers) {
+            return null;
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        subscribe(portfolioId, emitter);
+        return emitter;
+    }
+
+    void subscribe(long portfolioId, SseEmitter emitter) {
+        // Added inside compute so the broadcaster cannot remove the channel as it gains a subscriber
+        Subscriber[] created = new Subscriber[1];
+        channels.compute(portfolioId, (id, existing) -> {
+            Channel target = existing != null ? existing : new Channel(id);
+            created[0] = new Subscriber(target, emitter);
+            target.subscribers.add(created[0]);
+            return target;
+        });
+        Subscriber subscriber = created[0];
+        subscriberCount.incrementAndGet();
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(error -> remove(subscriber));
+        subscriber.offer(stockService.getPortfolioSnapshot(portfolioId));
+    }
+
+    @Scheduled(fixedDelayString = "${portfolio.stream.debounce-ms:500}")
+    public void broadcast() {
+        long now = System.currentTimeMillis();
+        boolean heartbeat = now - lastHeartbeat >= heartbeatMs;
+        if (heartbeat) {
+            lastHeartbeat = now;
+        }
+        for (Channel channel : channels.values()) {
+            if (channel.subscribers.isEmpty()) {
+                channels.computeIfPresent(channel.portfolioId, (id, existing) -> existing.subscribers.isEmpty() ? null : existing);
+                continue;
+            }
+            channel.broadcast(stockService.getPortfolioSnapshot(channel.portfolioId));
+            if (heartbeat) {
+                for (Subscriber subscriber : channel.subscribers) {
+                    subscriber.heartbeat();
+                }
+            }
+        }
+    }
+
+    public Map<String, Long> getStats() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("streamSubscribers", (long) subscriberCount.get());
+        stats.put("streamPortfolios", (long) channels.size());
+        stats.put("streamBroadcasts", broadcasts.get());
+        stats.put("streamEventsSent", eventsSent.get());
+        stats.put("streamEventsSuperseded", eventsSuperseded.get());
+        stats.put("streamSubscribersDropped", subscribersDropped.get());
+        return stats;
+    }
+
+    // Fields that differ between two snapshots. Distribution entries that disappeared map to null.
+    static Map<String, Object> delta(PortfolioSnapshot from, PortfolioSnapshot to) {
+        Map<String, Object> delta = new LinkedHashMap<>();
+        if (!Objects.equals(from.getCurrency(), to.getCurrency())) {
+            delta.put("currency", to.getCurrency());
+        }
+        if (Double.compare(from.getTotalValue(), to.getTotalValue()) != 0) {
+            delta.put("totalValue", to.getTotalValue());
+        }
+        if (Double.compare(from.getTotalInvested(), to.getTotalInvested()) != 0) {
+            delta.put("totalInvested", to.getTotalInvested());
+        }
+        if (Double.compare(from.getProfitLoss(), to.getProfitLoss()) != 0) {
+            delta.put("profitLoss", to.getProfitLoss());
+            delta.put("profitLossPercentage", to.getProfitLossPercentage());
+        }
+        if (from.getStockCount() != to.getStockCount()) {
+            delta.put("stockCount", to.getStockCount());
+        }
+        if (!sameStock(from.getTopPerformingStock(), to.getTopPerformingStock())) {
+            delta.put("topPerformingStock", to.getTopPerformingStock());
+        }
+        Map<String, Double> distribution = new HashMap<>();
+        for (Map.Entry<String, Double> entry : to.getDistribution().entrySet()) {
+            if (!entry.getValue().equals(from.getDistribution().get(entry.getKey()))) {
+                distribution.put(entry.getKey(), entry.getValue());
+            }
+        }
+        for (String name : from.getDistribution().keySet()) {
+            if (!to.getDistribution().containsKey(name)) {
+                distribution.put(name, null);
+            }
+        }
+        if (!distribution.isEmpty()) {
+            delta.put("distribution", distribution);
+        }
+        return delta;
+    }
+
+    private static boolean sameStock(Stock a, Stock b) {
+        if (a == null || b == null) {
+            return a == b;
+        }
+        return Objects.equals(a.getId(), b.getId())
+                && Objects.equals(a.getCurrentPrice(), b.getCurrentPrice())
+                && Double.compare(a.getPercentageChange(), b.getPercentageChange()) == 0;
+    }
+
+    private boolean remove(Subscriber subscriber) {
+        if (subscriber.channel.subscribers.remove(subscriber)) {
+            subscriberCount.decrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    private void drop(Subscriber subscriber, Exception cause) {
+        if (remove(subscriber)) {
+            subscribersDropped.incrementAndGet();
+            subscriber.emitter.completeWithError(cause);
+        }
+    }
+
+    // Subscribers of one portfolio and the last snapshot broadcast to them
+    private final class Channel {
+        final long portfolioId;
+        final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+        volatile Broadcast lastBroadcast;
+
+        Channel(long portfolioId) {
+            this.portfolioId = portfolioId;
+        }
+
+        void broadcast(PortfolioSnapshot snapshot) {
+            Broadcast last = lastBroadcast;
+            if (last == null || snapshot != last.current) {
+                Map<String, Object> delta = last != null ? delta(last.current, snapshot) : null;
+                // Recomputed but unchanged: keep the old instance, since that is what subscribers last saw
+                if (delta == null || !delta.isEmpty()) {
+                    lastBroadcast = new Broadcast(last != null ? last.current : null, snapshot, delta);
+                    broadcasts.incrementAndGet();
+                    for (Subscriber subscriber : subscribers) {
+                        subscriber.offer(snapshot);
+                    }
+                }
+            }
+        }
+    }
+
+    // The latest broadcast snapshot, the one before it, and the delta between them
+    private static final class Broadcast {
+        final PortfolioSnapshot previous;
+        final PortfolioSnapshot current;
+        final Map<String, Object> delta;
+
+        Broadcast(PortfolioSnapshot previous, PortfolioSnapshot current, Map<String, Object> delta) {
+            this.previous = previous;
+            this.current = current;
+            this.delta = delta;
+        }
+    }
+
+    private final class Subscriber {
+        final Channel channel;
+        final SseEmitter emitter;
+        final AtomicReference<PortfolioSnapshot> pending = new AtomicReference<>();
+        final AtomicBoolean draining = new AtomicBoolean();
+        volatile boolean heartbeatDue;
+        // Only touched by the draining thread
+        private PortfolioSnapshot lastSent;
+
+        Subscriber(Channel channel, SseEmitter emitter) {
+            this.channel = channel;
+            this.emitter = emitter;
+        }
+
+        // Latest wins: an undelivered snapshot is replaced, never queued behind
+        void offer(PortfolioSnapshot snapshot) {
+            if (pending.getAndSet(snapshot) != null) {
+                eventsSuperseded.incrementAndGet();
+            }
+            schedule();
+        }
+
+        void heartbeat() {
+            heartbeatDue = true;
+            schedule();
+        }
+
+        private void schedule() {
+            if (draining.compareAndSet(false, true)) {
+                sendExecutor.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                while (true) {
+                    PortfolioSnapshot next = pending.getAndSet(null);
+                    if (next != null) {
+                        send(next);
+                    } else if (heartbeatDue) {
+                        heartbeatDue = false;
+                        emitter.send(SseEmitter.event().comment("heartbeat"));
+                    } else {
+                        draining.set(false);
+                        // Re-check so an offer that raced with the release is not stranded
+                        if ((pending.get() == null && !heartbeatDue) || !draining.compareAndSet(false, true)) {
+                            return;
+                        }
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                draining.set(false);
+                drop(this, e);
+            }
+        }
+
+        private void send(PortfolioSnapshot next) throws IOException {
+            if (lastSent == null) {
+                emit(SNAPSHOT_EVENT, next);
+            } else if (next != lastSent) {
+                Broadcast broadcast = channel.lastBroadcast;
+                Map<String, Object> delta = broadcast != null && broadcast.previous == lastSent && broadcast.current == next
+                        ? broadcast.delta
+                        : delta(lastSent, next);
+                if (!delta.isEmpty()) {
+                    Map<String, Object> event = new LinkedHashMap<>(delta);
+                    event.put("priceVersion", next.getPriceVersion());
+                    event.put("dataVersion", next.getDataVersion());
+                    event.put("computedAt", next.getComputedAt());
+                    emit(DELTA_EVENT, event);
+                }
+            }
+            lastSent = next;
+        }
+
+        private void emit(String name, Object data) throws IOException {
+            emitter.send(SseEmitter.event()
+                    .id(Long.toString(eventIds.incrementAndGet()))
+                    .name(name)
+                    .data(data, MediaType.APPLICATION_JSON));
+            eventsSent.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.capx.portfolio_tracker_backend.service;
+
+import com.capx.portfolio_tracker_backend.config.PriceCacheProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Size-bounded (W-TinyLFU) cache of raw quotes with a TTL per entry.
+// An entry is fresh until its TTL passes, then stays servable as stale for quote.cache.max-stale-seconds
+// before Caffeine drops it, so memory stays flat no matter how many tickers have been queried.
+// Hits, misses, evictions and size are published as the "quote.prices" cache metrics.
+@Component
+public class PriceCache implements MeterBinder {
+    private static final String DEFAULT_EXCHANGE = "US";
+    private static final Map<String, MarketSession> SESSIONS = Map.of(
+            "US", new MarketSession("America/New_York", LocalTime.of(9, 30), LocalTime.of(16, 0)),
+            "BSE", new MarketSession("Asia/Kolkata", LocalTime.of(9, 15), LocalTime.of(15, 30)),
+            "NSE", new MarketSession("Asia/Kolkata", LocalTime.of(9, 15), LocalTime.of(15, 30)),
+            "LON", new MarketSession("Europe/London", LocalTime.of(8, 0), LocalTime.of(16, 30)),
+            "TRT", new MarketSession("America/Toronto", LocalTime.of(9, 30), LocalTime.of(16, 0)),
+            "DEX", new MarketSession("Europe/Berlin", LocalTime.of(9, 0), LocalTime.of(17, 30)),
+            "SHH", new MarketSession("Asia/Shanghai", LocalTime.of(9, 30), LocalTime.of(15, 0)));
+
+    private final PriceCacheProperties properties;
+    private final Cache<String, CachedPrice> cache;
+
+    public PriceCache(PriceCacheProperties properties) {
+        this.properties = properties;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxSize())
+                .expireAfter(new StaleWindowExpiry())
+                .recordStats()
+                .build();
+    }
+
+    public CachedPrice get(String ticker) {
+        return cache.getIfPresent(ticker);
+    }
+
+    // Store a freshly fetched price and return the price it replaced, if any
+    public Double put(String ticker, double price, Instant now) {
+        long fetchedAt = now.getEpochSecond();
+        CachedPrice previous = cache.asMap().put(ticker,
+                new CachedPrice(price, fetchedAt, fetchedAt + ttlSecondsFor(ticker, now)));
+        return previous != null ? previous.price : null;
+    }
+
+    // Seed a price that is already stale, so it is served immediately but refreshed on first read
+    public void warm(String ticker, double price, Instant now) {
+        long fetchedAt = now.getEpochSecond();
+        cache.asMap().putIfAbsent(ticker, new CachedPrice(price, fetchedAt, fetchedAt));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "quote.prices");
+    }
+
+    public long getMaxSize() {
+        return properties.getMaxSize();
+    }
+
+    public Map<String, Long> getStats() {
+        // Flush pending maintenance so size and eviction counts are current
+        cache.cleanUp();
+        CacheStats stats = cache.stats();
+        Map<String, Long> metrics = new LinkedHashMap<>();
+        metrics.put("cacheSize", cache.estimatedSize());
+        metrics.put("cacheLookupHits", stats.hitCount());
+        metrics.put("cacheLookupMisses", stats.missCount());
+        metrics.put("cacheEvictions", stats.evictionCount());
+        return metrics;
+    }
+
+    // Per-ticker override, then per-exchange override, then market-hours TTL for the ticker's exchange
+    public long ttlSecondsFor(String ticker, Instant now) {
+        Long tickerTtl = properties.getTickerTtlSeconds().get(ticker);
+        if (tickerTtl != null) {
+            return tickerTtl;
+        }
+        String exchange = exchangeOf(ticker);
+        Long exchangeTtl = properties.getExchangeTtlSeconds().get(exchange);
+        if (exchangeTtl != null) {
+            return exchangeTtl;
+        }
+        MarketSession session = SESSIONS.getOrDefault(exchange, SESSIONS.get(DEFAULT_EXCHANGE));
+        long openTtl = properties.getMarketOpenTtlSeconds();
+        if (session.isOpen(now)) {
+            return openTtl;
+        }
+        // No point holding a closing price past the next open
+        long untilOpen = session.secondsUntilNextOpen(now);
+        return Math.max(openTtl, Math.min(properties.getMarketClosedTtlSeconds(), untilOpen));
+    }
+
+    // Alpha Vantage style suffixes (RELIANCE.BSE, TSCO.LON); anything else trades in the US
+    String exchangeOf(String ticker) {
+        int dot = ticker.lastIndexOf('.');
+        if (dot > 0) {
+            String suffix = ticker.substring(dot + 1).toUpperCase();
+            if (SESSIONS.containsKey(suffix) || properties.getExchangeTtlSeconds().containsKey(suffix)) {
+                return suffix;
+            }
+        }
+        return DEFAULT_EXCHANGE;
+    }
+
+    public static final class CachedPrice {
+        final double price;
+        final long fetchedAt;
+        final long freshUntil;
+
+        CachedPrice(double price, long fetchedAt, long freshUntil) {
+            this.price = price;
+            this.fetchedAt = fetchedAt;
+            this.freshUntil = freshUntil;
+        }
+
+        public double getPrice() {
+            return price;
+        }
+
+        public boolean isFresh(long currentTime) {
+            return currentTime < freshUntil;
+        }
+    }
+
+    // Keeps each entry for its own TTL plus the stale window
+    private class StaleWindowExpiry implements Expiry<String, CachedPrice> {
+        @Override
+        public long expireAfterCreate(String ticker, CachedPrice value, long currentTime) {
+            long seconds = Math.max(0, value.freshUntil - value.fetchedAt) + properties.getMaxStaleSeconds();
+            return TimeUnit.SECONDS.toNanos(seconds);
+        }
+
+        @Override
+        public long expireAfterUpdate(String ticker, CachedPrice value, long currentTime, long currentDuration) {
+            return expireAfterCreate(ticker, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String ticker, CachedPrice value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+
+    private static final class MarketSession {
+        private final ZoneId zone;
+        private final LocalTime open;
+        private final LocalTime close;
+
+        MarketSession(String zone, LocalTime open, LocalTime close) {
+            this.zone = ZoneId.of(zone);
+            this.open = open;
+            this.close = close;
+        }
+
+        boolean isOpen(Instant now) {
+            ZonedDateTime local = now.atZone(zone);
+            LocalTime time = local.toLocalTime();
+            return isTradingDay(local.toLocalDate()) && !time.isBefore(open) && time.isBefore(close);
+        }
+
+        long secondsUntilNextOpen(Instant now) {
+            ZonedDateTime local = now.atZone(zone);
+            for (int days = 0; days <= 7; days++) {
+                LocalDate date = local.toLocalDate().plusDays(days);
+                ZonedDateTime openAt = ZonedDateTime.of(date, open, zone);
+                if (isTradingDay(date) && openAt.isAfter(local)) {
+                    return Duration.between(local, openAt).getSeconds();
+                }
+            }
+            return Long.MAX_VALUE;
+        }
+
+        private static boolean isTradingDay(LocalDate date) {
+            DayOfWeek day = date.getDayOfWeek();
+            return day != DayOfWeek.SATURDAY && day != DayOfWeek.SUNDAY;
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package com.capx.portfolio_tracker_backend.service;
+
+import com.capx.portfolio_tracker_backend.models.OhlcSeries;
+import com.capx.portfolio_tracker_backend.models.PriceSeries;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Append-only time series of every fetched quote (price_ticks).
+// Quotes are queued in memory and written in JDBC batches by a background flush, so recording never
+// waits on the database. Reads stream rows straight into primitive arrays, optionally downsampled
+// to OHLC buckets, without creating an object per tick.
+@Service
+public class PriceHistoryService {
+    private static final Logger log = LoggerFactory.getLogger(PriceHistoryService.class);
+
+    private static final String INSERT_TICK_SQL = "INSERT INTO price_ticks (ticker, fetched_at, price) VALUES (?, ?, ?)";
+    private static final String SELECT_RANGE_SQL = "SELECT fetched_at, price FROM price_ticks "
+            + "WHERE ticker = ? AND fetched_at >= ? AND fetched_at < ? ORDER BY fetched_at";
+    // Last tick of each UTC day per ticker, found on the (ticker, fetched_at, price) index
+    private static final String SELECT_DAILY_CLOSES_SQL = "SELECT t.ticker, t.fetched_at, t.price FROM price_ticks t "
+            + "JOIN (SELECT ticker, MAX(fetched_at) AS closed_at FROM price_ticks "
+            + "WHERE ticker IN (%s) AND fetched_at >= ? AND fetched_at < ? "
+            + "GROUP BY ticker, FLOOR(fetched_at / 86400000)) c "
+            + "ON t.ticker = c.ticker AND t.fetched_at = c.closed_at ORDER BY t.ticker, t.fetched_at";
+    // Rows per round trip for large reads; MySQL Connector/J ignores it unless the URL sets useCursorFetch=true
+    private static final int READ_FETCH_SIZE = 1000;
+
+    // Bucket widths accepted by getOhlc
+    private static final Map<String, Duration> INTERVALS = Map.of(
+            "minute", Duration.ofMinutes(1),
+            "hour", Duration.ofHours(1),
+            "day", Duration.ofDays(1));
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${price.history.batch-size:500}")
+    private int batchSize;
+
+    // Widest range the raw (not downsampled) series may cover
+    @Value("${price.history.raw-max-days:7}")
+    private long rawMaxDays;
+
+    private final BlockingQueue<Tick> pending;
+    private final AtomicLong recorded = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+
+    public PriceHistoryService(@Value("${price.history.buffer-size:100000}") int bufferSize) {
+        this.pending = new ArrayBlockingQueue<>(bufferSize);
+    }
+
+    // Queue a fetched price. If the buffer is full (database down or too slow) the tick is dropped.
+    public void record(String ticker, double price, Instant fetchedAt) {
+        if (pending.offer(new Tick(ticker, fetchedAt.toEpochMilli(), price))) {
+            recorded.incrementAndGet();
+        } else {
+            dropped.incrementAndGet();
+        }
+    }
+
+    // Write queued ticks in batches of price.history.batch-size
+    @Scheduled(fixedDelayString = "${price.history.flush-interval-ms:1000}")
+    public synchronized void flush() {
+        List<Tick> batch = new ArrayList<>(batchSize);
+        while (pending.drainTo(batch, batchSize) > 0) {
+            try {
+                jdbcTemplate.batchUpdate(INSERT_TICK_SQL, new TickBatch(batch));
+                written.addAndGet(batch.size());
+            } catch (RuntimeException e) {
+                dropped.addAndGet(batch.size());
+                log.error("Failed to write {} price ticks", batch.size(), e);
+            }
+            batch.clear();
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    // Every tick for the ticker in [from, to)
+    public PriceSeries getTicks(String ticker, Instant from, Instant to) {
+        if (Duration.between(from, to).toDays() > rawMaxDays) {
+            throw new IllegalArgumentException("Raw history is limited to " + rawMaxDays + " days; use an interval");
+        }
+        PriceSeries series = new PriceSeries(ticker);
+        queryRange(ticker, from, to, series::append);
+        return series;
+    }
+
+    // Ticks for the ticker in [from, to) downsampled to OHLC per minute, hour or day (UTC)
+    public OhlcSeries getOhlc(String ticker, Instant from, Instant to, String interval) {
+        Duration bucket = INTERVALS.get(interval);
+        if (bucket == null) {
+            throw new IllegalArgumentException("Unknown interval " + interval + "; use raw or one of " + INTERVALS.keySet());
+        }
+        OhlcSeries series = new OhlcSeries(ticker, interval, bucket.toMillis());
+        queryRange(ticker, from, to, series::add);
+        return series;
+    }
+
+    // Closing price (last tick) of each UTC day in [from, to) for every ticker, in one query.
+    // Tickers without any tick in the range are left out.
+    public Map<String, PriceSeries> getDailyCloses(Collection<String> tickers, Instant from, Instant to) {
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+        Map<String, PriceSeries> closes = new HashMap<>();
+        if (tickers.isEmpty()) {
+            return closes;
+        }
+        List<String> tickerList = new ArrayList<>(tickers);
+        String sql = String.format(SELECT_DAILY_CLOSES_SQL, String.join(",", Collections.nCopies(tickerList.size(), "?")));
+        PreparedStatementCreator statement = connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql);
+            ps.setFetchSize(READ_FETCH_SIZE);
+            int index = 1;
+            for (String ticker : tickerList) {
+                ps.setString(index++, ticker);
+            }
+            ps.setLong(index++, from.toEpochMilli());
+            ps.setLong(index, to.toEpochMilli());
+            return ps;
+        };
+        RowCallbackHandler handler = rs -> closes.computeIfAbsent(rs.getString(1), PriceSeries::new)
+                .append(rs.getLong(2), rs.getDouble(3));
+        jdbcTemplate.query(statement, handler);
+        return closes;
+    }
+
+    public Map<String, Long> getStats() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("historyTicksRecorded", recorded.get());
+        stats.put("historyTicksWritten", written.get());
+        stats.put("historyTicksDropped", dropped.get());
+        stats.put("historyTicksPending", (long) pending.size());
+        return stats;
+    }
+
+    private void queryRange(String ticker, Instant from, Instant to, TickConsumer consumer) {
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+        PreparedStatementCreator statement = connection -> {
+            PreparedStatement ps = connection.prepareStatement(SELECT_RANGE_SQL);
+            ps.setFetchSize(READ_FETCH_SIZE);
+            ps.setString(1, ticker);
+            ps.setLong(2, from.toEpochMilli());
+            ps.setLong(3, to.toEpochMilli());
+            return ps;
+        };
+        RowCallbackHandler handler = rs -> consumer.accept(rs.getLong(1), rs.getDouble(2));
+        jdbcTemplate.query(statement, handler);
+    }
+
+    @FunctionalInterface
+    private interface TickConsumer {
+        void accept(long epochMillis, double price);
+    }
+
+    private static final class Tick {
+        final String ticker;
+        final long epochMillis;
+        final double price;
+
+        Tick(String ticker, long epochMillis, double price) {
+            this.ticker = ticker;
+            this.epochMillis = epochMillis;
+            this.price = price;
+        }
+    }
+
+    private static final class TickBatch implements BatchPreparedStatementSetter {
+        private final List<Tick> ticks;
+
+        TickBatch(List<Tick> ticks) {
+            this.ticks = ticks;
+        }
+
+        @Override
+        public void setValues(PreparedStatement ps, int i) throws SQLException {
+            Tick tick = ticks.get(i);
+            ps.setString(1, tick.ticker);
+            ps.setLong(2, tick.epochMillis);
+            ps.setDouble(3, tick.price);
+        }
+
+        @Override
+        public int getBatchSize() {
+            return ticks.size();
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package com.capx.portfolio_tracker_backend.service;
+
+import com.capx.portfolio_tracker_backend.models.PriceRefreshCheckpoint;
+import com.capx.portfolio_tracker_backend.models.Stock;
+import com.capx.portfolio_tracker_backend.repository.PriceRefreshCheckpointRepository;
+import com.capx.portfolio_tracker_backend.repository.StockRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Refreshes persisted prices in keyset-ordered chunks: one batched quote lookup per chunk, then a
+// single JDBC batch that rewrites only the rows whose price or percentage change actually moved.
+// Each chunk commits together with its checkpoint, so an interrupted run resumes where it stopped.
+@Service
+public class PriceRefreshJob {
+    private static final Logger log = LoggerFactory.getLogger(PriceRefreshJob.class);
+
+    static final String JOB_NAME = "stock-price-refresh";
+
+    private static final String UPDATE_PRICE_SQL =
+            "UPDATE stocks SET current_price = ?, percentage_change = ? WHERE id = ?";
+    private static final String TICKER_ROWS_SQL =
+            "SELECT id, buy_price, current_price, percentage_change FROM stocks WHERE ticker = ?";
+    // Times the end of a run re-checks the cache for prices that moved while it was writing
+    private static final int MAX_RECONCILE_PASSES = 3;
+
+    @Autowired
+    private StockRepository stockRepository;
+
+    @Autowired
+    private PriceRefreshCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private StockPriceService stockPriceService;
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Rows per chunk; matches the provider's bulk quote limit by default
+    @Value("${price.refresh.chunk-size:100}")
+    private int chunkSize;
+
+    private TransactionTemplate transactionTemplate;
+
+    private Timer runDuration;
+    private Counter rowsScanned;
+    private Counter rowsUpdated;
+    private Counter rowsWithoutPrice;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private volatile Map<String, Object> lastRun = Map.of();
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        runDuration = Timer.builder("price.refresh.duration")
+                .description("Duration of price refresh runs")
+                .register(meterRegistry);
+        rowsScanned = rowCounter("scanned");
+        rowsUpdated = rowCounter("updated");
+        rowsWithoutPrice = rowCounter("unpriced");
+    }
+
+    private Counter rowCounter(String result) {
+        return Counter.builder("price.refresh.rows")
+                .description("Stock rows processed by the price refresh job")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    // Runs on startup (after price.refresh.initial-delay-ms) so an interrupted run is picked up,
+    // then every price.refresh.interval-ms after the previous run finishes
+    @Scheduled(initialDelayString = "${price.refresh.initial-delay-ms:60000}",
+            fixedDelayString = "${price.refresh.interval-ms:86400000}")
+    public void scheduledRefresh() {
+        refresh();
+    }
+
+    // Run a refresh now. Returns null if a run is already in progress.
+    public Map<String, Object> refresh() {
+        if (!running.compareAndSet(false, true)) {
+            return null;
+        }
+        try {
+            return runChunks();
+        } finally {
+            running.set(false);
+        }
+    }
+
+    public Map<String, Object> getLastRun() {
+        return lastRun;
+    }
+
+    private Map<String, Object> runChunks() {
+        long startedNanos = System.nanoTime();
+        PriceRefreshCheckpoint checkpoint = checkpointRepository.findById(JOB_NAME)
+                .orElseGet(() -> new PriceRefreshCheckpoint(JOB_NAME));
+        boolean resumed = checkpoint.isRunning();
+        if (!resumed) {
+            checkpoint.start(Instant.now());
+            checkpoint = checkpointRepository.save(checkpoint);
+        }
+        long resumedFromId = checkpoint.getLastStockId();
+        long scanned = 0;
+        long updated = 0;
+        long unpriced = 0;
+        // Taken before the first lookup: prices cached after this may differ from what was written
+        long startVersion = stockPriceService.getPriceVersion();
+        // Last price written per ticker, and tickers whose rows were written with more than one price
+        Map<String, Double> written = new HashMap<>();
+        Set<String> repriced = new HashSet<>();
+
+        List<Stock> chunk = stockRepository.findByIdGreaterThanOrderByIdAsc(checkpoint.getLastStockId(), Limit.of(chunkSize));
+        while (!chunk.isEmpty()) {
+            Map<String, Double> prices = stockPriceService.refreshStockPrices(tickersOf(chunk));
+            List<Object[]> changes = changedRows(chunk, prices);
+            unpriced += chunk.stream().filter(stock -> !prices.containsKey(stock.getTicker())).count();
+            for (Map.Entry<String, Double> price : prices.entrySet()) {
+                Double previous = written.put(price.getKey(), price.getValue());
+                if (previous != null && !previous.equals(price.getValue())) {
+                    repriced.add(price.getKey());
+                }
+            }
+
+            checkpoint.setLastStockId(chunk.get(chunk.size() - 1).getId());
+            checkpoint.setRowsScanned(checkpoint.getRowsScanned() + chunk.size());
+            checkpoint.setRowsUpdated(checkpoint.getRowsUpdated() + changes.size());
+            PriceRefreshCheckpoint progress = checkpoint;
+            checkpoint = transactionTemplate.execute(status -> {
+                if (!changes.isEmpty()) {
+                    jdbcTemplate.batchUpdate(UPDATE_PRICE_SQL, changes);
+                }
+                return checkpointRepository.save(progress);
+            });
+            if (!changes.isEmpty()) {
+                stockService.onStocksChanged(idsOf(changes));
+            }
+            scanned += chunk.size();
+            updated += changes.size();
+            rowsScanned.increment(chunk.size());
+            rowsUpdated.increment(changes.size());
+            chunk = stockRepository.findByIdGreaterThanOrderByIdAsc(checkpoint.getLastStockId(), Limit.of(chunkSize));
+        }
+
+        checkpoint.setRunFinishedAt(Instant.now());
+        checkpointRepository.save(checkpoint);
+        // Once every row holds the cached price the database can answer portfolio aggregates until a
+        // cached price changes. A resumed run skipped rows written by the earlier attempt.
+        long reconciled = 0;
+        if (!resumed && unpriced == 0) {
+            long version = startVersion;
+            for (int pass = 0; pass < MAX_RECONCILE_PASSES && stockPriceService.getPriceVersion() != version; pass++) {
+                version = stockPriceService.getPriceVersion();
+                reconciled += reconcile(written, repriced);
+                repriced.clear();
+            }
+            if (stockPriceService.getPriceVersion() == version) {
+                stockService.onPricesPersisted(version);
+            } else {
+                log.info("Prices kept changing after the refresh; portfolio aggregates stay on live prices");
+            }
+        }
+
+        long elapsedNanos = System.nanoTime() - startedNanos;
+        runDuration.record(elapsedNanos, TimeUnit.NANOSECONDS);
+        rowsWithoutPrice.increment(unpriced);
+        long durationMs = Math.max(1, elapsedNanos / 1_000_000);
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("resumed", resumed);
+        stats.put("resumedFromId", resumedFromId);
+        stats.put("rowsScanned", scanned);
+        stats.put("rowsUpdated", updated);
+        stats.put("rowsWithoutPrice", unpriced);
+        stats.put("rowsReconciled", reconciled);
+        stats.put("durationMs", durationMs);
+        stats.put("rowsPerSecond", scanned * 1000 / durationMs);
+        stats.put("finishedAt", checkpoint.getRunFinishedAt().toString());
+        lastRun = stats;
+        log.info("Stock price refresh finished: {}", stats);
+        return stats;
+    }
+
+    // Rewrite the rows of tickers whose cached price is no longer the one written, or that were written
+    // with different prices by different chunks (the entry expired and was fetched again mid-run).
+    // Returns the number of rows rewritten.
+    private long reconcile(Map<String, Double> written, Set<String> repriced) {
+        Set<String> moved = new LinkedHashSet<>(repriced);
+        for (Map.Entry<String, Double> price : written.entrySet()) {
+            Double cached = stockPriceService.getCachedPrice(price.getKey());
+            if (cached != null && !cached.equals(price.getValue())) {
+                moved.add(price.getKey());
+            }
+        }
+        List<Object[]> changes = new ArrayList<>();
+        for (String ticker : moved) {
+            Double cached = stockPriceService.getCachedPrice(ticker);
+            double price = cached != null ? cached : written.get(ticker);
+            written.put(ticker, price);
+            jdbcTemplate.query(TICKER_ROWS_SQL, rs -> {
+                double percentageChange = StockService.percentageChange(rs.getDouble(2), price);
+                double currentPrice = rs.getDouble(3);
+                if (rs.wasNull() || currentPrice != price || Double.compare(percentageChange, rs.getDouble(4)) != 0) {
+                    changes.add(new Object[]{price, percentageChange, rs.getLong(1)});
+                }
+            }, ticker);
+        }
+        if (!changes.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(UPDATE_PRICE_SQL, changes));
+            stockService.onStocksChanged(idsOf(changes));
+            rowsUpdated.increment(changes.size());
+        }
+        return changes.size();
+    }
+
+    // [current_price, percentage_change, id] for every row whose values differ from the fetched price,
+    // in id order. Rows without a fetched price keep their previous values.
+    private static List<Object[]> changedRows(List<Stock> chunk, Map<String, Double> prices) {
+        List<Object[]> changes = new ArrayList<>();
+        for (Stock stock : chunk) {
+            Double currentPrice = prices.get(stock.getTicker());
+            if (currentPrice == null) {
+                log.debug("No price fetched for {}", stock.getTicker());
+                continue;
+            }
+            double percentageChange = StockService.percentageChange(stock.getBuyPrice(), currentPrice);
+            if (!Objects.equals(currentPrice, stock.getCurrentPrice())
+                    || Double.compare(percentageChange, stock.getPercentageChange()) != 0) {
+                changes.add(new Object[]{currentPrice, percentageChange, stock.getId()});
+            }
+        }
+        return changes;
+    }
+
+    private static List<Long> idsOf(List<Object[]> changes) {
+        List<Long> ids = new ArrayList<>(changes.size());
+        for (Object[] change : changes) {
+            ids.add((Long) change[2]);
+        }
+        return ids;
+    }
+
+    private static Set<String> tickersOf(List<Stock> stocks) {
+        Set<String> tickers = new LinkedHashSet<>();
+        for (Stock stock : stocks) {
+            tickers.add(stock.getTicker());
+        }
+        return tickers;
+    }
+}
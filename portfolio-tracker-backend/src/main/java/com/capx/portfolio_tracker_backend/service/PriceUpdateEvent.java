@@ -0,0 +1,30 @@
+package com.capx.portfolio_tracker_backend.service;
+
+import java.time.Instant;
+
+// Published by StockPriceService on the fetching thread for every quote it caches, changed or not.
+// Listeners must return quickly and hand anything slow (I/O, further price lookups) to their own threads.
+public class PriceUpdateEvent {
+    private final String ticker;
+    private final double price;
+    private final Instant fetchedAt;
+
+    public PriceUpdateEvent(String ticker, double price, Instant fetchedAt) {
+        this.ticker = ticker;
+        this.price = price;
+        this.fetchedAt = fetchedAt;
+    }
+
+    public String getTicker() {
+        return ticker;
+    }
+
+    // Listing currency
+    public double getPrice() {
+        return price;
+    }
+
+    public Instant getFetchedAt() {
+        return fetchedAt;
+    }
+}
@@ -0,0 +1,309 @@
+package com.capx.portfolio_tracker_backend.service;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+// Risk statistics over aligned daily log returns, one primitive row per holding (returns[holding][day]).
+// Work across holdings and across simulated paths runs on parallel streams. Each Monte Carlo chunk
+// draws from its own SplittableRandom split off one seed, so results do not depend on the core count.
+final class RiskCalculator {
+    // Paths simulated together, so each factor loading is applied to a whole block of draws
+    private static final int BLOCK = 64;
+    // Fixed number of path chunks (and random streams), independent of the pool size
+    private static final int CHUNKS = 64;
+    // Principal components shared across holdings in Monte Carlo VaR, and subspace iterations to find them
+    private static final int FACTORS = 16;
+    private static final int POWER_ITERATIONS = 4;
+    // Relative size below which a variance or vector norm counts as zero
+    private static final double PIVOT_TOLERANCE = 1e-10;
+
+    private RiskCalculator() {
+    }
+
+    static double mean(double[] x) {
+        double sum = 0.0;
+        for (double v : x) {
+            sum += v;
+        }
+        return sum / x.length;
+    }
+
+    // Sample standard deviation
+    static double stdDev(double[] x) {
+        double mean = mean(x);
+        double squares = 0.0;
+        for (double v : x) {
+            squares += (v - mean) * (v - mean);
+        }
+        return Math.sqrt(squares / (x.length - 1));
+    }
+
+    // Annualized volatility of each row
+    static double[] volatilities(double[][] returns, double periodsPerYear) {
+        double annualize = Math.sqrt(periodsPerYear);
+        double[] volatilities = new double[returns.length];
+        IntStream.range(0, returns.length).parallel()
+                .forEach(i -> volatilities[i] = stdDev(returns[i]) * annualize);
+        return volatilities;
+    }
+
+    // cov(x, benchmark) / var(benchmark), or NaN if the benchmark never moved
+    static double beta(double[] x, double[] benchmark) {
+        double meanX = mean(x);
+        double meanB = mean(benchmark);
+        double covariance = 0.0;
+        double variance = 0.0;
+        for (int t = 0; t < x.length; t++) {
+            double b = benchmark[t] - meanB;
+            covariance += (x[t] - meanX) * b;
+            variance += b * b;
+        }
+        return variance > 0.0 ? covariance / variance : Double.NaN;
+    }
+
+    static double[] betas(double[][] returns, double[] benchmark) {
+        double[] betas = new double[returns.length];
+        IntStream.range(0, returns.length).parallel()
+                .forEach(i -> betas[i] = beta(returns[i], benchmark));
+        return betas;
+    }
+
+    // Pearson correlation of every pair of rows. Rows are standardized once, so each entry is a single
+    // dot product; a row that never moved has correlation 0 with every other row.
+    static double[][] correlationMatrix(double[][] returns) {
+        int n = returns.length;
+        double[][] standardized = new double[n][];
+        IntStream.range(0, n).parallel().forEach(i -> standardized[i] = standardize(returns[i]));
+        double[][] correlation = new double[n][n];
+        // Row i fills the upper triangle from the diagonal and mirrors it, so no cell is written twice
+        IntStream.range(0, n).parallel().forEach(i -> {
+            correlation[i][i] = 1.0;
+            for (int j = i + 1; j < n; j++) {
+                double c = Math.max(-1.0, Math.min(1.0, dot(standardized[i], standardized[j])));
+                correlation[i][j] = c;
+                correlation[j][i] = c;
+            }
+        });
+        return correlation;
+    }
+
+    // Simple daily return of a portfolio holding each row with the given weight
+    static double[] portfolioReturns(double[][] returns, double[] weights) {
+        double[] portfolio = new double[returns[0].length];
+        for (int i = 0; i < returns.length; i++) {
+            double weight = weights[i];
+            double[] row = returns[i];
+            for (int t = 0; t < row.length; t++) {
+                portfolio[t] += weight * Math.expm1(row[t]);
+            }
+        }
+        return portfolio;
+    }
+
+    // Loss over horizonDays not exceeded with the given confidence, from the observed daily portfolio
+    // returns scaled by the square root of the horizon
+    static double historicalVar(double[] portfolioReturns, double value, double confidence, int horizonDays) {
+        double scale = value * Math.sqrt(horizonDays);
+        double[] pnl = new double[portfolioReturns.length];
+        for (int t = 0; t < pnl.length; t++) {
+            pnl[t] = portfolioReturns[t] * scale;
+        }
+        return lossQuantile(pnl, confidence);
+    }
+
+    // Loss over horizonDays not exceeded with the given confidence, from full revaluation of every
+    // holding under simulated log returns with the sample means and covariance of the history.
+    // The covariance is split into at most FACTORS principal components, shared by all holdings, plus
+    // an independent residual per holding that restores its own variance exactly. Each path then costs
+    // FACTORS multiplies per holding instead of one per day (or per other holding); only correlation
+    // outside the leading components is dropped, and with FACTORS holdings or fewer nothing is.
+    static double monteCarloVar(double[][] returns, double[] values, double confidence, int horizonDays,
+                                int paths, long seed) {
+        int n = returns.length;
+        int days = returns[0].length;
+        double scale = Math.sqrt(horizonDays) / Math.sqrt(days - 1);
+        double[] drift = new double[n];
+        double[][] centered = new double[n][days];
+        IntStream.range(0, n).parallel().forEach(i -> {
+            double mean = mean(returns[i]);
+            drift[i] = mean * horizonDays;
+            for (int t = 0; t < days; t++) {
+                centered[i][t] = (returns[i][t] - mean) * scale;
+            }
+        });
+        SplittableRandom root = new SplittableRandom(seed);
+        double[][] basis = principalBasis(centered, Math.min(FACTORS, Math.min(n, days)), root.split());
+        double[][] loadings = new double[n][];
+        double[] residuals = new double[n];
+        IntStream.range(0, n).parallel().forEach(i -> {
+            double[] loading = new double[basis.length];
+            double explained = 0.0;
+            for (int f = 0; f < basis.length; f++) {
+                loading[f] = dot(centered[i], basis[f]);
+                explained += loading[f] * loading[f];
+            }
+            double variance = dot(centered[i], centered[i]);
+            double residual = variance - explained;
+            loadings[i] = loading;
+            residuals[i] = residual > PIVOT_TOLERANCE * variance ? Math.sqrt(residual) : 0.0;
+        });
+
+        int chunks = Math.min(CHUNKS, paths);
+        SplittableRandom[] randoms = new SplittableRandom[chunks];
+        for (int c = 0; c < chunks; c++) {
+            randoms[c] = root.split();
+        }
+        double[] pnl = new double[paths];
+        IntStream.range(0, chunks).parallel().forEach(c -> {
+            int from = (int) ((long) paths * c / chunks);
+            int to = (int) ((long) paths * (c + 1) / chunks);
+            simulate(loadings, residuals, drift, values, randoms[c], pnl, from, to);
+        });
+        return lossQuantile(pnl, confidence);
+    }
+
+    // Orthonormal day-space vectors spanning (approximately) the leading principal components of the
+    // rows, by subspace iteration from random starts. Any orthonormal set keeps the split exact, since
+    // the residual covariance left over is never negative; more iterations only make it smaller.
+    // Directions the rows do not reach (fewer distinct holdings than vectors asked for) are dropped.
+    static double[][] principalBasis(double[][] rows, int size, SplittableRandom random) {
+        int days = rows[0].length;
+        double[][] basis = new double[size][days];
+        for (double[] vector : basis) {
+            for (int t = 0; t < days; t++) {
+                vector[t] = random.nextGaussian();
+            }
+        }
+        for (int iteration = 0; iteration < POWER_ITERATIONS; iteration++) {
+            // basis <- rows^T * rows * basis, one basis vector per task
+            double[][] current = basis;
+            IntStream.range(0, current.length).parallel().forEach(f -> {
+                double[] next = new double[days];
+                for (double[] row : rows) {
+                    double weight = dot(row, current[f]);
+                    for (int t = 0; t < days; t++) {
+                        next[t] += weight * row[t];
+                    }
+                }
+                current[f] = next;
+            });
+            basis = orthonormalize(current);
+        }
+        return basis;
+    }
+
+    // Modified Gram-Schmidt; vectors that are (numerically) combinations of earlier ones are dropped
+    private static double[][] orthonormalize(double[][] vectors) {
+        double[][] basis = new double[vectors.length][];
+        int size = 0;
+        double largest = 0.0;
+        for (double[] vector : vectors) {
+            largest = Math.max(largest, Math.sqrt(dot(vector, vector)));
+        }
+        for (double[] vector : vectors) {
+            for (int f = 0; f < size; f++) {
+                double projection = dot(vector, basis[f]);
+                for (int t = 0; t < vector.length; t++) {
+                    vector[t] -= projection * basis[f][t];
+                }
+            }
+            double norm = Math.sqrt(dot(vector, vector));
+            if (norm > PIVOT_TOLERANCE * largest) {
+                for (int t = 0; t < vector.length; t++) {
+                    vector[t] /= norm;
+                }
+                basis[size++] = vector;
+            }
+        }
+        return Arrays.copyOf(basis, size);
+    }
+
+    // Profit/loss of paths [from, to), BLOCK paths at a time: the factor draws of a block are shared by
+    // every holding, applied four at a time, and each holding adds its own residual draw.
+    private static void simulate(double[][] loadings, double[] residuals, double[] drift, double[] values,
+                                 SplittableRandom random, double[] pnl, int from, int to) {
+        int width = loadings.length > 0 ? loadings[0].length : 0;
+        double[][] draws = new double[width][BLOCK];
+        double[] shocks = new double[BLOCK];
+        for (int start = from; start < to; start += BLOCK) {
+            int size = Math.min(BLOCK, to - start);
+            for (int f = 0; f < width; f++) {
+                for (int p = 0; p < size; p++) {
+                    draws[f][p] = random.nextGaussian();
+                }
+            }
+            for (int i = 0; i < loadings.length; i++) {
+                double[] loading = loadings[i];
+                double residual = residuals[i];
+                if (residual > 0.0) {
+                    for (int p = 0; p < size; p++) {
+                        shocks[p] = residual * random.nextGaussian();
+                    }
+                } else {
+                    Arrays.fill(shocks, 0, size, 0.0);
+                }
+                int f = 0;
+                for (; f + 3 < width; f += 4) {
+                    double l0 = loading[f];
+                    double l1 = loading[f + 1];
+                    double l2 = loading[f + 2];
+                    double l3 = loading[f + 3];
+                    double[] z0 = draws[f];
+                    double[] z1 = draws[f + 1];
+                    double[] z2 = draws[f + 2];
+                    double[] z3 = draws[f + 3];
+                    for (int p = 0; p < size; p++) {
+                        shocks[p] += l0 * z0[p] + l1 * z1[p] + l2 * z2[p] + l3 * z3[p];
+                    }
+                }
+                for (; f < width; f++) {
+                    double l = loading[f];
+                    double[] z = draws[f];
+                    for (int p = 0; p < size; p++) {
+                        shocks[p] += l * z[p];
+                    }
+                }
+                // exp is an intrinsic and expm1 is not; at daily return sizes the cancellation in
+                // exp(x) - 1 costs far less than a cent
+                double value = values[i];
+                double mu = drift[i];
+                for (int p = 0; p < size; p++) {
+                    pnl[start + p] += value * (Math.exp(mu + shocks[p]) - 1.0);
+                }
+            }
+        }
+    }
+
+    // The (1 - confidence) quantile of profit/loss samples as a positive loss; 0 if that sample is a gain
+    static double lossQuantile(double[] pnl, double confidence) {
+        double[] sorted = pnl.clone();
+        Arrays.parallelSort(sorted);
+        int index = Math.min(sorted.length - 1, (int) Math.floor((1.0 - confidence) * sorted.length));
+        return Math.max(0.0, -sorted[index]);
+    }
+
+    private static double[] standardize(double[] x) {
+        double mean = mean(x);
+        double squares = 0.0;
+        for (double v : x) {
+            squares += (v - mean) * (v - mean);
+        }
+        double[] standardized = new double[x.length];
+        if (squares > 0.0) {
+            double norm = Math.sqrt(squares);
+            for (int t = 0; t < x.length; t++) {
+                standardized[t] = (x[t] - mean) / norm;
+            }
+        }
+        return standardized;
+    }
+
+    private static double dot(double[] a, double[] b) {
+        double sum = 0.0;
+        for (int t = 0; t < a.length; t++) {
+            sum += a[t] * b[t];
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,334 @@
+package com.capx.portfolio_tracker_backend.service;
+
+import com.capx.portfolio_tracker_backend.models.HoldingRisk;
+import com.capx.portfolio_tracker_backend.models.PriceSeries;
+import com.capx.portfolio_tracker_backend.models.RiskReport;
+import com.capx.portfolio_tracker_backend.models.Stock;
+import com.capx.portfolio_tracker_backend.repository.StockRepository;
+import com.capx.portfolio_tracker_backend.service.fx.FxRateService;
+import com.capx.portfolio_tracker_backend.service.fx.FxRates;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+// Portfolio risk from the recorded price history: daily closes of every held ticker are laid out on
+// one calendar-day grid as primitive arrays, turned into log returns and handed to RiskCalculator.
+// Returns are in each ticker's listing currency; only current values are converted, so exchange rate
+// moves are not part of the model. A report is reused until a price, a holding or an exchange rate
+// changes, or it is older than risk.max-age-seconds (new daily closes arrive without any of those).
+// Any quote bumps the price version, so misses are common; concurrent misses for one portfolio share
+// a single computation.
+@Service
+public class RiskService {
+    private static final Logger log = LoggerFactory.getLogger(RiskService.class);
+
+    private static final long DAY_MILLIS = Duration.ofDays(1).toMillis();
+
+    @Autowired
+    private StockRepository stockRepository;
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private StockPriceService stockPriceService;
+
+    @Autowired
+    private PriceHistoryService priceHistoryService;
+
+    @Autowired
+    private FxRateService fxRateService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Calendar days of daily closes the model is fitted on
+    @Value("${risk.lookback-days:365}")
+    private int lookbackDays;
+
+    // Fewest daily returns a ticker needs to be part of the model
+    @Value("${risk.min-observations:30}")
+    private int minObservations;
+
+    // Closes are per calendar day and days without trading add a zero return, so a year is 365 periods
+    @Value("${risk.periods-per-year:365}")
+    private double periodsPerYear;
+
+    @Value("${risk.benchmark-ticker:SPY}")
+    private String benchmarkTicker;
+
+    @Value("${risk.confidence:0.95}")
+    private double confidence;
+
+    @Value("${risk.horizon-days:1}")
+    private int horizonDays;
+
+    @Value("${risk.monte-carlo.paths:100000}")
+    private int monteCarloPaths;
+
+    // Fixed so a report is reproducible for the same history
+    @Value("${risk.monte-carlo.seed:42}")
+    private long monteCarloSeed;
+
+    @Value("${risk.max-age-seconds:3600}")
+    private long maxAgeSeconds;
+
+    @Value("${risk.cache-size:1000}")
+    private long cacheSize;
+
+    private Cache<Long, RiskReport> reports;
+
+    // Reports being computed, so concurrent requests for a portfolio wait for one Monte Carlo run
+    private final ConcurrentMap<Long, CompletableFuture<RiskReport>> inFlight = new ConcurrentHashMap<>();
+
+    private Timer computeDuration;
+    private Counter coalesced;
+
+    @PostConstruct
+    public void init() {
+        reports = Caffeine.newBuilder().maximumSize(cacheSize).recordStats().build();
+        CaffeineCacheMetrics.monitor(meterRegistry, reports, "portfolio.risk");
+        computeDuration = Timer.builder("portfolio.risk.duration")
+                .description("Time to compute a portfolio risk report")
+                .register(meterRegistry);
+        coalesced = Counter.builder("portfolio.risk.coalesced")
+                .description("Risk report requests that waited for a computation already in progress")
+                .register(meterRegistry);
+    }
+
+    // Fetch the benchmark on the price refresh schedule, so its daily closes are recorded alongside
+    // those of the held tickers
+    @Scheduled(initialDelayString = "${price.refresh.initial-delay-ms:60000}",
+            fixedDelayString = "${price.refresh.interval-ms:86400000}")
+    public void recordBenchmarkPrice() {
+        if (!stockPriceService.refreshStockPrices(List.of(benchmarkTicker)).containsKey(benchmarkTicker)) {
+            log.warn("No price for benchmark {}", benchmarkTicker);
+        }
+    }
+
+    public RiskReport getRiskReport(long portfolioId) {
+        long priceVersion = stockPriceService.getPriceVersion();
+        long dataVersion = stockService.getDataVersion(portfolioId);
+        FxRates rates = fxRateService.getRates();
+        long now = Instant.now().getEpochSecond();
+        RiskReport report = reports.getIfPresent(portfolioId);
+        if (report != null
+                && report.getPriceVersion() == priceVersion
+                && report.getDataVersion() == dataVersion
+                && report.getFxVersion() == rates.getVersion()
+                && now - report.getComputedAt() <= maxAgeSeconds) {
+            return report;
+        }
+        CompletableFuture<RiskReport> pending = new CompletableFuture<>();
+        CompletableFuture<RiskReport> running = inFlight.putIfAbsent(portfolioId, pending);
+        if (running != null) {
+            // Started just before this request, so it can miss a price that moved in between, as a
+            // cached report can
+            coalesced.increment();
+            return await(running);
+        }
+        try {
+            FxRates.Conversion conversion = rates.to(stockService.getReportingCurrency(portfolioId));
+            report = computeDuration.record(() ->
+                    computeReport(portfolioId, conversion, priceVersion, dataVersion, rates.getVersion(), now));
+            reports.put(portfolioId, report);
+            pending.complete(report);
+            return report;
+        } catch (RuntimeException | Error e) {
+            pending.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(portfolioId, pending);
+        }
+    }
+
+    // The shared computation's report, or its exception as thrown to the request that ran it
+    private static RiskReport await(CompletableFuture<RiskReport> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private RiskReport computeReport(long portfolioId, FxRates.Conversion conversion, long priceVersion,
+                                     long dataVersion, long fxVersion, long now) {
+        Map<String, Double> values = holdingValues(portfolioId, conversion);
+        List<String> tickers = new ArrayList<>(values.keySet());
+        double totalValue = 0.0;
+        for (double value : values.values()) {
+            totalValue += value;
+        }
+
+        // Calendar-day grid ending today; the latest tick of today stands in for its close
+        long to = now * 1000 + 1;
+        long firstDay = Math.floorDiv(to - lookbackDays * DAY_MILLIS, DAY_MILLIS);
+        int dayCount = (int) (Math.floorDiv(to - 1, DAY_MILLIS) - firstDay + 1);
+        Set<String> queried = new LinkedHashSet<>(tickers);
+        queried.add(benchmarkTicker);
+        Map<String, PriceSeries> history = priceHistoryService.getDailyCloses(queried,
+                Instant.ofEpochMilli(firstDay * DAY_MILLIS), Instant.ofEpochMilli(to));
+
+        // Tickers with enough history; the window starts on the first day all of them have a close
+        List<Integer> modelled = new ArrayList<>();
+        double[][] closes = new double[tickers.size()][];
+        int start = 0;
+        for (int i = 0; i < tickers.size(); i++) {
+            closes[i] = closesOnGrid(history.get(tickers.get(i)), firstDay, dayCount);
+            int first = firstClose(closes[i]);
+            if (dayCount - 1 - first >= minObservations) {
+                modelled.add(i);
+                start = Math.max(start, first);
+            }
+        }
+        int n = modelled.size();
+        int observations = n > 0 ? dayCount - 1 - start : 0;
+        double[][] returns = new double[n][];
+        double[] modelledValues = new double[n];
+        double modelledValue = 0.0;
+        List<String> modelledTickers = new ArrayList<>(n);
+        for (int k = 0; k < n; k++) {
+            int i = modelled.get(k);
+            returns[k] = logReturns(closes[i], start);
+            modelledValues[k] = values.get(tickers.get(i));
+            modelledValue += modelledValues[k];
+            modelledTickers.add(tickers.get(i));
+        }
+        double[] benchmarkCloses = closesOnGrid(history.get(benchmarkTicker), firstDay, dayCount);
+        double[] benchmarkReturns = n > 0 && firstClose(benchmarkCloses) <= start
+                ? logReturns(benchmarkCloses, start) : null;
+
+        double[] volatilities = n > 0 ? RiskCalculator.volatilities(returns, periodsPerYear) : new double[0];
+        double[] betas = benchmarkReturns != null ? RiskCalculator.betas(returns, benchmarkReturns) : null;
+        double[][] correlation = n > 0 ? RiskCalculator.correlationMatrix(returns) : new double[0][];
+        Double volatility = null;
+        Double beta = null;
+        Double historicalVar = null;
+        Double monteCarloVar = null;
+        if (n > 0 && modelledValue > 0.0) {
+            double[] weights = new double[n];
+            for (int k = 0; k < n; k++) {
+                weights[k] = modelledValues[k] / modelledValue;
+            }
+            double[] portfolioReturns = RiskCalculator.portfolioReturns(returns, weights);
+            volatility = RiskCalculator.stdDev(portfolioReturns) * Math.sqrt(periodsPerYear);
+            beta = benchmarkReturns != null ? finiteOrNull(RiskCalculator.beta(portfolioReturns, benchmarkReturns)) : null;
+            historicalVar = RiskCalculator.historicalVar(portfolioReturns, modelledValue, confidence, horizonDays);
+            monteCarloVar = RiskCalculator.monteCarloVar(returns, modelledValues, confidence, horizonDays,
+                    monteCarloPaths, monteCarloSeed);
+        } else if (!tickers.isEmpty()) {
+            log.debug("No holding of portfolio {} has {} daily returns", portfolioId, minObservations);
+        }
+
+        List<HoldingRisk> holdings = new ArrayList<>(tickers.size());
+        for (int i = 0, k = 0; i < tickers.size(); i++) {
+            double value = values.get(tickers.get(i));
+            double weight = totalValue > 0.0 ? value / totalValue : 0.0;
+            if (k < n && modelled.get(k) == i) {
+                holdings.add(new HoldingRisk(tickers.get(i), value, weight, volatilities[k],
+                        betas != null ? finiteOrNull(betas[k]) : null));
+                k++;
+            } else {
+                holdings.add(new HoldingRisk(tickers.get(i), value, weight, null, null));
+            }
+        }
+        return new RiskReport(conversion.getTarget(), totalValue, modelledValue, observations, benchmarkTicker,
+                confidence, horizonDays, volatility, beta, historicalVar, monteCarloVar,
+                monteCarloVar != null ? monteCarloPaths : 0, holdings, modelledTickers, correlation,
+                priceVersion, dataVersion, fxVersion, now);
+    }
+
+    // Current value per ticker in the reporting currency, from the cached price or else the persisted one
+    private Map<String, Double> holdingValues(long portfolioId, FxRates.Conversion conversion) {
+        List<Stock> stocks = stockRepository.findByPortfolioId(portfolioId);
+        Set<String> tickers = new LinkedHashSet<>();
+        for (Stock stock : stocks) {
+            tickers.add(stock.getTicker());
+        }
+        Map<String, Double> prices = stockPriceService.getStockPrices(tickers);
+        Map<String, Double> values = new LinkedHashMap<>();
+        for (Stock stock : stocks) {
+            double factor = conversion.factor(stock.getCurrency());
+            Double price = prices.getOrDefault(stock.getTicker(), stock.getCurrentPrice());
+            if (Double.isNaN(factor) || price == null) {
+                continue;
+            }
+            values.merge(stock.getTicker(), price * stock.getQuantity() * factor, Double::sum);
+        }
+        return values;
+    }
+
+    // One close per grid day, carried forward over days without a tick; NaN before the first tick
+    private static double[] closesOnGrid(PriceSeries series, long firstDay, int dayCount) {
+        double[] closes = new double[dayCount];
+        Arrays.fill(closes, Double.NaN);
+        if (series != null) {
+            long[] times = series.getT();
+            double[] prices = series.getPrice();
+            for (int j = 0; j < times.length; j++) {
+                int day = (int) (Math.floorDiv(times[j], DAY_MILLIS) - firstDay);
+                if (day >= 0 && day < dayCount && prices[j] > 0.0) {
+                    closes[day] = prices[j];
+                }
+            }
+        }
+        for (int d = 1; d < dayCount; d++) {
+            if (Double.isNaN(closes[d])) {
+                closes[d] = closes[d - 1];
+            }
+        }
+        return closes;
+    }
+
+    // Grid index of the first close, or the grid length if there is none
+    private static int firstClose(double[] closes) {
+        int first = 0;
+        while (first < closes.length && Double.isNaN(closes[first])) {
+            first++;
+        }
+        return first;
+    }
+
+    // Daily log returns from grid day start onwards
+    private static double[] logReturns(double[] closes, int start) {
+        double[] returns = new double[closes.length - 1 - start];
+        for (int t = 0; t < returns.length; t++) {
+            returns[t] = Math.log(closes[start + t + 1] / closes[start + t]);
+        }
+        return returns;
+    }
+
+    private static Double finiteOrNull(double value) {
+        return Double.isFinite(value) ? value : null;
+    }
+}
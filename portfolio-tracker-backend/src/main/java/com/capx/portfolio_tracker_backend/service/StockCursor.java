@@ -0,0 +1,87 @@
+package com.capx.portfolio_tracker_backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.data.domain.Sort;
+
+import java.io.IOException;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Opaque keyset cursor for paging stocks: the sort keys of the last row of a page, as base64url JSON.
+// Only whitelisted columns can be sorted on, and id is always the tie-breaker.
+class StockCursor {
+    static final String ID = "id";
+
+    private static final Map<String, Class<? extends Comparable<?>>> SORTABLE_FIELDS = Map.of(
+            ID, Long.class,
+            "name", String.class,
+            "ticker", String.class,
+            "quantity", Integer.class,
+            "buyPrice", Double.class,
+            "percentageChange", Double.class);
+
+    private StockCursor() {
+    }
+
+    // Sort by the requested field, then by id so every position is unique
+    static Sort sortFor(String field, Sort.Direction direction) {
+        if (!SORTABLE_FIELDS.containsKey(field)) {
+            throw new IllegalArgumentException("Cannot sort stocks by " + field
+                    + "; sortable fields are " + SORTABLE_FIELDS.keySet());
+        }
+        Sort sort = Sort.by(direction, field);
+        return ID.equals(field) ? sort : sort.and(Sort.by(direction, ID));
+    }
+
+    static String encode(Map<String, ?> keys, ObjectMapper objectMapper) {
+        try {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(objectMapper.writeValueAsBytes(keys));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not encode stock cursor", e);
+        }
+    }
+
+    // Decode a cursor produced for the given sort field, restoring each key to its column type
+    static Map<String, Object> decode(String cursor, String field, ObjectMapper objectMapper) {
+        Map<String, Object> raw;
+        try {
+            raw = objectMapper.readValue(Base64.getUrlDecoder().decode(cursor), new TypeReference<>() {
+            });
+        } catch (IllegalArgumentException | IOException e) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+        if (raw == null || !raw.containsKey(field) || !raw.containsKey(ID) || raw.size() > 2) {
+            throw new IllegalArgumentException("Cursor does not match sort field " + field);
+        }
+        Map<String, Object> keys = new LinkedHashMap<>();
+        for (Map.Entry<String, Object> entry : raw.entrySet()) {
+            keys.put(entry.getKey(), coerce(entry.getValue(), SORTABLE_FIELDS.get(entry.getKey())));
+        }
+        return keys;
+    }
+
+    // JSON numbers come back as Integer/Long/Double depending on size; queries need the column's type
+    private static Object coerce(Object value, Class<?> type) {
+        if (value == null) {
+            throw new IllegalArgumentException("Cursor keys cannot be null");
+        }
+        if (type == String.class && value instanceof String) {
+            return value;
+        }
+        if (value instanceof Number number) {
+            if (type == Long.class) {
+                return number.longValue();
+            }
+            if (type == Integer.class) {
+                return number.intValue();
+            }
+            if (type == Double.class) {
+                return number.doubleValue();
+            }
+        }
+        throw new IllegalArgumentException("Malformed cursor");
+    }
+}
@@ -1,114 +1,349 @@
 package com.capx.portfolio_tracker_backend.service;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import org.springframework.beans.factory.annotation.Value;
+import com.capx.portfolio_tracker_backend.repository.StockRepository;
+import com.capx.portfolio_tracker_backend.service.quote.QuotePriority;
+import com.capx.portfolio_tracker_backend.service.quote.QuoteRateLimiter;
+import com.capx.portfolio_tracker_backend.service.quote.ResilientQuoteClient;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
-import org.springframework.web.util.UriComponentsBuilder;
 
-import java.io.IOException;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Service
 public class StockPriceService {
-    @Value("${alphavantage.api.key}")
-    private String apiKey;
+    private static final Logger log = LoggerFactory.getLogger(StockPriceService.class);
 
-    private static final String ALPHA_VANTAGE_API_URL = "https://www.alphavantage.co/query";
-    private static final long CACHE_EXPIRY_SECONDS = 86400; // 24 hours
-    private final Map<String, CachedPrice> priceCache = new ConcurrentHashMap<>();
-    private static final double USD_TO_INR = 85.76;
-    private final ExecutorService executorService = Executors.newFixedThreadPool(5);
+    // Quote providers behind circuit breakers, with failover and hedging to a secondary provider
+    @Autowired
+    private ResilientQuoteClient quoteClient;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Bounded cache of raw quotes (listing currency) with per-entry, market-hours aware TTLs
+    @Autowired
+    private PriceCache priceCache;
+
+    @Autowired
+    private QuoteRateLimiter rateLimiter;
+
+    // Every fetched quote is appended to the price history
+    @Autowired
+    private PriceHistoryService priceHistoryService;
+
+    // Every cached quote is published as a PriceUpdateEvent (alert rules are evaluated from it)
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    // Last resort when no provider answers and nothing is cached: the price persisted with a holding
+    @Autowired
+    private StockRepository stockRepository;
+
+    // One pending fetch per ticker; concurrent callers for the same ticker share it
+    private final Map<String, CompletableFuture<Double>> inFlight = new ConcurrentHashMap<>();
+    // Bumped whenever a cached price changes value, so consumers can memoize derived results
+    private final AtomicLong priceVersion = new AtomicLong();
+    private final AtomicLong cacheHits = new AtomicLong();
+    private final AtomicLong cacheMisses = new AtomicLong();
+    private final AtomicLong staleHits = new AtomicLong();
+    private final AtomicLong coalescedRequests = new AtomicLong();
+    private final AtomicLong backgroundRefreshes = new AtomicLong();
+    // Bounded pool for manual price updates (see QuoteClientConfig)
+    @Autowired
+    @Qualifier("quoteFetchExecutor")
+    private AsyncTaskExecutor executorService;
+
+    // Runs stale-while-revalidate refreshes, kept apart from the fan-out pool it submits to
+    @Autowired
+    @Qualifier("quoteRefreshExecutor")
+    private AsyncTaskExecutor refreshExecutor;
+
+    @PostConstruct
+    public void initMetrics() {
+        lookupCounter("hit", cacheHits);
+        lookupCounter("stale", staleHits);
+        lookupCounter("miss", cacheMisses);
+        lookupCounter("coalesced", coalescedRequests);
+        FunctionCounter.builder("quote.background.refreshes", backgroundRefreshes, AtomicLong::get)
+                .description("Stale-while-revalidate refreshes started")
+                .register(meterRegistry);
+        Gauge.builder("quote.inflight", inFlight, Map::size)
+                .description("Tickers with an upstream fetch in progress")
+                .register(meterRegistry);
+    }
+
+    private void lookupCounter(String result, AtomicLong count) {
+        FunctionCounter.builder("quote.lookups", count, AtomicLong::get)
+                .description("Price lookups by how they were served")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
 
     public Double getStockPrice(String ticker) {
         long currentTime = Instant.now().getEpochSecond();
-        CachedPrice cachedPrice = priceCache.get(ticker);
+        PriceCache.CachedPrice cachedPrice = priceCache.get(ticker);
 
         // Return cached price if valid
-        if (cachedPrice != null && currentTime - cachedPrice.timestamp <= CACHE_EXPIRY_SECONDS) {
-            return cachedPrice.price * USD_TO_INR;
+        if (cachedPrice != null && cachedPrice.isFresh(currentTime)) {
+            cacheHits.incrementAndGet();
+            return cachedPrice.getPrice();
+        }
+
+        // Serve the expired price right away and let one background fetch replace it
+        if (cachedPrice != null) {
+            staleHits.incrementAndGet();
+            refreshInBackground(List.of(ticker));
+            return cachedPrice.getPrice();
         }
 
-        // Fetch and cache new price
-        Double price = fetchStockPriceWithRetry(ticker);
+        // Fetch and cache new price, joining any fetch already running for this ticker
+        cacheMisses.incrementAndGet();
+        Double price = await(loadShared(ticker));
         if (price != null) {
-            priceCache.put(ticker, new CachedPrice(price, currentTime));
-            return price * USD_TO_INR;
+            return price;
         }
 
-        return cachedPrice != null ? cachedPrice.price * USD_TO_INR : null;
+        // No provider answered: serve the persisted price and let the next read try the providers again
+        List<Double> persisted = stockRepository.findPersistedPrices(ticker, Limit.of(1));
+        if (!persisted.isEmpty()) {
+            priceCache.warm(ticker, persisted.get(0), Instant.now());
+            return persisted.get(0);
+        }
+        return null;
+    }
+
+    // Resolve prices for many tickers at once. Cache hits are served directly and all misses
+    // are merged into grouped upstream requests. Tickers with no price at all are left out.
+    public Map<String, Double> getStockPrices(Collection<String> tickers) {
+        return getStockPrices(tickers, QuotePriority.INTERACTIVE);
     }
 
-    private Double fetchStockPriceWithRetry(String ticker) {
-        for (int attempt = 0; attempt < 3; attempt++) {
-            try {
-                String url = UriComponentsBuilder.fromUriString(ALPHA_VANTAGE_API_URL)
-                        .queryParam("function", "GLOBAL_QUOTE")
-                        .queryParam("symbol", ticker)
-                        .queryParam("apikey", apiKey)
-                        .toUriString();
+    // Same as getStockPrices(tickers), with upstream calls queued at the given rate-limit priority
+    public Map<String, Double> getStockPrices(Collection<String> tickers, QuotePriority priority) {
+        return getStockPrices(tickers, priority, true);
+    }
 
-                RestTemplate restTemplate = new RestTemplate();
-                String response = restTemplate.getForObject(url, String.class);
+    // Prices for jobs that persist them: expired entries are fetched again instead of being served
+    // stale, and only used if that fetch fails
+    public Map<String, Double> refreshStockPrices(Collection<String> tickers) {
+        return getStockPrices(tickers, QuotePriority.BULK, false);
+    }
 
-                if (response != null) {
-                    ObjectMapper objectMapper = new ObjectMapper();
-                    JsonNode rootNode = objectMapper.readTree(response);
-                    JsonNode quoteNode = rootNode.path("Global Quote");
+    private Map<String, Double> getStockPrices(Collection<String> tickers, QuotePriority priority, boolean serveStale) {
+        long currentTime = Instant.now().getEpochSecond();
+        Map<String, Double> prices = new HashMap<>();
+        List<String> stale = new ArrayList<>();
+        Map<String, CompletableFuture<Double>> owned = new LinkedHashMap<>();
+        Map<String, CompletableFuture<Double>> joined = new HashMap<>();
 
-                    if (!quoteNode.isMissingNode()) {
-                        return quoteNode.path("05. price").asDouble(0.0);
-                    }
-                }
-            } catch (Exception e) {
-                System.err.println("Price fetch attempt " + (attempt + 1) + " failed for " + ticker);
-                try {
-                    Thread.sleep(1000); // Wait before retry
-                } catch (InterruptedException ex) {
-                    Thread.currentThread().interrupt();
+        for (String ticker : tickers) {
+            PriceCache.CachedPrice cachedPrice = priceCache.get(ticker);
+            if (cachedPrice != null && cachedPrice.isFresh(currentTime)) {
+                cacheHits.incrementAndGet();
+                prices.put(ticker, cachedPrice.getPrice());
+            } else if (cachedPrice != null && serveStale) {
+                staleHits.incrementAndGet();
+                prices.put(ticker, cachedPrice.getPrice());
+                stale.add(ticker);
+            } else if (!owned.containsKey(ticker) && !joined.containsKey(ticker)) {
+                cacheMisses.incrementAndGet();
+                CompletableFuture<Double> pending = new CompletableFuture<>();
+                CompletableFuture<Double> running = inFlight.putIfAbsent(ticker, pending);
+                if (running != null) {
+                    coalescedRequests.incrementAndGet();
+                    joined.put(ticker, running);
+                } else {
+                    owned.put(ticker, pending);
                 }
             }
         }
-        return null;
+        if (!stale.isEmpty()) {
+            refreshInBackground(stale);
+        }
+        if (!owned.isEmpty()) {
+            resolve(owned, priority);
+        }
+
+        Map<String, CompletableFuture<Double>> pending = new HashMap<>(owned);
+        pending.putAll(joined);
+        for (Map.Entry<String, CompletableFuture<Double>> entry : pending.entrySet()) {
+            Double price = await(entry.getValue());
+            if (price == null) {
+                // Fall back to an expired entry rather than dropping the ticker
+                PriceCache.CachedPrice cachedPrice = priceCache.get(entry.getKey());
+                price = cachedPrice != null ? cachedPrice.getPrice() : null;
+            }
+            if (price != null) {
+                prices.put(entry.getKey(), price);
+            }
+        }
+        return prices;
     }
 
-    private static class CachedPrice {
-        Double price;
-        long timestamp;
+    public long getPriceVersion() {
+        return priceVersion.get();
+    }
+
+    // The cached price of a ticker, fresh or not, without fetching it; null if it is not cached
+    public Double getCachedPrice(String ticker) {
+        PriceCache.CachedPrice cachedPrice = priceCache.get(ticker);
+        return cachedPrice != null ? cachedPrice.getPrice() : null;
+    }
 
-        public CachedPrice(Double price, long timestamp) {
-            this.price = price;
-            this.timestamp = timestamp;
+    // Counters for cache effectiveness and request coalescing
+    public Map<String, Long> getFetchMetrics() {
+        Map<String, Long> metrics = new LinkedHashMap<>();
+        metrics.put("cacheHits", cacheHits.get());
+        metrics.put("cacheMisses", cacheMisses.get());
+        metrics.put("staleHits", staleHits.get());
+        metrics.put("coalescedRequests", coalescedRequests.get());
+        metrics.put("backgroundRefreshes", backgroundRefreshes.get());
+        metrics.put("inFlight", (long) inFlight.size());
+        metrics.putAll(priceCache.getStats());
+        metrics.putAll(rateLimiter.getStats());
+        metrics.putAll(quoteClient.getStats());
+        metrics.putAll(priceHistoryService.getStats());
+        return metrics;
+    }
+
+    // Seed the cache from persisted prices (listing currency, like the quotes) so a restart does not start
+    // cold. Seeded entries are served immediately and refreshed in the background on first read.
+    public void warmUp(Map<String, Double> persistedPrices) {
+        Instant now = Instant.now();
+        int warmed = 0;
+        for (Map.Entry<String, Double> entry : persistedPrices.entrySet()) {
+            if (warmed >= priceCache.getMaxSize()) {
+                break;
+            }
+            if (entry.getValue() != null && entry.getValue() > 0) {
+                priceCache.warm(entry.getKey(), entry.getValue(), now);
+                warmed++;
+            }
         }
+        log.info("Warmed price cache with {} persisted prices", warmed);
+    }
+
+    // Fetch one ticker on the calling thread, or return the fetch another thread already started
+    private CompletableFuture<Double> loadShared(String ticker) {
+        CompletableFuture<Double> pending = new CompletableFuture<>();
+        CompletableFuture<Double> running = inFlight.putIfAbsent(ticker, pending);
+        if (running != null) {
+            coalescedRequests.incrementAndGet();
+            return running;
+        }
+        resolve(Map.of(ticker, pending), QuotePriority.INTERACTIVE);
+        return pending;
+    }
+
+    // Start a single background fetch for the given tickers, skipping any already being fetched.
+    // Nobody is waiting on it, so it queues behind interactive lookups.
+    private void refreshInBackground(Collection<String> tickers) {
+        Map<String, CompletableFuture<Double>> owned = new LinkedHashMap<>();
+        for (String ticker : tickers) {
+            CompletableFuture<Double> pending = new CompletableFuture<>();
+            if (inFlight.putIfAbsent(ticker, pending) == null) {
+                owned.put(ticker, pending);
+            }
+        }
+        if (owned.isEmpty()) {
+            return;
+        }
+        backgroundRefreshes.incrementAndGet();
+        try {
+            refreshExecutor.execute(() -> resolve(owned, QuotePriority.BULK));
+        } catch (RuntimeException e) {
+            // Executor is shutting down; release the claims so later callers can fetch
+            owned.forEach((ticker, pending) -> {
+                inFlight.remove(ticker, pending);
+                pending.complete(null);
+            });
+        }
+    }
+
+    // Fetch the claimed tickers, cache the results, then complete and release every claim.
+    // Prices are cached before the claim is released so late callers find them in the cache.
+    private void resolve(Map<String, CompletableFuture<Double>> owned, QuotePriority priority) {
+        try {
+            Map<String, Double> fetched = owned.size() == 1
+                    ? singleQuote(owned.keySet().iterator().next(), priority)
+                    : quoteClient.fetchQuotes(owned.keySet(), priority);
+            Instant now = Instant.now();
+            owned.forEach((ticker, pending) -> {
+                Double price = fetched.get(ticker);
+                if (price != null) {
+                    cachePrice(ticker, price, now);
+                }
+                pending.complete(price);
+            });
+        } catch (RuntimeException e) {
+            log.warn("Price fetch failed for {}", owned.keySet(), e);
+        } finally {
+            owned.forEach((ticker, pending) -> {
+                inFlight.remove(ticker, pending);
+                pending.complete(null);
+            });
+        }
+    }
+
+    private Map<String, Double> singleQuote(String ticker, QuotePriority priority) {
+        Map<String, Double> fetched = new HashMap<>();
+        Double price = quoteClient.fetchQuote(ticker, priority);
+        if (price != null) {
+            fetched.put(ticker, price);
+        }
+        return fetched;
+    }
+
+    private Double await(Future<Double> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            log.warn("Price fetch failed", e.getCause());
+        }
+        return null;
+    }
+
+    private void cachePrice(String ticker, double price, Instant now) {
+        priceHistoryService.record(ticker, price, now);
+        Double previous = priceCache.put(ticker, price, now);
+        if (previous == null || previous != price) {
+            priceVersion.incrementAndGet();
+        }
+        eventPublisher.publishEvent(new PriceUpdateEvent(ticker, price, now));
     }
 
     // Optional method for manual price updates
     public void updateAllStockPrices(Map<String, String> stockTickers) {
-        stockTickers.forEach((name, ticker) -> 
+        stockTickers.forEach((name, ticker) ->
             executorService.submit(() -> {
                 Double price = getStockPrice(ticker);
                 if (price != null) {
-                    System.out.println(name + ": $" + price);
+                    log.info("{}: {}", name, price);
                 }
             })
         );
     }
-
-    // Shutdown method to be called when application closes
-    public void shutdown() {
-        executorService.shutdown();
-        try {
-            if (!executorService.awaitTermination(800, TimeUnit.MILLISECONDS)) {
-                executorService.shutdownNow();
-            }
-        } catch (InterruptedException e) {
-            executorService.shutdownNow();
-        }
-    }
-}
\ No newline at end of file
+}
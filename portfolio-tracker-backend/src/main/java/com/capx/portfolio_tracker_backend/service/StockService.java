@@ -1,47 +1,295 @@
 package com.capx.portfolio_tracker_backend.service;
 
+import com.capx.portfolio_tracker_backend.models.HoldingValue;
+import com.capx.portfolio_tracker_backend.models.Portfolio;
+import com.capx.portfolio_tracker_backend.models.PortfolioSnapshot;
+import com.capx.portfolio_tracker_backend.models.PortfolioTotals;
 import com.capx.portfolio_tracker_backend.models.Stock;
+import com.capx.portfolio_tracker_backend.models.StockPage;
+import com.capx.portfolio_tracker_backend.repository.PortfolioRepository;
 import com.capx.portfolio_tracker_backend.repository.StockRepository;
+import com.capx.portfolio_tracker_backend.service.fx.FxRateService;
+import com.capx.portfolio_tracker_backend.service.fx.FxRates;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.SessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
 
 @Service
 public class StockService {
+    private static final Logger log = LoggerFactory.getLogger(StockService.class);
+
     @Autowired
     private StockRepository stockRepository;
 
     @Autowired
     private StockPriceService stockPriceService;
 
-    // Calculate the total portfolio value
-    public double calculatePortfolioValue() {
-        List<Stock> stocks = stockRepository.findAll();
+    @Autowired
+    private FxRateService fxRateService;
+
+    @Autowired
+    private PortfolioRepository portfolioRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Largest page a client may ask for
+    @Value("${stocks.page.max-limit:1000}")
+    private int maxPageLimit;
+
+    private TransactionTemplate readOnlyTransaction;
+
+    // Rows returned by the queries that load a whole portfolio (or a page of it)
+    private DistributionSummary snapshotRows;
+    private DistributionSummary listRows;
+    private DistributionSummary pageRows;
+    private DistributionSummary exportRows;
+
+    // Bumped on writes that may touch any portfolio (e.g. the price refresh job)
+    private final AtomicLong dataVersion = new AtomicLong();
+
+    // Bumped on writes to one portfolio; a snapshot's data version is the sum of both counters
+    private final ConcurrentMap<Long, AtomicLong> portfolioVersions = new ConcurrentHashMap<>();
+
+    // Upper bound on how long a memoized snapshot is reused, so expired cache entries get refreshed
+    @Value("${portfolio.snapshot.max-age-seconds:60}")
+    private long snapshotMaxAgeSeconds;
+
+    // How many portfolios keep a memoized snapshot
+    @Value("${portfolio.snapshot.cache-size:10000}")
+    private long snapshotCacheSize;
+
+    private Cache<Long, PortfolioSnapshot> snapshots;
+
+    // How long after a completed price refresh the database aggregates may stand in for live prices
+    @Value("${portfolio.aggregate.max-age-seconds:300}")
+    private long aggregateMaxAgeSeconds;
+
+    // Price version at which every persisted current_price matched the price cache, and when (epoch seconds)
+    private volatile long persistedPriceVersion = -1;
+    private volatile long pricesPersistedAt;
+
+    @PostConstruct
+    public void init() {
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        snapshots = Caffeine.newBuilder().maximumSize(snapshotCacheSize).recordStats().build();
+        CaffeineCacheMetrics.monitor(meterRegistry, snapshots, "portfolio.snapshots");
+        snapshotRows = rowSummary("snapshot");
+        listRows = rowSummary("list");
+        pageRows = rowSummary("page");
+        exportRows = rowSummary("export");
+    }
+
+    private DistributionSummary rowSummary(String query) {
+        return DistributionSummary.builder("stocks.query.rows")
+                .description("Stock rows loaded per portfolio query")
+                .tag("query", query)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    // Compute value, invested amount, distribution and top performer in one pass over the portfolio,
+    // in the portfolio's reporting currency. The result is reused until a price, an exchange rate or
+    // one of the portfolio's holdings changes.
+    public PortfolioSnapshot getPortfolioSnapshot(long portfolioId) {
+        long currentPriceVersion = stockPriceService.getPriceVersion();
+        long currentDataVersion = getDataVersion(portfolioId);
+        FxRates rates = fxRateService.getRates();
+        long now = Instant.now().getEpochSecond();
+        PortfolioSnapshot snapshot = snapshots.getIfPresent(portfolioId);
+        if (snapshot != null
+                && snapshot.getPriceVersion() == currentPriceVersion
+                && snapshot.getDataVersion() == currentDataVersion
+                && snapshot.getFxVersion() == rates.getVersion()
+                && now - snapshot.getComputedAt() <= snapshotMaxAgeSeconds) {
+            return snapshot;
+        }
+        FxRates.Conversion conversion = rates.to(getReportingCurrency(portfolioId));
+        snapshot = computeSnapshot(portfolioId, conversion, currentPriceVersion, currentDataVersion, rates.getVersion(), now);
+        snapshots.put(portfolioId, snapshot);
+        return snapshot;
+    }
+
+    // Prices and buy prices stay in each stock's listing currency; every amount is converted once,
+    // here, with factors resolved once per currency for the whole computation
+    private PortfolioSnapshot computeSnapshot(long portfolioId, FxRates.Conversion conversion, long priceVersion,
+                                              long dataVersion, long fxVersion, long now) {
+        if (priceVersion == persistedPriceVersion && now - pricesPersistedAt <= aggregateMaxAgeSeconds) {
+            return aggregateSnapshot(portfolioId, conversion, priceVersion, dataVersion, fxVersion, now);
+        }
+        List<Stock> stocks = stockRepository.findByPortfolioId(portfolioId);
+        snapshotRows.record(stocks.size());
+        Map<String, Double> prices = stockPriceService.getStockPrices(tickersOf(stocks));
+        double[] values = new double[stocks.size()];
         double totalValue = 0.0;
-        for (Stock stock : stocks) {
-            try {
-                // Get the latest stock price from the service
-                Double currentPrice = stockPriceService.getStockPrice(stock.getTicker());
-                if (currentPrice != null) {
-                    totalValue += currentPrice * stock.getQuantity();
-                } else {
-                    // Use the old price if current price is unavailable
-                    totalValue += stock.getCurrentPrice() * stock.getQuantity();
+        double totalInvested = 0.0;
+        Stock topStock = null;
+        double maxChange = Double.NEGATIVE_INFINITY;
+
+        for (int i = 0; i < stocks.size(); i++) {
+            Stock stock = stocks.get(i);
+            double factor = conversion.factor(stock.getCurrency());
+            if (Double.isNaN(factor)) {
+                log.warn("No {} to {} rate for {}", stock.getCurrency(), conversion.getTarget(), stock.getTicker());
+                continue;
+            }
+            totalInvested += stock.getBuyPrice() * stock.getQuantity() * factor;
+            Double currentPrice = prices.get(stock.getTicker());
+            if (currentPrice != null) {
+                double changePercentage = ((currentPrice - stock.getBuyPrice()) / stock.getBuyPrice()) * 100;
+                if (changePercentage > maxChange) {
+                    maxChange = changePercentage;
+                    topStock = stock;
                 }
-            } catch (Exception e) {
-                System.err.println("Error fetching stock price for " + stock.getTicker() + ": " + e.getMessage());
+            } else {
+                // Use the old price if current price is unavailable
+                currentPrice = stock.getCurrentPrice();
+            }
+            if (currentPrice != null) {
+                values[i] = currentPrice * stock.getQuantity() * factor;
+                totalValue += values[i];
+            } else {
+                log.debug("No price available for {}", stock.getTicker());
             }
         }
-        return totalValue;
+
+        Map<String, Double> distribution = new HashMap<>();
+        if (totalValue > 0.0) {
+            for (int i = 0; i < stocks.size(); i++) {
+                if (values[i] > 0.0) {
+                    distribution.merge(stocks.get(i).getName(), (values[i] / totalValue) * 100, Double::sum);
+                }
+            }
+        } else {
+            log.debug("Total value of portfolio {} is zero", portfolioId);
+        }
+        if (topStock != null) {
+            topStock.setPercentageChange(maxChange);
+        }
+        return new PortfolioSnapshot(totalValue, totalInvested, stocks.size(), conversion.getTarget(), distribution, topStock,
+                priceVersion, dataVersion, fxVersion, now, PortfolioSnapshot.SOURCE_LIVE);
     }
 
-    // Save a new stock and fetch the stock price
-    public Stock saveStock(Stock stock) {
+    // Same metrics from aggregate queries over the persisted prices, without loading any entities.
+    // Only valid while no cached price has changed since those prices were written.
+    private PortfolioSnapshot aggregateSnapshot(long portfolioId, FxRates.Conversion conversion, long priceVersion,
+                                                long dataVersion, long fxVersion, long now) {
+        double totalValue = 0.0;
+        double totalInvested = 0.0;
+        long stockCount = 0;
+        for (PortfolioTotals totals : stockRepository.aggregateTotals(portfolioId)) {
+            double factor = conversion.factor(currencyOf(totals.getCurrency()));
+            stockCount += totals.getStockCount();
+            if (!Double.isNaN(factor)) {
+                totalValue += totals.getTotalValue() * factor;
+                totalInvested += totals.getTotalInvested() * factor;
+            }
+        }
+        Map<String, Double> distribution = new HashMap<>();
+        if (totalValue > 0.0) {
+            for (HoldingValue holding : stockRepository.sumValueByName(portfolioId)) {
+                double amount = holding.getAmount() * conversion.factor(currencyOf(holding.getCurrency()));
+                if (amount > 0.0) {
+                    distribution.merge(holding.getHolding(), (amount / totalValue) * 100, Double::sum);
+                }
+            }
+        }
+        List<Stock> top = stockRepository.findByPortfolioIdAndCurrentPriceIsNotNullOrderByPercentageChangeDesc(portfolioId, Limit.of(1));
+        return new PortfolioSnapshot(totalValue, totalInvested, (int) stockCount, conversion.getTarget(),
+                distribution, top.isEmpty() ? null : top.get(0), priceVersion, dataVersion, fxVersion, now,
+                PortfolioSnapshot.SOURCE_PERSISTED);
+    }
+
+    // The currency the portfolio reports in
+    public String getReportingCurrency(long portfolioId) {
+        String currency = portfolioRepository.findById(portfolioId)
+                .map(Portfolio::getReportingCurrency)
+                .orElse(null);
+        return currency != null ? currency : fxRateService.getDefaultReportingCurrency();
+    }
+
+    // Called by the price refresh job after every row was written with the current cached price
+    public void onPricesPersisted(long priceVersion) {
+        pricesPersistedAt = Instant.now().getEpochSecond();
+        persistedPriceVersion = priceVersion;
+    }
+
+    // Percentage gain of the current price over the buy price, as stored in percentage_change
+    public static double percentageChange(double buyPrice, double currentPrice) {
+        return buyPrice > 0 ? ((currentPrice - buyPrice) / buyPrice) * 100 : 0.0;
+    }
+
+    // Seed the price cache from the persisted current_price column once the app is up.
+    // A ticker held in many portfolios is read once.
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmPriceCache() {
+        Map<String, Double> persistedPrices = new HashMap<>();
+        for (HoldingValue price : stockRepository.findPersistedPriceByTicker()) {
+            persistedPrices.put(price.getHolding(), price.getAmount());
+        }
+        stockPriceService.warmUp(persistedPrices);
+    }
+
+    // Calculate the total portfolio value
+    public double calculatePortfolioValue(long portfolioId) {
+        return getPortfolioSnapshot(portfolioId).getTotalValue();
+    }
+
+    // Save a new stock into the portfolio and fetch the stock price
+    public Stock saveStock(long portfolioId, Stock stock) {
+        stock.setPortfolioId(portfolioId);
         // Fetch the current stock price when saving a new stock
         Double currentPrice = stockPriceService.getStockPrice(stock.getTicker());
         if (currentPrice != null) {
@@ -49,15 +297,19 @@ public class StockService {
         } else {
             stock.setCurrentPrice(stock.getBuyPrice()); // Use buy price as fallback
         }
-        return stockRepository.save(stock);
+        stock.setPercentageChange(percentageChange(stock.getBuyPrice(), stock.getCurrentPrice()));
+        Stock savedStock = stockRepository.save(stock);
+        onPortfolioChanged(portfolioId);
+        return savedStock;
     }
 
-    // Update an existing stock and fetch the stock price again
-    public Stock updateStock(Long id, Stock updatedStock) throws Exception {
-        Optional<Stock> existingStock = stockRepository.findById(id);
+    // Update an existing stock of the portfolio and fetch the stock price again
+    public Stock updateStock(long portfolioId, Long id, Stock updatedStock) throws Exception {
+        Optional<Stock> existingStock = getStockById(portfolioId, id);
         if (existingStock.isPresent()) {
             Stock stock = existingStock.get();
             updatedStock.setId(id);
+            updatedStock.setPortfolioId(portfolioId);
             // Fetch the updated stock price
             Double currentPrice = stockPriceService.getStockPrice(updatedStock.getTicker());
             if (currentPrice != null) {
@@ -65,92 +317,148 @@ public class StockService {
             } else {
                 updatedStock.setCurrentPrice(stock.getCurrentPrice()); // Keep the old price if unavailable
             }
-            return stockRepository.save(updatedStock);
+            if (updatedStock.getCurrentPrice() != null) {
+                updatedStock.setPercentageChange(percentageChange(updatedStock.getBuyPrice(), updatedStock.getCurrentPrice()));
+            }
+            Stock savedStock = stockRepository.save(updatedStock);
+            onPortfolioChanged(portfolioId);
+            return savedStock;
         } else {
             throw new Exception("Stock with ID " + id + " not found.");
         }
     }
 
-    // Delete a stock
-    public boolean deleteStock(Long id) {
-        if (stockRepository.existsById(id)) {
+    // Delete a stock of the portfolio
+    public boolean deleteStock(long portfolioId, Long id) {
+        if (getStockById(portfolioId, id).isPresent()) {
             stockRepository.deleteById(id);
+            onPortfolioChanged(portfolioId);
             return true;
         }
         return false;
     }
-    // Get all stocks
-    public List<Stock> getAllStocks() {
-        return stockRepository.findAll();
+    // Delete every stock of the portfolio
+    public int deleteAllStocks(long portfolioId) {
+        int deleted = stockRepository.deleteByPortfolioId(portfolioId);
+        onPortfolioChanged(portfolioId);
+        snapshots.invalidate(portfolioId);
+        return deleted;
     }
-    // Fetch stock by ID
-    public Optional<Stock> getStockById(Long id) {
-        return stockRepository.findById(id);
+    // Get all stocks of the portfolio
+    public List<Stock> getAllStocks(long portfolioId) {
+        List<Stock> stocks = stockRepository.findByPortfolioId(portfolioId);
+        listRows.record(stocks.size());
+        return stocks;
     }
-    // Get the top-performing stock based on percentage change
-    public Stock getTopPerformingStock() {
-        List<Stock> stocks = stockRepository.findAll();
-        Stock topStock = null;
-        double maxChange = Double.NEGATIVE_INFINITY;
-        for (Stock stock : stocks) {
-            try {
-                // Get the current price for performance calculation
-                Double currentPrice = stockPriceService.getStockPrice(stock.getTicker());
-                if (currentPrice != null) {
-                    double changePercentage = ((currentPrice - stock.getBuyPrice()) / stock.getBuyPrice()) * 100;
-                    if (changePercentage > maxChange) {
-                        maxChange = changePercentage;
-                        topStock = stock;
-                    }
-                }
-            } catch (Exception e) {
-                System.err.println("Error calculating performance for " + stock.getTicker() + ": " + e.getMessage());
-            }
+    // Get all stocks of the portfolio in the given order
+    public List<Stock> getAllStocks(long portfolioId, String sortField, Sort.Direction direction) {
+        List<Stock> stocks = stockRepository.findByPortfolioId(portfolioId, StockCursor.sortFor(sortField, direction));
+        listRows.record(stocks.size());
+        return stocks;
+    }
+    // Get one keyset page of the portfolio's stocks, starting after the row the cursor points at (or at the start)
+    public StockPage getStocksPage(long portfolioId, String cursor, int limit, String sortField, Sort.Direction direction) {
+        if (limit < 1 || limit > maxPageLimit) {
+            throw new IllegalArgumentException("limit must be between 1 and " + maxPageLimit);
         }
-        if (topStock != null) {
-            topStock.setPercentageChange(maxChange);
+        Sort sort = StockCursor.sortFor(sortField, direction);
+        ScrollPosition position = cursor == null
+                ? ScrollPosition.keyset()
+                : ScrollPosition.forward(StockCursor.decode(cursor, sortField, objectMapper));
+        Window<Stock> window = stockRepository.findByPortfolioId(portfolioId, position, sort, Limit.of(limit));
+        pageRows.record(window.size());
+        String nextCursor = null;
+        if (window.hasNext() && !window.isEmpty()) {
+            KeysetScrollPosition last = (KeysetScrollPosition) window.positionAt(window.size() - 1);
+            nextCursor = StockCursor.encode(last.getKeys(), objectMapper);
         }
-        return topStock;
+        return new StockPage(window.getContent(), nextCursor);
     }
-    // Get portfolio distribution as percentages
-    public Map<String, Double> getPortfolioDistribution() {
-        List<Stock> stocks = stockRepository.findAll();
-        double totalValue = calculatePortfolioValue();
-        Map<String, Double> distribution = new HashMap<>();
-        if (totalValue <= 0.0) {
-            System.err.println("Total portfolio value is zero or invalid.");
-            return distribution;
-        }
-        for (Stock stock : stocks) {
-            try {
-                // Get the current price to calculate stock distribution
-                Double currentPrice = stockPriceService.getStockPrice(stock.getTicker());
-                if (currentPrice != null) {
-                    double stockValue = currentPrice * stock.getQuantity();
-                    distribution.put(stock.getName(), (stockValue / totalValue) * 100);
+    // Write every stock of the portfolio as one JSON object per line (NDJSON). Each row is detached once
+    // written; memory stays flat only when the driver streams the result (useCursorFetch=true on MySQL).
+    public long exportStocks(long portfolioId, OutputStream out) {
+        ObjectWriter writer = objectMapper.writerFor(Stock.class);
+        Long written = readOnlyTransaction.execute(status -> {
+            long count = 0;
+            try (Stream<Stock> stocks = stockRepository.streamByPortfolioIdOrderById(portfolioId)) {
+                for (Stock stock : (Iterable<Stock>) stocks::iterator) {
+                    out.write(writer.writeValueAsBytes(stock));
+                    out.write('\n');
+                    entityManager.detach(stock);
+                    count++;
                 }
-            } catch (Exception e) {
-                System.err.println("Error calculating distribution for " + stock.getTicker() + ": " + e.getMessage());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
             }
+            return count;
+        });
+        long count = written != null ? written : 0;
+        exportRows.record(count);
+        return count;
+    }
+    // Fetch stock of the portfolio by ID
+    public Optional<Stock> getStockById(long portfolioId, Long id) {
+        // By primary key, so repeated reads are served from the second-level cache
+        return stockRepository.findById(id).filter(stock -> stock.getPortfolioId() != null && stock.getPortfolioId() == portfolioId);
+    }
+    // Get the portfolio's N best performers by persisted percentage change
+    public List<Stock> getTopPerformingStocks(long portfolioId, int limit) {
+        return stockRepository.findByPortfolioIdAndCurrentPriceIsNotNullOrderByPercentageChangeDesc(portfolioId, Limit.of(limit));
+    }
+    // Get the persisted value of each holding by ticker, in the portfolio's reporting currency
+    public Map<String, Double> getHoldingValues(long portfolioId) {
+        FxRates.Conversion conversion = fxRateService.getRates().to(getReportingCurrency(portfolioId));
+        Map<String, Double> values = new HashMap<>();
+        for (HoldingValue holding : stockRepository.findValueByTicker(portfolioId)) {
+            double factor = conversion.factor(currencyOf(holding.getCurrency()));
+            if (!Double.isNaN(factor)) {
+                values.put(holding.getHolding(), holding.getAmount() * factor);
+            }
+        }
+        return values;
+    }
+    // Get the top-performing stock based on percentage change
+    public Stock getTopPerformingStock(long portfolioId) {
+        return getPortfolioSnapshot(portfolioId).getTopPerformingStock();
+    }
+    // Get portfolio distribution as percentages
+    public Map<String, Double> getPortfolioDistribution(long portfolioId) {
+        return getPortfolioSnapshot(portfolioId).getDistribution();
+    }
+    // Invalidate every memoized snapshot after stock rows were written outside this service
+    public void onStocksChanged() {
+        onStocksChanged(List.of());
+    }
+    // Same, for rows written with plain JDBC (price refresh, seeding), which Hibernate does not see: the
+    // updated rows leave the entity cache and every cached list query is dropped
+    public void onStocksChanged(Collection<Long> updatedIds) {
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        for (Long id : updatedIds) {
+            sessionFactory.getCache().evictEntityData(Stock.class, id);
         }
-        return distribution;
+        sessionFactory.getCache().evictQueryRegions();
+        dataVersion.incrementAndGet();
+    }
+    // Invalidate the portfolio's memoized snapshot after its rows were written outside this service
+    public void onPortfolioChanged(long portfolioId) {
+        portfolioVersions.computeIfAbsent(portfolioId, id -> new AtomicLong()).incrementAndGet();
+    }
+
+    private static String currencyOf(String currency) {
+        return currency != null ? currency : Stock.DEFAULT_CURRENCY;
     }
-     // Scheduled task to update all stock prices once every 24 hours (86400 seconds)
-    @Scheduled(fixedRate = 86400000) // 24 hours in milliseconds
-    public void updateStockPricesDaily() {
-        List<Stock> stocks = stockRepository.findAll();
+
+    // Changes whenever a write may have touched the portfolio's holdings
+    public long getDataVersion(long portfolioId) {
+        AtomicLong version = portfolioVersions.get(portfolioId);
+        return dataVersion.get() + (version != null ? version.get() : 0);
+    }
+
+    private static Set<String> tickersOf(List<Stock> stocks) {
+        Set<String> tickers = new LinkedHashSet<>();
         for (Stock stock : stocks) {
-            // Fetch the current stock price
-            Double currentPrice = stockPriceService.getStockPrice(stock.getTicker());
-            if (currentPrice != null) {
-                stock.setCurrentPrice(currentPrice);
-            } else {
-                // If API fails to fetch price, retain the previous price
-                System.err.println("Failed to fetch price for " + stock.getTicker());
-            }
+            tickers.add(stock.getTicker());
         }
-        // Save all the updated stocks to the database
-        stockRepository.saveAll(stocks);
-        System.out.println("Stock prices updated successfully.");
+        return tickers;
     }
 }
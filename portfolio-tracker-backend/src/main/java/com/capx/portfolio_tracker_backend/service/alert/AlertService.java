@@ -0,0 +1,443 @@
+package com.capx.portfolio_tracker_backend.service.alert;
+
+import com.capx.portfolio_tracker_backend.models.AlertNotification;
+import com.capx.portfolio_tracker_backend.models.AlertRule;
+import com.capx.portfolio_tracker_backend.models.AlertRuleType;
+import com.capx.portfolio_tracker_backend.models.Stock;
+import com.capx.portfolio_tracker_backend.repository.AlertRuleRepository;
+import com.capx.portfolio_tracker_backend.repository.StockRepository;
+import com.capx.portfolio_tracker_backend.service.PriceUpdateEvent;
+import com.capx.portfolio_tracker_backend.service.StockService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.PreparedStatement;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Evaluates alert rules as quotes arrive. Price rules sit in a ThresholdIndex per ticker, so a quote
+// costs a map lookup and two binary searches plus the rules it fires, however many rules exist.
+// Portfolio rules are looked up through the tickers their portfolio holds and evaluated on the alert
+// executor, as are persisting and delivering fired alerts, so the quote path never waits on either.
+@Service
+public class AlertService {
+    private static final Logger log = LoggerFactory.getLogger(AlertService.class);
+
+    private static final String SELECT_PRICE_RULES_SQL = "SELECT id, ticker, rule_type, threshold FROM alert_rules "
+            + "WHERE triggered_at IS NULL AND rule_type <> 'PORTFOLIO_CHANGE'";
+    // Rows per round trip for large reads; MySQL Connector/J ignores it unless the URL sets useCursorFetch=true
+    private static final int READ_FETCH_SIZE = 1000;
+    // Rules loaded or marked triggered per statement
+    private static final int BATCH_SIZE = 1000;
+
+    @Autowired
+    private AlertRuleRepository alertRuleRepository;
+
+    @Autowired
+    private StockRepository stockRepository;
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private AlertSink alertSink;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    @Qualifier("alertExecutor")
+    private AsyncTaskExecutor alertExecutor;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Untriggered price rules by ticker
+    private final ConcurrentMap<String, ThresholdIndex> priceRules = new ConcurrentHashMap<>();
+
+    // PORTFOLIO_CHANGE rules by portfolio, and the portfolios holding each ticker
+    private final ConcurrentMap<Long, List<PortfolioRule>> portfolioRules = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, WatchedHoldings> watched = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Set<Long>> watchersByTicker = new ConcurrentHashMap<>();
+
+    // First portfolio value seen on the current UTC day (or since the first rule was created), which the
+    // day's change is measured from
+    private final ConcurrentMap<Long, DayBaseline> baselines = new ConcurrentHashMap<>();
+
+    // Portfolios with an evaluation queued, so a burst of quotes queues each portfolio once
+    private final Set<Long> pendingPortfolios = ConcurrentHashMap.newKeySet();
+
+    private final AtomicLong indexedRules = new AtomicLong();
+
+    private Counter delivered;
+    private Counter failed;
+
+    @PostConstruct
+    public void init() {
+        Gauge.builder("alert.rules.indexed", indexedRules, AtomicLong::get)
+                .description("Untriggered price rules waiting for a quote")
+                .register(meterRegistry);
+        delivered = notificationCounter("delivered");
+        failed = notificationCounter("failed");
+    }
+
+    private Counter notificationCounter(String outcome) {
+        return Counter.builder("alert.notifications")
+                .description("Fired alerts handed to the sink")
+                .tag("sink", alertSink.getName())
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    // Index the stored rules that can still fire
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadRules() {
+        long start = System.currentTimeMillis();
+        PreparedStatementCreator statement = connection -> {
+            PreparedStatement ps = connection.prepareStatement(SELECT_PRICE_RULES_SQL);
+            ps.setFetchSize(READ_FETCH_SIZE);
+            return ps;
+        };
+        long[] loaded = new long[1];
+        jdbcTemplate.query(statement, rs -> {
+            boolean below = isBelow(AlertRuleType.valueOf(rs.getString(3)));
+            priceRules.computeIfAbsent(rs.getString(2), ticker -> new ThresholdIndex())
+                    .append(rs.getLong(1), rs.getDouble(4), below);
+            loaded[0]++;
+        });
+        priceRules.values().forEach(ThresholdIndex::sort);
+        indexedRules.addAndGet(loaded[0]);
+        long today = today();
+        for (AlertRule rule : alertRuleRepository.findByType(AlertRuleType.PORTFOLIO_CHANGE)) {
+            PortfolioRule portfolioRule = new PortfolioRule(rule.getId(), rule.getPercent());
+            if (rule.getTriggeredAt() != null && rule.getTriggeredAt().atOffset(ZoneOffset.UTC).toLocalDate().toEpochDay() == today) {
+                portfolioRule.firedDay.set(today);
+            }
+            portfolioRules.computeIfAbsent(rule.getPortfolioId(), id -> new CopyOnWriteArrayList<>()).add(portfolioRule);
+        }
+        portfolioRules.keySet().forEach(this::watch);
+        log.info("Indexed {} price alert rules and {} portfolios with change rules in {} ms", loaded[0],
+                portfolioRules.size(), System.currentTimeMillis() - start);
+    }
+
+    public AlertRule createRule(long portfolioId, AlertRule rule) {
+        if (rule.getType() == null) {
+            throw new IllegalArgumentException("type is required");
+        }
+        rule.setPortfolioId(portfolioId);
+        switch (rule.getType()) {
+            case PRICE_BELOW, PRICE_ABOVE -> {
+                if (rule.getTicker() == null || rule.getTicker().isBlank()) {
+                    throw new IllegalArgumentException("ticker is required");
+                }
+                if (rule.getThreshold() == null || !(rule.getThreshold() > 0.0) || rule.getThreshold().isInfinite()) {
+                    throw new IllegalArgumentException("threshold must be a positive price");
+                }
+                rule.setTicker(rule.getTicker().trim());
+                rule.setStockId(null);
+                rule.setPercent(null);
+            }
+            case POSITION_DROP -> {
+                checkPercent(rule.getPercent(), 100.0);
+                Optional<Stock> stock = rule.getStockId() != null
+                        ? stockService.getStockById(portfolioId, rule.getStockId()) : Optional.empty();
+                if (stock.isEmpty()) {
+                    throw new IllegalArgumentException("stockId must be a holding of the portfolio");
+                }
+                // Resolved once: later edits to the holding's buy price do not move the threshold
+                rule.setTicker(stock.get().getTicker());
+                rule.setThreshold(stock.get().getBuyPrice() * (1.0 - rule.getPercent() / 100.0));
+            }
+            case PORTFOLIO_CHANGE -> {
+                checkPercent(rule.getPercent(), Double.MAX_VALUE);
+                rule.setTicker(null);
+                rule.setStockId(null);
+                rule.setThreshold(null);
+            }
+        }
+        rule.setCreatedAt(Instant.now());
+        rule.setTriggeredAt(null);
+        rule.setTriggeredValue(null);
+        AlertRule saved = alertRuleRepository.save(rule);
+        index(saved);
+        if (saved.getType() == AlertRuleType.PORTFOLIO_CHANGE) {
+            // A portfolio first watched mid-day measures from now rather than from its next quote
+            double value = stockService.getPortfolioSnapshot(portfolioId).getTotalValue();
+            long today = today();
+            baselines.compute(portfolioId,
+                    (id, current) -> current == null || current.day != today ? new DayBaseline(today, value) : current);
+        }
+        return saved;
+    }
+
+    private static void checkPercent(Double percent, double max) {
+        if (percent == null || !(percent > 0.0) || percent >= max) {
+            throw new IllegalArgumentException("percent must be above 0" + (max < Double.MAX_VALUE ? " and below " + max : ""));
+        }
+    }
+
+    public List<AlertRule> getRules(long portfolioId) {
+        return alertRuleRepository.findByPortfolioIdOrderByIdAsc(portfolioId);
+    }
+
+    public boolean deleteRule(long portfolioId, Long id) {
+        Optional<AlertRule> rule = alertRuleRepository.findById(id)
+                .filter(r -> r.getPortfolioId() == portfolioId);
+        if (rule.isEmpty()) {
+            return false;
+        }
+        unindex(rule.get());
+        alertRuleRepository.deleteById(id);
+        return true;
+    }
+
+    // Remove every rule of the portfolio, e.g. when the portfolio is deleted
+    public int deleteAllRules(long portfolioId) {
+        getRules(portfolioId).forEach(this::unindex);
+        return alertRuleRepository.deleteByPortfolioId(portfolioId);
+    }
+
+    @EventListener
+    public void onPriceUpdate(PriceUpdateEvent event) {
+        ThresholdIndex index = priceRules.get(event.getTicker());
+        if (index != null) {
+            long[] triggered = index.takeTriggered(event.getPrice());
+            if (triggered.length > 0) {
+                indexedRules.addAndGet(-triggered.length);
+                submit(() -> firePriceRules(triggered, event));
+            }
+        }
+        Set<Long> portfolios = watchersByTicker.get(event.getTicker());
+        if (portfolios != null) {
+            for (Long portfolioId : portfolios) {
+                if (pendingPortfolios.add(portfolioId)) {
+                    submit(() -> evaluatePortfolio(portfolioId));
+                }
+            }
+        }
+    }
+
+    // Re-read the tickers of portfolios with change rules whose holdings were edited
+    @Scheduled(fixedDelayString = "${alert.portfolio.refresh-interval-ms:60000}")
+    public void refreshWatchedHoldings() {
+        for (Long portfolioId : portfolioRules.keySet()) {
+            WatchedHoldings holdings = watched.get(portfolioId);
+            if (holdings == null || holdings.dataVersion != stockService.getDataVersion(portfolioId)) {
+                watch(portfolioId);
+            }
+        }
+    }
+
+    private void submit(Runnable task) {
+        try {
+            alertExecutor.execute(task);
+        } catch (RuntimeException e) {
+            log.warn("Could not queue alert evaluation", e);
+        }
+    }
+
+    private void firePriceRules(long[] ids, PriceUpdateEvent event) {
+        for (int from = 0; from < ids.length; from += BATCH_SIZE) {
+            List<Long> batch = new ArrayList<>(Math.min(BATCH_SIZE, ids.length - from));
+            for (int i = from; i < Math.min(ids.length, from + BATCH_SIZE); i++) {
+                batch.add(ids[i]);
+            }
+            try {
+                List<AlertRule> rules = alertRuleRepository.findAllById(batch);
+                alertRuleRepository.markTriggered(batch, event.getFetchedAt(), event.getPrice());
+                for (AlertRule rule : rules) {
+                    deliver(new AlertNotification(rule.getId(), rule.getPortfolioId(), rule.getType(), rule.getTicker(),
+                            event.getPrice(), priceMessage(rule, event.getPrice()), event.getFetchedAt()));
+                }
+            } catch (RuntimeException e) {
+                log.error("Failed to record {} alerts fired by {}", batch.size(), event.getTicker(), e);
+            }
+        }
+    }
+
+    private void evaluatePortfolio(long portfolioId) {
+        pendingPortfolios.remove(portfolioId);
+        List<PortfolioRule> rules = portfolioRules.get(portfolioId);
+        if (rules == null || rules.isEmpty()) {
+            return;
+        }
+        try {
+            double value = stockService.getPortfolioSnapshot(portfolioId).getTotalValue();
+            long today = today();
+            DayBaseline baseline = baselines.compute(portfolioId,
+                    (id, current) -> current == null || current.day != today ? new DayBaseline(today, value) : current);
+            if (!(baseline.value > 0.0)) {
+                return;
+            }
+            double change = (value - baseline.value) / baseline.value * 100.0;
+            Instant now = Instant.now();
+            for (PortfolioRule rule : rules) {
+                long firedDay = rule.firedDay.get();
+                if (Math.abs(change) >= rule.percent && firedDay != today && rule.firedDay.compareAndSet(firedDay, today)) {
+                    alertRuleRepository.markTriggered(List.of(rule.id), now, change);
+                    deliver(new AlertNotification(rule.id, portfolioId, AlertRuleType.PORTFOLIO_CHANGE, null, change,
+                            String.format("Portfolio value changed %+.2f%% today (alert at %.2f%%)", change, rule.percent),
+                            now));
+                }
+            }
+        } catch (RuntimeException e) {
+            log.error("Failed to evaluate alert rules of portfolio {}", portfolioId, e);
+        }
+    }
+
+    private void deliver(AlertNotification notification) {
+        try {
+            alertSink.deliver(notification);
+            delivered.increment();
+        } catch (Exception e) {
+            failed.increment();
+            log.warn("Failed to deliver alert {} to the {} sink", notification.getRuleId(), alertSink.getName(), e);
+        }
+    }
+
+    private static String priceMessage(AlertRule rule, double price) {
+        return switch (rule.getType()) {
+            case PRICE_BELOW -> String.format("%s at %.2f is below %.2f", rule.getTicker(), price, rule.getThreshold());
+            case PRICE_ABOVE -> String.format("%s at %.2f is above %.2f", rule.getTicker(), price, rule.getThreshold());
+            default -> String.format("%s at %.2f is down more than %.2f%% from its buy price", rule.getTicker(), price,
+                    rule.getPercent());
+        };
+    }
+
+    private void index(AlertRule rule) {
+        if (rule.getType() == AlertRuleType.PORTFOLIO_CHANGE) {
+            portfolioRules.computeIfAbsent(rule.getPortfolioId(), id -> new CopyOnWriteArrayList<>())
+                    .add(new PortfolioRule(rule.getId(), rule.getPercent()));
+            watch(rule.getPortfolioId());
+        } else {
+            priceRules.computeIfAbsent(rule.getTicker(), ticker -> new ThresholdIndex())
+                    .add(rule.getId(), rule.getThreshold(), isBelow(rule.getType()));
+            indexedRules.incrementAndGet();
+        }
+    }
+
+    private void unindex(AlertRule rule) {
+        if (rule.getType() == AlertRuleType.PORTFOLIO_CHANGE) {
+            List<PortfolioRule> rules = portfolioRules.get(rule.getPortfolioId());
+            if (rules != null) {
+                rules.removeIf(r -> r.id == rule.getId());
+                if (rules.isEmpty() && portfolioRules.remove(rule.getPortfolioId(), rules)) {
+                    unwatch(rule.getPortfolioId());
+                }
+            }
+        } else if (rule.getTriggeredAt() == null) {
+            ThresholdIndex index = priceRules.get(rule.getTicker());
+            if (index != null && index.remove(rule.getId(), rule.getThreshold(), isBelow(rule.getType()))) {
+                indexedRules.decrementAndGet();
+            }
+        }
+    }
+
+    // Point each ticker the portfolio holds at it, and drop tickers it no longer holds
+    private synchronized void watch(long portfolioId) {
+        long dataVersion = stockService.getDataVersion(portfolioId);
+        Set<String> tickers = new HashSet<>();
+        for (Stock stock : stockRepository.findByPortfolioId(portfolioId)) {
+            tickers.add(stock.getTicker());
+        }
+        WatchedHoldings previous = watched.put(portfolioId, new WatchedHoldings(tickers, dataVersion));
+        if (previous != null) {
+            for (String ticker : previous.tickers) {
+                if (!tickers.contains(ticker)) {
+                    removeWatcher(ticker, portfolioId);
+                }
+            }
+        }
+        for (String ticker : tickers) {
+            watchersByTicker.compute(ticker, (t, portfolios) -> {
+                Set<Long> watchers = portfolios != null ? portfolios : ConcurrentHashMap.newKeySet();
+                watchers.add(portfolioId);
+                return watchers;
+            });
+        }
+    }
+
+    private synchronized void unwatch(long portfolioId) {
+        WatchedHoldings previous = watched.remove(portfolioId);
+        if (previous != null) {
+            previous.tickers.forEach(ticker -> removeWatcher(ticker, portfolioId));
+        }
+        baselines.remove(portfolioId);
+    }
+
+    private void removeWatcher(String ticker, long portfolioId) {
+        watchersByTicker.computeIfPresent(ticker, (t, portfolios) -> {
+            portfolios.remove(portfolioId);
+            return portfolios.isEmpty() ? null : portfolios;
+        });
+    }
+
+    private static boolean isBelow(AlertRuleType type) {
+        return type != AlertRuleType.PRICE_ABOVE;
+    }
+
+    private static long today() {
+        return LocalDate.now(ZoneOffset.UTC).toEpochDay();
+    }
+
+    // Number of untriggered price rules in the index
+    public long getIndexedRuleCount() {
+        return indexedRules.get();
+    }
+
+    private static final class PortfolioRule {
+        private final long id;
+        private final double percent;
+        // UTC epoch day the rule last fired
+        private final AtomicLong firedDay = new AtomicLong(Long.MIN_VALUE);
+
+        private PortfolioRule(long id, double percent) {
+            this.id = id;
+            this.percent = percent;
+        }
+    }
+
+    private static final class WatchedHoldings {
+        private final Set<String> tickers;
+        // StockService data version the tickers were read at
+        private final long dataVersion;
+
+        private WatchedHoldings(Set<String> tickers, long dataVersion) {
+            this.tickers = tickers;
+            this.dataVersion = dataVersion;
+        }
+    }
+
+    private static final class DayBaseline {
+        private final long day;
+        private final double value;
+
+        private DayBaseline(long day, double value) {
+            this.day = day;
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.capx.portfolio_tracker_backend.service.alert;
+
+import com.capx.portfolio_tracker_backend.models.AlertNotification;
+
+import java.io.IOException;
+
+// Where fired alerts are delivered, chosen with alert.sink.
+// Implementations make a single attempt per call; AlertService logs and counts failures.
+public interface AlertSink {
+    String getName();
+
+    void deliver(AlertNotification notification) throws IOException;
+}
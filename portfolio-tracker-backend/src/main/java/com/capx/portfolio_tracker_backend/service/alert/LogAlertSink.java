@@ -0,0 +1,25 @@
+package com.capx.portfolio_tracker_backend.service.alert;
+
+import com.capx.portfolio_tracker_backend.models.AlertNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+// Writes each alert to the application log (alert.sink=log, the default)
+@Component
+@ConditionalOnProperty(name = "alert.sink", havingValue = "log", matchIfMissing = true)
+public class LogAlertSink implements AlertSink {
+    private static final Logger log = LoggerFactory.getLogger(LogAlertSink.class);
+
+    @Override
+    public String getName() {
+        return "log";
+    }
+
+    @Override
+    public void deliver(AlertNotification notification) {
+        log.info("Alert {} for portfolio {}: {}", notification.getRuleId(), notification.getPortfolioId(),
+                notification.getMessage());
+    }
+}
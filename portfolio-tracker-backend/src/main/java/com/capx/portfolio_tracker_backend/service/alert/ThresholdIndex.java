@@ -0,0 +1,165 @@
+package com.capx.portfolio_tracker_backend.service.alert;
+
+import java.util.Arrays;
+
+// Untriggered price rules of one ticker, as two runs of parallel primitive arrays sorted by key:
+// below-rules keyed by threshold and above-rules by -threshold. A below-rule is satisfied when its key
+// is greater than the price and an above-rule when its key is greater than -price, so on both sides
+// the satisfied rules form a suffix. Finding them is a binary search and removing them a truncation,
+// however many rules the ticker has.
+final class ThresholdIndex {
+    private final Side below = new Side();
+    private final Side above = new Side();
+
+    synchronized void add(long ruleId, double threshold, boolean isBelow) {
+        side(isBelow).insert(key(threshold, isBelow), ruleId);
+    }
+
+    // For bulk loading: add in any order, then call sort() once
+    synchronized void append(long ruleId, double threshold, boolean isBelow) {
+        side(isBelow).append(key(threshold, isBelow), ruleId);
+    }
+
+    synchronized void sort() {
+        below.sort();
+        above.sort();
+    }
+
+    synchronized boolean remove(long ruleId, double threshold, boolean isBelow) {
+        return side(isBelow).remove(key(threshold, isBelow), ruleId);
+    }
+
+    // Ids of every rule the price satisfies (below: price < threshold, above: price > threshold),
+    // removed from the index
+    synchronized long[] takeTriggered(double price) {
+        long[] fromBelow = below.takeGreaterThan(price);
+        long[] fromAbove = above.takeGreaterThan(-price);
+        if (fromAbove.length == 0) {
+            return fromBelow;
+        }
+        if (fromBelow.length == 0) {
+            return fromAbove;
+        }
+        long[] triggered = Arrays.copyOf(fromBelow, fromBelow.length + fromAbove.length);
+        System.arraycopy(fromAbove, 0, triggered, fromBelow.length, fromAbove.length);
+        return triggered;
+    }
+
+    synchronized int size() {
+        return below.size + above.size;
+    }
+
+    private Side side(boolean isBelow) {
+        return isBelow ? below : above;
+    }
+
+    private static double key(double threshold, boolean isBelow) {
+        return isBelow ? threshold : -threshold;
+    }
+
+    private static final class Side {
+        private static final long[] NONE = new long[0];
+        private static final int MIN_CAPACITY = 4;
+
+        private double[] keys = new double[MIN_CAPACITY];
+        private long[] ids = new long[MIN_CAPACITY];
+        private int size;
+
+        // After any equal keys, so rules with the same threshold stay in insertion order
+        void insert(double key, long id) {
+            int at = firstGreaterThan(key);
+            ensureCapacity();
+            System.arraycopy(keys, at, keys, at + 1, size - at);
+            System.arraycopy(ids, at, ids, at + 1, size - at);
+            keys[at] = key;
+            ids[at] = id;
+            size++;
+        }
+
+        void append(double key, long id) {
+            ensureCapacity();
+            keys[size] = key;
+            ids[size] = id;
+            size++;
+        }
+
+        void sort() {
+            Integer[] order = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> Double.compare(keys[a], keys[b]));
+            double[] sortedKeys = new double[keys.length];
+            long[] sortedIds = new long[ids.length];
+            for (int i = 0; i < size; i++) {
+                sortedKeys[i] = keys[order[i]];
+                sortedIds[i] = ids[order[i]];
+            }
+            keys = sortedKeys;
+            ids = sortedIds;
+        }
+
+        boolean remove(double key, long id) {
+            for (int i = firstAtLeast(key); i < size && keys[i] == key; i++) {
+                if (ids[i] == id) {
+                    System.arraycopy(keys, i + 1, keys, i, size - i - 1);
+                    System.arraycopy(ids, i + 1, ids, i, size - i - 1);
+                    size--;
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        long[] takeGreaterThan(double bound) {
+            int from = firstGreaterThan(bound);
+            if (from == size) {
+                return NONE;
+            }
+            long[] taken = Arrays.copyOfRange(ids, from, size);
+            size = from;
+            // Give back memory after a large batch fires
+            if (keys.length > MIN_CAPACITY && size < keys.length / 4) {
+                int capacity = Math.max(MIN_CAPACITY, size * 2);
+                keys = Arrays.copyOf(keys, capacity);
+                ids = Arrays.copyOf(ids, capacity);
+            }
+            return taken;
+        }
+
+        private int firstGreaterThan(double bound) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (keys[mid] <= bound) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        private int firstAtLeast(double bound) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (keys[mid] < bound) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        private void ensureCapacity() {
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.capx.portfolio_tracker_backend.service.alert;
+
+import com.capx.portfolio_tracker_backend.models.AlertNotification;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+// POSTs each alert as JSON to alert.webhook.url (alert.sink=webhook); any 2xx response counts as delivered
+@Component
+@ConditionalOnProperty(name = "alert.sink", havingValue = "webhook")
+public class WebhookAlertSink implements AlertSink {
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final URI url;
+    private final Duration readTimeout;
+
+    public WebhookAlertSink(HttpClient quoteHttpClient,
+                            ObjectMapper objectMapper,
+                            @Value("${alert.webhook.url}") String url,
+                            @Value("${alert.webhook.read-timeout-ms:5000}") long readTimeoutMs) {
+        this.httpClient = quoteHttpClient;
+        this.objectMapper = objectMapper;
+        this.url = URI.create(url);
+        this.readTimeout = Duration.ofMillis(readTimeoutMs);
+    }
+
+    @Override
+    public String getName() {
+        return "webhook";
+    }
+
+    @Override
+    public void deliver(AlertNotification notification) throws IOException {
+        HttpRequest request = HttpRequest.newBuilder(url)
+                .timeout(readTimeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(notification)))
+                .build();
+        HttpResponse<Void> response;
+        try {
+            response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while delivering alert " + notification.getRuleId());
+        }
+        if (response.statusCode() / 100 != 2) {
+            throw new IOException("Alert webhook returned HTTP " + response.statusCode());
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.capx.portfolio_tracker_backend.service.fx;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+// European Central Bank reference rates through the keyless Frankfurter API (published once per working day)
+@Component
+@ConditionalOnProperty(name = "fx.provider", havingValue = "frankfurter", matchIfMissing = true)
+public class FrankfurterFxRateProvider implements FxRateProvider {
+    private final HttpClient httpClient;
+    private final JsonFactory jsonFactory;
+    private final String apiUrl;
+    private final Duration readTimeout;
+
+    public FrankfurterFxRateProvider(HttpClient quoteHttpClient,
+                                     JsonFactory quoteJsonFactory,
+                                     @Value("${fx.frankfurter.url:https://api.frankfurter.app/latest}") String apiUrl,
+                                     @Value("${quote.http.read-timeout-ms:5000}") long readTimeoutMs) {
+        this.httpClient = quoteHttpClient;
+        this.jsonFactory = quoteJsonFactory;
+        this.apiUrl = apiUrl;
+        this.readTimeout = Duration.ofMillis(readTimeoutMs);
+    }
+
+    @Override
+    public String getName() {
+        return "frankfurter";
+    }
+
+    @Override
+    public Map<String, Double> fetchRates(String base) throws IOException {
+        URI uri = UriComponentsBuilder.fromUriString(apiUrl)
+                .queryParam("from", base)
+                .encode()
+                .build()
+                .toUri();
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .timeout(readTimeout)
+                .header("Accept", "application/json")
+                .GET()
+                .build();
+        HttpResponse<InputStream> response;
+        try {
+            response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while fetching FX rates");
+        }
+        try (InputStream body = response.body(); JsonParser parser = jsonFactory.createParser(body)) {
+            if (response.statusCode() != 200) {
+                throw new IOException("FX rate request failed with HTTP " + response.statusCode());
+            }
+            if (parser.nextToken() == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.currentName();
+                    JsonToken value = parser.nextToken();
+                    if ("rates".equals(field) && value == JsonToken.START_OBJECT) {
+                        Map<String, Double> rates = new HashMap<>();
+                        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                            String currency = parser.currentName();
+                            parser.nextToken();
+                            rates.put(currency, parser.getValueAsDouble());
+                        }
+                        rates.put(base, 1.0);
+                        return rates;
+                    }
+                    parser.skipChildren();
+                }
+            }
+        }
+        throw new IOException("No rates returned for " + base);
+    }
+}
@@ -0,0 +1,13 @@
+package com.capx.portfolio_tracker_backend.service.fx;
+
+import java.io.IOException;
+import java.util.Map;
+
+// Source of exchange rates used by FxRateService.
+// Implementations make a single attempt per call; the service keeps the last good table on failure.
+public interface FxRateProvider {
+    String getName();
+
+    // Units of each currency per one unit of base, keyed by ISO 4217 code
+    Map<String, Double> fetchRates(String base) throws IOException;
+}
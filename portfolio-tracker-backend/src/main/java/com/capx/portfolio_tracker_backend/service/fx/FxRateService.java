@@ -0,0 +1,79 @@
+package com.capx.portfolio_tracker_backend.service.fx;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+// Cached exchange rate table, refreshed from the configured FxRateProvider on its own schedule.
+// Starts from fx.fallback-rates so conversions work before (or without) the first successful fetch.
+@Service
+public class FxRateService {
+    private static final Logger log = LoggerFactory.getLogger(FxRateService.class);
+
+    @Autowired
+    private FxRateProvider fxRateProvider;
+
+    @Value("${fx.base-currency:USD}")
+    private String baseCurrency;
+
+    // Used until the provider answers, in fx.stub.rates format, quoted against fx.base-currency
+    @Value("${fx.fallback-rates:INR=85.76}")
+    private String fallbackRates;
+
+    // Reporting currency of portfolios that have not chosen one
+    @Value("${fx.default-reporting-currency:INR}")
+    private String defaultReportingCurrency;
+
+    private volatile FxRates rates;
+
+    @PostConstruct
+    public void init() {
+        Map<String, Double> fallback = new HashMap<>();
+        for (String entry : fallbackRates.split(",")) {
+            String[] parts = entry.split("=");
+            if (parts.length == 2) {
+                fallback.put(parts[0].trim(), Double.parseDouble(parts[1].trim()));
+            }
+        }
+        rates = new FxRates(baseCurrency, fallback, 0, Instant.EPOCH);
+    }
+
+    @Scheduled(initialDelayString = "${fx.refresh.initial-delay-ms:0}",
+            fixedDelayString = "${fx.refresh.interval-ms:3600000}")
+    public void refresh() {
+        Map<String, Double> fetched;
+        try {
+            fetched = fxRateProvider.fetchRates(baseCurrency);
+        } catch (Exception e) {
+            log.warn("FX rate refresh from {} failed: {}", fxRateProvider.getName(), e.getMessage());
+            return;
+        }
+        FxRates current = rates;
+        // Keep currencies the provider no longer lists rather than breaking conversions for them
+        Map<String, Double> merged = new HashMap<>(current.getRates());
+        merged.putAll(fetched);
+        long version = merged.equals(current.getRates()) ? current.getVersion() : current.getVersion() + 1;
+        rates = new FxRates(baseCurrency, merged, version, Instant.now());
+    }
+
+    public FxRates getRates() {
+        return rates;
+    }
+
+    // Bumped whenever a rate changes, so results converted with the old table can be recomputed
+    public long getVersion() {
+        return rates.getVersion();
+    }
+
+    public String getDefaultReportingCurrency() {
+        return defaultReportingCurrency;
+    }
+}
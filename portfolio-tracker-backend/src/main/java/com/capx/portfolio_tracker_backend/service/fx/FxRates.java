@@ -0,0 +1,84 @@
+package com.capx.portfolio_tracker_backend.service.fx;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+// Immutable exchange rate table quoted against one base currency. A new table replaces the old one
+// on each refresh that changes a rate, so readers never see a half-updated set.
+public final class FxRates {
+    private final String base;
+    private final Map<String, Double> rates;
+    private final long version;
+    private final Instant fetchedAt;
+
+    FxRates(String base, Map<String, Double> rates, long version, Instant fetchedAt) {
+        Map<String, Double> copy = new HashMap<>(rates);
+        copy.put(base, 1.0);
+        this.base = base;
+        this.rates = Collections.unmodifiableMap(copy);
+        this.version = version;
+        this.fetchedAt = fetchedAt;
+    }
+
+    // Units of `to` per unit of `from`, or null if either currency is unknown
+    public Double rate(String from, String to) {
+        if (from.equals(to)) {
+            return 1.0;
+        }
+        Double fromRate = rates.get(from);
+        Double toRate = rates.get(to);
+        return fromRate != null && toRate != null ? toRate / fromRate : null;
+    }
+
+    // Conversion table into one currency, meant to live for a single computation
+    public Conversion to(String currency) {
+        return new Conversion(currency);
+    }
+
+    public boolean supports(String currency) {
+        return rates.containsKey(currency);
+    }
+
+    public String getBase() {
+        return base;
+    }
+
+    public Map<String, Double> getRates() {
+        return rates;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public Instant getFetchedAt() {
+        return fetchedAt;
+    }
+
+    // Resolves each source currency's factor once; every later amount is a map hit and a multiply
+    public final class Conversion {
+        private final String target;
+        private final Map<String, Double> factors = new HashMap<>();
+
+        private Conversion(String target) {
+            this.target = target;
+        }
+
+        // Factor from the currency into the target, NaN if no rate is known
+        public double factor(String currency) {
+            Double factor = factors.get(currency);
+            if (factor == null) {
+                Double rate = rate(currency, target);
+                factor = rate != null ? rate : Double.NaN;
+                factors.put(currency, factor);
+            }
+            return factor;
+        }
+
+        public String getTarget() {
+            return target;
+        }
+    }
+}
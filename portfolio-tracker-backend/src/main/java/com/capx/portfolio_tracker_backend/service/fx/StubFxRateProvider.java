@@ -0,0 +1,60 @@
+package com.capx.portfolio_tracker_backend.service.fx;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Offline rate provider for local runs and tests (fx.provider=stub).
+// Rates come from fx.stub.rates ("INR=85.76,EUR=0.92"), quoted against USD.
+@Component
+@ConditionalOnProperty(name = "fx.provider", havingValue = "stub")
+public class StubFxRateProvider implements FxRateProvider {
+    private static final String QUOTE_BASE = "USD";
+
+    private final Map<String, Double> usdRates = new ConcurrentHashMap<>();
+    private final AtomicInteger requestCount = new AtomicInteger();
+
+    @Value("${fx.stub.rates:INR=85.76,EUR=0.92,GBP=0.79,JPY=150.2}")
+    public void setConfiguredRates(String configuredRates) {
+        for (String entry : configuredRates.split(",")) {
+            String[] parts = entry.split("=");
+            if (parts.length == 2) {
+                usdRates.put(parts[0].trim(), Double.parseDouble(parts[1].trim()));
+            }
+        }
+        usdRates.put(QUOTE_BASE, 1.0);
+    }
+
+    @Override
+    public String getName() {
+        return "stub";
+    }
+
+    @Override
+    public Map<String, Double> fetchRates(String base) {
+        requestCount.incrementAndGet();
+        Double baseRate = usdRates.get(base);
+        if (baseRate == null) {
+            throw new IllegalArgumentException("No stub rate for " + base);
+        }
+        Map<String, Double> rates = new HashMap<>();
+        for (Map.Entry<String, Double> entry : usdRates.entrySet()) {
+            rates.put(entry.getKey(), entry.getValue() / baseRate);
+        }
+        return rates;
+    }
+
+    // Units of the currency per USD
+    public void setRate(String currency, double usdRate) {
+        usdRates.put(currency, usdRate);
+    }
+
+    public int getRequestCount() {
+        return requestCount.get();
+    }
+}
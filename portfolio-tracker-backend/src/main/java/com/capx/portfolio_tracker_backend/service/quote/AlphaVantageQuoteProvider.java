@@ -0,0 +1,214 @@
+package com.capx.portfolio_tracker_backend.service.quote;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Component
+@ConditionalOnExpression("'${quote.provider:alphavantage}' == 'alphavantage' or '${quote.resilience.secondary-provider:}' == 'alphavantage'")
+public class AlphaVantageQuoteProvider implements QuoteProvider {
+    private static final int BULK_QUOTE_LIMIT = 100; // Max symbols per REALTIME_BULK_QUOTES call
+    // Rate-limit notes: "Note" for the per-minute limit, "Information" for the daily one
+    private static final Set<String> THROTTLE_FIELDS = Set.of("Note", "Information");
+    private static final String ERROR_FIELD = "Error Message";
+
+    private final HttpClient httpClient;
+    private final JsonFactory jsonFactory;
+    private final String apiKey;
+    private final String apiUrl;
+    // REALTIME_BULK_QUOTES is a premium endpoint, so it is only used when explicitly enabled
+    private final boolean bulkEnabled;
+    private final Duration readTimeout;
+
+    public AlphaVantageQuoteProvider(HttpClient quoteHttpClient,
+                                     JsonFactory quoteJsonFactory,
+                                     @Value("${alphavantage.api.key}") String apiKey,
+                                     @Value("${alphavantage.api.url:https://www.alphavantage.co/query}") String apiUrl,
+                                     @Value("${alphavantage.bulk.enabled:false}") boolean bulkEnabled,
+                                     @Value("${quote.http.read-timeout-ms:5000}") long readTimeoutMs) {
+        this.httpClient = quoteHttpClient;
+        this.jsonFactory = quoteJsonFactory;
+        this.apiKey = apiKey;
+        this.apiUrl = apiUrl;
+        this.bulkEnabled = bulkEnabled;
+        this.readTimeout = Duration.ofMillis(readTimeoutMs);
+    }
+
+    @Override
+    public String getName() {
+        return "alphavantage";
+    }
+
+    @Override
+    public Double fetchQuote(String ticker) throws IOException {
+        URI uri = UriComponentsBuilder.fromUriString(apiUrl)
+                .queryParam("function", "GLOBAL_QUOTE")
+                .queryParam("symbol", ticker)
+                .queryParam("apikey", apiKey)
+                .encode()
+                .build()
+                .toUri();
+
+        // Stream through the response and stop at "05. price" without building a tree
+        String note = null;
+        boolean throttled = false;
+        try (InputStream body = send(uri); JsonParser parser = jsonFactory.createParser(body)) {
+            if (parser.nextToken() == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.currentName();
+                    JsonToken value = parser.nextToken();
+                    if ("Global Quote".equals(field) && value == JsonToken.START_OBJECT) {
+                        double price = readGlobalQuotePrice(parser);
+                        drain(body);
+                        // An empty Global Quote means the symbol is unknown
+                        return Double.isNaN(price) ? null : price;
+                    }
+                    if (isNote(field, value)) {
+                        note = parser.getText();
+                        throttled = THROTTLE_FIELDS.contains(field);
+                    }
+                    parser.skipChildren();
+                }
+            }
+        }
+        // Rate-limit and key errors come back as HTTP 200 with a note instead of a quote
+        throw noQuote("No Global Quote returned for " + ticker, note, throttled);
+    }
+
+    @Override
+    public boolean supportsBulk() {
+        return bulkEnabled;
+    }
+
+    @Override
+    public int maxBatchSize() {
+        return bulkEnabled ? BULK_QUOTE_LIMIT : 1;
+    }
+
+    @Override
+    public Map<String, Double> fetchQuotes(List<String> tickers) throws IOException {
+        URI uri = UriComponentsBuilder.fromUriString(apiUrl)
+                .queryParam("function", "REALTIME_BULK_QUOTES")
+                .queryParam("symbol", String.join(",", tickers))
+                .queryParam("apikey", apiKey)
+                .encode()
+                .build()
+                .toUri();
+
+        String note = null;
+        boolean throttled = false;
+        try (InputStream body = send(uri); JsonParser parser = jsonFactory.createParser(body)) {
+            if (parser.nextToken() == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.currentName();
+                    JsonToken value = parser.nextToken();
+                    if ("data".equals(field) && value == JsonToken.START_ARRAY) {
+                        Map<String, Double> prices = readBulkQuotes(parser);
+                        drain(body);
+                        return prices;
+                    }
+                    if (isNote(field, value)) {
+                        note = parser.getText();
+                        throttled = THROTTLE_FIELDS.contains(field);
+                    }
+                    parser.skipChildren();
+                }
+            }
+        }
+        throw noQuote("No bulk quote data returned for " + tickers, note, throttled);
+    }
+
+    private static boolean isNote(String field, JsonToken value) {
+        return value == JsonToken.VALUE_STRING && (THROTTLE_FIELDS.contains(field) || ERROR_FIELD.equals(field));
+    }
+
+    private static IOException noQuote(String message, String note, boolean throttled) {
+        String detail = note != null ? message + ": " + note : message;
+        return throttled ? new QuoteThrottledException(detail) : new IOException(detail);
+    }
+
+    private InputStream send(URI uri) throws IOException {
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .timeout(readTimeout)
+                .header("Accept", "application/json")
+                .GET()
+                .build();
+        try {
+            HttpResponse<InputStream> response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+            if (response.statusCode() != 200) {
+                response.body().close();
+                if (response.statusCode() == 429) {
+                    throw new QuoteThrottledException("Quote request throttled with HTTP 429");
+                }
+                throw new IOException("Quote request failed with HTTP " + response.statusCode());
+            }
+            return response.body();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while fetching quote");
+        }
+    }
+
+    // The connection only goes back to the pool once the body has been read to the end
+    private static void drain(InputStream body) throws IOException {
+        body.transferTo(OutputStream.nullOutputStream());
+    }
+
+    // Parser is positioned on the "Global Quote" object; NaN if it has no price. Package-private for the
+    // quote parsing benchmark.
+    static double readGlobalQuotePrice(JsonParser parser) throws IOException {
+        double price = Double.NaN;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            if ("05. price".equals(field)) {
+                price = parser.getValueAsDouble(Double.NaN);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return price;
+    }
+
+    // Parser is positioned on the "data" array of {"symbol": ..., "close": ...} objects
+    static Map<String, Double> readBulkQuotes(JsonParser parser) throws IOException {
+        Map<String, Double> prices = new HashMap<>();
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            String symbol = null;
+            Double close = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("symbol".equals(field)) {
+                    symbol = parser.getValueAsString();
+                } else if ("close".equals(field) && value != JsonToken.VALUE_NULL) {
+                    close = parser.getValueAsDouble();
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            if (symbol != null && close != null) {
+                prices.put(symbol, close);
+            }
+        }
+        return prices;
+    }
+}
@@ -0,0 +1,100 @@
+package com.capx.portfolio_tracker_backend.service.quote;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+// Consecutive-failure circuit breaker for one quote provider. After failureThreshold failed calls in a
+// row the circuit opens and calls are refused without touching the provider; once openMillis have
+// passed a single trial call is let through (half-open), which closes the circuit on success and
+// opens it again on failure.
+public class CircuitBreaker {
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openNanos;
+    private final LongSupplier nanoClock;
+
+    // Guarded by this
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean trialInFlight;
+    private long opened;
+    private long rejected;
+
+    public CircuitBreaker(int failureThreshold, long openMillis) {
+        this(failureThreshold, openMillis, System::nanoTime);
+    }
+
+    CircuitBreaker(int failureThreshold, long openMillis, LongSupplier nanoClock) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMillis);
+        this.nanoClock = nanoClock;
+    }
+
+    // Whether a call may be made now. A true result must be followed by onSuccess, onFailure or release.
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN && nanoClock.getAsLong() - openedAt >= openNanos) {
+            state = State.HALF_OPEN;
+        }
+        if (state == State.CLOSED) {
+            return true;
+        }
+        if (state == State.HALF_OPEN && !trialInFlight) {
+            trialInFlight = true;
+            return true;
+        }
+        rejected++;
+        return false;
+    }
+
+    public synchronized void onSuccess() {
+        consecutiveFailures = 0;
+        trialInFlight = false;
+        state = State.CLOSED;
+    }
+
+    public synchronized void onFailure() {
+        trialInFlight = false;
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+            state = State.OPEN;
+            openedAt = nanoClock.getAsLong();
+            opened++;
+        }
+    }
+
+    // Open the circuit now, whatever the failure count (e.g. the provider says its quota is used up)
+    public synchronized void trip() {
+        trialInFlight = false;
+        if (state != State.OPEN) {
+            state = State.OPEN;
+            opened++;
+        }
+        openedAt = nanoClock.getAsLong();
+    }
+
+    // The permitted call was not made or says nothing about the provider's health (e.g. it was cancelled)
+    public synchronized void release() {
+        trialInFlight = false;
+    }
+
+    public synchronized State getState() {
+        if (state == State.OPEN && nanoClock.getAsLong() - openedAt >= openNanos) {
+            return State.HALF_OPEN;
+        }
+        return state;
+    }
+
+    // Times the circuit has opened
+    public synchronized long getOpenedCount() {
+        return opened;
+    }
+
+    // Calls refused while the circuit was open
+    public synchronized long getRejectedCount() {
+        return rejected;
+    }
+}
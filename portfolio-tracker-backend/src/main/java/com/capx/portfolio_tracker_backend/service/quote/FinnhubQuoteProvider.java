@@ -0,0 +1,110 @@
+package com.capx.portfolio_tracker_backend.service.quote;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+// Finnhub /quote endpoint (quote.provider=finnhub, or as the secondary provider). Single quotes only;
+// the free tier allows 60 calls a minute.
+@Component
+@ConditionalOnExpression("'${quote.provider:alphavantage}' == 'finnhub' or '${quote.resilience.secondary-provider:}' == 'finnhub'")
+public class FinnhubQuoteProvider implements QuoteProvider {
+    private final HttpClient httpClient;
+    private final JsonFactory jsonFactory;
+    private final String apiKey;
+    private final String apiUrl;
+    private final Duration readTimeout;
+
+    public FinnhubQuoteProvider(HttpClient quoteHttpClient,
+                                JsonFactory quoteJsonFactory,
+                                @Value("${finnhub.api.key}") String apiKey,
+                                @Value("${finnhub.api.url:https://finnhub.io/api/v1}") String apiUrl,
+                                @Value("${quote.http.read-timeout-ms:5000}") long readTimeoutMs) {
+        this.httpClient = quoteHttpClient;
+        this.jsonFactory = quoteJsonFactory;
+        this.apiKey = apiKey;
+        this.apiUrl = apiUrl;
+        this.readTimeout = Duration.ofMillis(readTimeoutMs);
+    }
+
+    @Override
+    public String getName() {
+        return "finnhub";
+    }
+
+    @Override
+    public Double fetchQuote(String ticker) throws IOException {
+        URI uri = UriComponentsBuilder.fromUriString(apiUrl)
+                .path("/quote")
+                .queryParam("symbol", ticker)
+                .queryParam("token", apiKey)
+                .encode()
+                .build()
+                .toUri();
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .timeout(readTimeout)
+                .header("Accept", "application/json")
+                .GET()
+                .build();
+        HttpResponse<InputStream> response;
+        try {
+            response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while fetching quote");
+        }
+        try (InputStream body = response.body()) {
+            if (response.statusCode() == 429) {
+                throw new QuoteThrottledException("Quote request throttled with HTTP 429");
+            }
+            if (response.statusCode() != 200) {
+                throw new IOException("Quote request failed with HTTP " + response.statusCode());
+            }
+            Double price;
+            try (JsonParser parser = jsonFactory.createParser(body)) {
+                price = readQuote(parser);
+            }
+            // The connection only goes back to the pool once the body has been read to the end
+            body.transferTo(OutputStream.nullOutputStream());
+            return price;
+        }
+    }
+
+    // Current price ("c") of a quote object. Unknown symbols come back with every field 0, including
+    // the timestamp ("t"), which is reported as no quote.
+    static Double readQuote(JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new IOException("Unexpected quote response");
+        }
+        double current = Double.NaN;
+        long time = 0;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("c".equals(field) && value != JsonToken.VALUE_NULL) {
+                current = parser.getValueAsDouble(Double.NaN);
+            } else if ("t".equals(field) && value != JsonToken.VALUE_NULL) {
+                time = parser.getValueAsLong(0);
+            } else if ("error".equals(field)) {
+                throw new IOException("Finnhub error: " + parser.getValueAsString());
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return Double.isNaN(current) || time == 0 ? null : current;
+    }
+}
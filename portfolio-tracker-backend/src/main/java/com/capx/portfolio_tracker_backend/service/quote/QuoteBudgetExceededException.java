@@ -0,0 +1,8 @@
+package com.capx.portfolio_tracker_backend.service.quote;
+
+// Thrown when an upstream quote call cannot be admitted within the configured budgets
+public class QuoteBudgetExceededException extends RuntimeException {
+    public QuoteBudgetExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,9 @@
+package com.capx.portfolio_tracker_backend.service.quote;
+
+// Order in which queued upstream quote requests are admitted by QuoteRateLimiter
+public enum QuotePriority {
+    // A user is waiting on the response (endpoint lookups)
+    INTERACTIVE,
+    // Scheduled refreshes and background revalidation
+    BULK
+}
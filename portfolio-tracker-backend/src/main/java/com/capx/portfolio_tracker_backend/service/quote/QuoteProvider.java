@@ -0,0 +1,29 @@
+package com.capx.portfolio_tracker_backend.service.quote;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+// Source of raw stock quotes, in each listing's own currency, used by StockPriceService.
+// Implementations make a single attempt per call; retries are handled by the caller.
+public interface QuoteProvider {
+    String getName();
+
+    // Fetch the latest price for one ticker, or null if the provider has no quote for it
+    Double fetchQuote(String ticker) throws IOException;
+
+    // Whether fetchQuotes can resolve several tickers in one upstream request
+    default boolean supportsBulk() {
+        return false;
+    }
+
+    // Largest number of tickers accepted by a single fetchQuotes call
+    default int maxBatchSize() {
+        return 1;
+    }
+
+    // Fetch prices for a group of tickers in one upstream request; tickers without a quote are omitted
+    default Map<String, Double> fetchQuotes(List<String> tickers) throws IOException {
+        throw new UnsupportedOperationException(getName() + " does not support bulk quotes");
+    }
+}
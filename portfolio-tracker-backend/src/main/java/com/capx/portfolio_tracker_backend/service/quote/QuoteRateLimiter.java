@@ -0,0 +1,172 @@
+package com.capx.portfolio_tracker_backend.service.quote;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+// Token bucket in front of every upstream quote call, with a per-minute refill rate and a daily cap
+// (quote.rate-limit.per-day, 0 for none).
+// Waiting callers are admitted strictly by priority, then arrival order, so interactive lookups
+// overtake queued bulk refreshes.
+@Component
+public class QuoteRateLimiter implements MeterBinder {
+    private final int perMinute;
+    private final int perDay;
+    private final long maxWaitNanos;
+    private final double tokensPerNano;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final PriorityQueue<Ticket> waiters = new PriorityQueue<>(
+            Comparator.comparing((Ticket ticket) -> ticket.priority).thenComparingLong(ticket -> ticket.sequence));
+    private long nextSequence;
+    private double tokens;
+    private long lastRefill;
+    private LocalDate budgetDay;
+    private int usedToday;
+
+    // Metrics, guarded by lock
+    private long admitted;
+    private long rejected;
+    private long totalWaitNanos;
+    private long longestWaitNanos;
+
+    public QuoteRateLimiter(@Value("${quote.rate-limit.per-minute:5}") int perMinute,
+                            @Value("${quote.rate-limit.per-day:25}") int perDay,
+                            @Value("${quote.rate-limit.max-wait-ms:30000}") long maxWaitMs) {
+        this.perMinute = perMinute;
+        this.perDay = perDay;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+        this.tokensPerNano = perMinute / (double) TimeUnit.MINUTES.toNanos(1);
+        this.tokens = perMinute;
+        this.lastRefill = System.nanoTime();
+        this.budgetDay = LocalDate.now(ZoneOffset.UTC);
+    }
+
+    // Block until a request may be sent. Throws QuoteBudgetExceededException when the daily budget
+    // is spent or the wait would exceed quote.rate-limit.max-wait-ms.
+    public void acquire(QuotePriority priority) throws InterruptedException {
+        long start = System.nanoTime();
+        long deadline = start + maxWaitNanos;
+        lock.lock();
+        Ticket ticket = new Ticket(priority, nextSequence++);
+        waiters.add(ticket);
+        try {
+            while (true) {
+                long now = System.nanoTime();
+                if (waiters.peek() == ticket) {
+                    refill(now);
+                    if (perDay > 0 && usedToday >= perDay) {
+                        rejected++;
+                        throw new QuoteBudgetExceededException("Daily quote budget of " + perDay + " calls is spent");
+                    }
+                    if (tokens >= 1.0) {
+                        tokens -= 1.0;
+                        usedToday++;
+                        recordWait(now - start);
+                        return;
+                    }
+                }
+                long remaining = deadline - now;
+                if (remaining <= 0) {
+                    rejected++;
+                    throw new QuoteBudgetExceededException("Timed out waiting for a quote rate-limit permit");
+                }
+                long untilToken = waiters.peek() == ticket
+                        ? (long) Math.ceil((1.0 - tokens) / tokensPerNano)
+                        : remaining;
+                changed.awaitNanos(Math.min(remaining, Math.max(1, untilToken)));
+            }
+        } finally {
+            waiters.remove(ticket);
+            changed.signalAll();
+            lock.unlock();
+        }
+    }
+
+    public Map<String, Long> getStats() {
+        lock.lock();
+        try {
+            refill(System.nanoTime());
+            Map<String, Long> stats = new LinkedHashMap<>();
+            stats.put("rateLimitQueueDepth", (long) waiters.size());
+            stats.put("rateLimitAdmitted", admitted);
+            stats.put("rateLimitRejected", rejected);
+            stats.put("rateLimitAvgWaitMs", admitted > 0 ? TimeUnit.NANOSECONDS.toMillis(totalWaitNanos / admitted) : 0L);
+            stats.put("rateLimitMaxWaitMs", TimeUnit.NANOSECONDS.toMillis(longestWaitNanos));
+            stats.put("rateLimitUsedToday", (long) usedToday);
+            stats.put("rateLimitPerMinute", (long) perMinute);
+            return stats;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("quote.ratelimit.queue", this, limiter -> limiter.read(() -> (long) limiter.waiters.size()))
+                .description("Callers waiting for a quote rate-limit permit")
+                .register(registry);
+        FunctionCounter.builder("quote.ratelimit.rejected", this, limiter -> limiter.read(() -> limiter.rejected))
+                .description("Quote calls refused for the daily budget or a wait timeout")
+                .register(registry);
+        FunctionTimer.builder("quote.ratelimit.wait", this,
+                        limiter -> limiter.read(() -> limiter.admitted),
+                        limiter -> limiter.read(() -> limiter.totalWaitNanos), TimeUnit.NANOSECONDS)
+                .description("Time spent waiting for a quote rate-limit permit")
+                .register(registry);
+        Gauge.builder("quote.ratelimit.used.today", this, limiter -> limiter.read(() -> (long) limiter.usedToday))
+                .description("Upstream quote calls made today against the daily budget")
+                .register(registry);
+    }
+
+    private long read(LongSupplier metric) {
+        lock.lock();
+        try {
+            return metric.getAsLong();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void refill(long now) {
+        tokens = Math.min(perMinute, tokens + (now - lastRefill) * tokensPerNano);
+        lastRefill = now;
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        if (!today.equals(budgetDay)) {
+            budgetDay = today;
+            usedToday = 0;
+        }
+    }
+
+    private void recordWait(long waitNanos) {
+        admitted++;
+        totalWaitNanos += waitNanos;
+        longestWaitNanos = Math.max(longestWaitNanos, waitNanos);
+    }
+
+    private static final class Ticket {
+        final QuotePriority priority;
+        final long sequence;
+
+        Ticket(QuotePriority priority, long sequence) {
+            this.priority = priority;
+            this.sequence = sequence;
+        }
+    }
+}
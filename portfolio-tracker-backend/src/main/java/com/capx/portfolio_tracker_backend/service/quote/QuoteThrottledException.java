@@ -0,0 +1,11 @@
+package com.capx.portfolio_tracker_backend.service.quote;
+
+import java.io.IOException;
+
+// Thrown by a provider that refused a request because its request quota is used up (an HTTP 429, or
+// Alpha Vantage's rate-limit note). Retrying only spends more of the quota, so it is not retried.
+public class QuoteThrottledException extends IOException {
+    public QuoteThrottledException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,424 @@
+package com.capx.portfolio_tracker_backend.service.quote;
+
+import com.capx.portfolio_tracker_backend.config.QuoteResilienceProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+
+// Upstream side of StockPriceService: asks quote.provider first and quote.resilience.secondary-provider
+// when the primary fails, has an open circuit or has no quote. Interactive single-quote lookups also
+// ask the secondary once the primary is slower than the hedge delay, and take whichever valid answer
+// comes first. Each call takes a permit from its provider's rate limiter and passes its circuit breaker;
+// failed attempts are retried with backoff until the circuit opens. A quote that is not a positive
+// finite price counts as a failed call and is never returned.
+@Component
+public class ResilientQuoteClient {
+    private static final Logger log = LoggerFactory.getLogger(ResilientQuoteClient.class);
+
+    private static final int MAX_ATTEMPTS = 3;
+    // The secondary stands in for a failing primary, so its callers should not queue for long
+    private static final long SECONDARY_MAX_WAIT_MS = 5_000;
+    private static final BooleanSupplier NEVER = () -> false;
+    private static final Runnable NO_OP = () -> {
+    };
+
+    private final List<Upstream> upstreams = new ArrayList<>();
+    private final AsyncTaskExecutor fetchExecutor;
+    private final AsyncTaskExecutor hedgeExecutor;
+    private final long hedgeDelayMs;
+    private final long retryBaseDelayMs;
+    private final long retryMaxDelayMs;
+    private final Counter hedged;
+
+    public ResilientQuoteClient(List<QuoteProvider> providers,
+                                @Value("${quote.provider:alphavantage}") String primaryName,
+                                QuoteRateLimiter rateLimiter,
+                                QuoteResilienceProperties properties,
+                                MeterRegistry meterRegistry,
+                                @Qualifier("quoteFetchExecutor") AsyncTaskExecutor fetchExecutor,
+                                @Qualifier("quoteHedgeExecutor") AsyncTaskExecutor hedgeExecutor,
+                                @Value("${quote.retry.base-delay-ms:500}") long retryBaseDelayMs,
+                                @Value("${quote.retry.max-delay-ms:8000}") long retryMaxDelayMs) {
+        upstreams.add(new Upstream(provider(providers, primaryName), rateLimiter, properties, meterRegistry));
+        String secondaryName = properties.getSecondaryProvider();
+        if (secondaryName != null && !secondaryName.isBlank() && !secondaryName.equals(primaryName)) {
+            QuoteRateLimiter secondaryLimiter = new QuoteRateLimiter(properties.getSecondaryPerMinute(),
+                    properties.getSecondaryPerDay(), SECONDARY_MAX_WAIT_MS);
+            upstreams.add(new Upstream(provider(providers, secondaryName), secondaryLimiter, properties, meterRegistry));
+        }
+        this.fetchExecutor = fetchExecutor;
+        this.hedgeExecutor = hedgeExecutor;
+        this.hedgeDelayMs = properties.getHedgeDelayMs();
+        this.retryBaseDelayMs = retryBaseDelayMs;
+        this.retryMaxDelayMs = retryMaxDelayMs;
+        this.hedged = Counter.builder("quote.hedged")
+                .description("Interactive lookups also sent to the secondary provider because the primary was slow")
+                .register(meterRegistry);
+    }
+
+    private static QuoteProvider provider(List<QuoteProvider> providers, String name) {
+        for (QuoteProvider provider : providers) {
+            if (provider.getName().equals(name)) {
+                return provider;
+            }
+        }
+        throw new IllegalStateException("No quote provider named " + name);
+    }
+
+    // Latest price for one ticker, or null if no provider has a valid quote for it
+    public Double fetchQuote(String ticker, QuotePriority priority) {
+        if (upstreams.size() > 1 && priority == QuotePriority.INTERACTIVE && hedgeDelayMs > 0) {
+            return hedgedQuote(ticker, priority);
+        }
+        for (Upstream upstream : upstreams) {
+            Double price = quoteFrom(upstream, ticker, priority, NEVER);
+            if (price != null) {
+                return price;
+            }
+        }
+        return null;
+    }
+
+    // Prices for many tickers. With a bulk endpoint the primary is asked in batches and the secondary
+    // for whatever it could not price; otherwise each ticker is a fetchQuote over the fan-out pool.
+    public Map<String, Double> fetchQuotes(Collection<String> tickers, QuotePriority priority) {
+        Upstream primary = upstreams.get(0);
+        if (!primary.provider.supportsBulk()) {
+            return fanOut(tickers, ticker -> fetchQuote(ticker, priority));
+        }
+        Map<String, Double> fetched = batchesFrom(primary, new ArrayList<>(tickers), priority);
+        if (upstreams.size() > 1 && fetched.size() < tickers.size()) {
+            Upstream secondary = upstreams.get(1);
+            List<String> missing = new ArrayList<>();
+            for (String ticker : tickers) {
+                if (!fetched.containsKey(ticker)) {
+                    missing.add(ticker);
+                }
+            }
+            fetched.putAll(secondary.provider.supportsBulk()
+                    ? batchesFrom(secondary, missing, priority)
+                    : fanOut(missing, ticker -> quoteFrom(secondary, ticker, priority, NEVER)));
+        }
+        return fetched;
+    }
+
+    public String getPrimaryName() {
+        return upstreams.get(0).provider.getName();
+    }
+
+    public CircuitBreaker.State getCircuitState(String providerName) {
+        for (Upstream upstream : upstreams) {
+            if (upstream.provider.getName().equals(providerName)) {
+                return upstream.breaker.getState();
+            }
+        }
+        throw new IllegalArgumentException("No quote provider named " + providerName);
+    }
+
+    // Circuit state (0 closed, 1 half-open, 2 open), openings and refused calls per provider
+    public Map<String, Long> getStats() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        for (Upstream upstream : upstreams) {
+            String name = upstream.provider.getName();
+            stats.put(name + "CircuitState", (long) upstream.breaker.getState().ordinal());
+            stats.put(name + "CircuitOpened", upstream.breaker.getOpenedCount());
+            stats.put(name + "CircuitRejected", upstream.breaker.getRejectedCount());
+        }
+        stats.put("hedgedRequests", (long) hedged.count());
+        return stats;
+    }
+
+    // Run the primary on the hedge pool; if it has not answered within the hedge delay of sending its
+    // request, start the secondary too and return the first valid price. The delay starts when the
+    // primary's request goes out, so waiting for a thread or a rate-limit permit under load does not
+    // trigger hedging. A full hedge pool means the lookup is not hedged. The slower call finishes in
+    // the background (its outcome still feeds its circuit) but makes no further attempts.
+    private Double hedgedQuote(String ticker, QuotePriority priority) {
+        Upstream primary = upstreams.get(0);
+        Upstream secondary = upstreams.get(1);
+        CompletableFuture<Double> winner = new CompletableFuture<>();
+        CompletableFuture<Void> sent = new CompletableFuture<>();
+        CompletableFuture<Double> first;
+        try {
+            first = CompletableFuture.supplyAsync(
+                    () -> quoteFrom(primary, ticker, priority, winner::isDone, () -> sent.complete(null)), hedgeExecutor);
+        } catch (RuntimeException e) {
+            // Hedge pool is saturated or shutting down
+            Double price = quoteFrom(primary, ticker, priority, NEVER);
+            return price != null ? price : quoteFrom(secondary, ticker, priority, NEVER);
+        }
+        try {
+            // A primary that never sends (open circuit, spent budget) completes first without hedging
+            CompletableFuture.anyOf(sent, first).get();
+            Double price = first.get(hedgeDelayMs, TimeUnit.MILLISECONDS);
+            return price != null ? price : quoteFrom(secondary, ticker, priority, NEVER);
+        } catch (TimeoutException e) {
+            // Fall through to hedging
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            return quoteFrom(secondary, ticker, priority, NEVER);
+        }
+        CompletableFuture<Double> second;
+        try {
+            second = CompletableFuture.supplyAsync(() -> quoteFrom(secondary, ticker, priority, winner::isDone), hedgeExecutor);
+            hedged.increment();
+        } catch (RuntimeException e) {
+            second = CompletableFuture.completedFuture(null);
+        }
+        first.whenComplete((price, error) -> {
+            if (price != null) {
+                winner.complete(price);
+            }
+        });
+        second.whenComplete((price, error) -> {
+            if (price != null) {
+                winner.complete(price);
+            }
+        });
+        CompletableFuture.allOf(first, second).whenComplete((ignored, error) -> winner.complete(null));
+        return await(winner);
+    }
+
+    private Double quoteFrom(Upstream upstream, String ticker, QuotePriority priority, BooleanSupplier abandoned) {
+        return quoteFrom(upstream, ticker, priority, abandoned, NO_OP);
+    }
+
+    // beforeCall runs each time a request is about to be sent
+    private Double quoteFrom(Upstream upstream, String ticker, QuotePriority priority, BooleanSupplier abandoned,
+                             Runnable beforeCall) {
+        return withRetry(upstream, ticker, priority, abandoned, () -> {
+            beforeCall.run();
+            Double price = upstream.provider.fetchQuote(ticker);
+            if (price != null && !isValid(price)) {
+                upstream.rejected.increment();
+                throw new InvalidQuoteException(upstream.provider.getName() + " returned " + price + " for " + ticker);
+            }
+            return price;
+        });
+    }
+
+    private Map<String, Double> batchesFrom(Upstream upstream, List<String> tickers, QuotePriority priority) {
+        Map<String, Double> fetched = new HashMap<>();
+        int batchSize = Math.max(1, upstream.provider.maxBatchSize());
+        for (int from = 0; from < tickers.size(); from += batchSize) {
+            List<String> batch = tickers.subList(from, Math.min(from + batchSize, tickers.size()));
+            Map<String, Double> quotes = withRetry(upstream, "batch of " + batch.size(), priority, NEVER, () -> {
+                Map<String, Double> valid = new HashMap<>();
+                int invalid = 0;
+                for (Map.Entry<String, Double> quote : upstream.provider.fetchQuotes(batch).entrySet()) {
+                    if (quote.getValue() != null && isValid(quote.getValue())) {
+                        valid.put(quote.getKey(), quote.getValue());
+                    } else if (quote.getValue() != null) {
+                        invalid++;
+                    }
+                }
+                if (invalid > 0) {
+                    upstream.rejected.increment(invalid);
+                    if (valid.isEmpty()) {
+                        throw new InvalidQuoteException(upstream.provider.getName() + " returned no valid price in a batch of " + batch.size());
+                    }
+                }
+                return valid;
+            });
+            if (quotes != null) {
+                fetched.putAll(quotes);
+            }
+        }
+        return fetched;
+    }
+
+    private Map<String, Double> fanOut(Collection<String> tickers, Function<String, Double> fetch) {
+        Map<String, Future<Double>> futures = new LinkedHashMap<>();
+        for (String ticker : tickers) {
+            futures.put(ticker, fetchExecutor.submit(() -> fetch.apply(ticker)));
+        }
+        Map<String, Double> fetched = new HashMap<>();
+        for (Map.Entry<String, Future<Double>> entry : futures.entrySet()) {
+            Double price = await(entry.getValue());
+            if (price != null) {
+                fetched.put(entry.getKey(), price);
+            }
+        }
+        return fetched;
+    }
+
+    // Every attempt passes the provider's circuit breaker and takes a rate-limit permit first. Failed
+    // attempts back off exponentially with full jitter; an exhausted budget, an open circuit, an
+    // invalid quote or a throttled request is not retried, and throttling opens the circuit at once.
+    private <T> T withRetry(Upstream upstream, String label, QuotePriority priority, BooleanSupplier abandoned,
+                            Callable<T> call) {
+        String provider = upstream.provider.getName();
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            if (abandoned.getAsBoolean()) {
+                return null;
+            }
+            if (!upstream.breaker.tryAcquire()) {
+                log.debug("Circuit of {} is open, skipping {}", provider, label);
+                return null;
+            }
+            long started = 0;
+            try {
+                upstream.rateLimiter.acquire(priority);
+                // Timed after the permit so queueing behind the rate limit is not counted as latency
+                started = System.nanoTime();
+                T result = call.call();
+                upstream.success.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+                upstream.breaker.onSuccess();
+                return result;
+            } catch (QuoteBudgetExceededException e) {
+                upstream.breaker.release();
+                upstream.skipped.increment();
+                log.warn("Price fetch skipped for {} from {}: {}", label, provider, e.getMessage());
+                return null;
+            } catch (InterruptedException e) {
+                upstream.breaker.release();
+                Thread.currentThread().interrupt();
+                return null;
+            } catch (Exception e) {
+                if (started != 0) {
+                    upstream.failure.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+                }
+                if (e instanceof QuoteThrottledException) {
+                    // Further calls before the quota window passes would only be refused too
+                    upstream.breaker.trip();
+                    upstream.throttled.increment();
+                    log.warn("Quote provider {} is throttling, opening its circuit: {}", provider, e.getMessage());
+                    return null;
+                }
+                upstream.breaker.onFailure();
+                if (e instanceof InvalidQuoteException) {
+                    log.warn("Rejected quote: {}", e.getMessage());
+                    return null;
+                }
+                log.debug("Price fetch attempt {} failed for {} from {}", attempt + 1, label, provider, e);
+                if (attempt + 1 < MAX_ATTEMPTS) {
+                    upstream.retries.increment();
+                    try {
+                        Thread.sleep(backoffMillis(attempt));
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                        return null;
+                    }
+                }
+            }
+        }
+        log.warn("Price fetch failed for {} from {} after {} attempts", label, provider, MAX_ATTEMPTS);
+        return null;
+    }
+
+    private long backoffMillis(int attempt) {
+        long ceiling = Math.min(retryMaxDelayMs, retryBaseDelayMs << attempt);
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    private static boolean isValid(double price) {
+        return price > 0.0 && Double.isFinite(price);
+    }
+
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            log.warn("Price fetch failed", e.getCause());
+        }
+        return null;
+    }
+
+    // A provider answered with something that is not a price (zero, negative, NaN)
+    private static final class InvalidQuoteException extends IOException {
+        private InvalidQuoteException(String message) {
+            super(message);
+        }
+    }
+
+    // One provider with its rate limiter, circuit breaker and meters
+    private static final class Upstream {
+        private final QuoteProvider provider;
+        private final QuoteRateLimiter rateLimiter;
+        private final CircuitBreaker breaker;
+        // Latency of each attempt by outcome, retries after a failed attempt, calls the rate limiter
+        // refused, quotes rejected as invalid, and requests the provider throttled
+        private final Timer success;
+        private final Timer failure;
+        private final Counter retries;
+        private final Counter skipped;
+        private final Counter rejected;
+        private final Counter throttled;
+
+        private Upstream(QuoteProvider provider, QuoteRateLimiter rateLimiter, QuoteResilienceProperties properties,
+                         MeterRegistry meterRegistry) {
+            this.provider = provider;
+            this.rateLimiter = rateLimiter;
+            this.breaker = new CircuitBreaker(properties.getFailureThreshold(), properties.getOpenMs());
+            String name = provider.getName();
+            this.success = latencyTimer(meterRegistry, name, "success");
+            this.failure = latencyTimer(meterRegistry, name, "failure");
+            this.retries = Counter.builder("quote.upstream.retries")
+                    .description("Upstream quote attempts retried after a failure")
+                    .tag("provider", name)
+                    .register(meterRegistry);
+            this.skipped = Counter.builder("quote.upstream.skipped")
+                    .description("Upstream quote calls refused by the rate limiter")
+                    .tag("provider", name)
+                    .register(meterRegistry);
+            this.rejected = Counter.builder("quote.upstream.rejected")
+                    .description("Quotes rejected for not being a positive price")
+                    .tag("provider", name)
+                    .register(meterRegistry);
+            this.throttled = Counter.builder("quote.upstream.throttled")
+                    .description("Upstream quote calls refused by the provider's own rate limit")
+                    .tag("provider", name)
+                    .register(meterRegistry);
+            Gauge.builder("quote.circuit.state", breaker, b -> b.getState().ordinal())
+                    .description("Provider circuit: 0 closed, 1 half-open, 2 open")
+                    .tag("provider", name)
+                    .register(meterRegistry);
+            FunctionCounter.builder("quote.circuit.opened", breaker, CircuitBreaker::getOpenedCount)
+                    .description("Times the provider's circuit opened")
+                    .tag("provider", name)
+                    .register(meterRegistry);
+            FunctionCounter.builder("quote.circuit.rejected", breaker, CircuitBreaker::getRejectedCount)
+                    .description("Calls not made because the provider's circuit was open")
+                    .tag("provider", name)
+                    .register(meterRegistry);
+        }
+
+        private static Timer latencyTimer(MeterRegistry meterRegistry, String provider, String outcome) {
+            return Timer.builder("quote.upstream.latency")
+                    .description("Latency of each upstream quote attempt")
+                    .tag("provider", provider)
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+        }
+    }
+}
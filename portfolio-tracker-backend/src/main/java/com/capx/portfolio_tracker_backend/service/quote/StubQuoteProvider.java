@@ -0,0 +1,164 @@
+package com.capx.portfolio_tracker_backend.service.quote;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Offline quote provider for local runs and tests (quote.provider=stub, or as the secondary provider).
+// Prices come from quote.stub.prices ("AAPL=190.5,MSFT=410") or are derived from the ticker.
+// Latency, failures, throttling and invalid (zero) prices can be injected to exercise retries, circuit breakers
+// and failover.
+@Component
+@ConditionalOnExpression("'${quote.provider:alphavantage}' == 'stub' or '${quote.resilience.secondary-provider:}' == 'stub'")
+public class StubQuoteProvider implements QuoteProvider {
+    private final String name;
+    private final Map<String, Double> prices = new ConcurrentHashMap<>();
+    private final AtomicInteger requestCount = new AtomicInteger();
+
+    @Value("${quote.stub.bulk-enabled:true}")
+    private boolean bulkEnabled = true;
+
+    @Value("${quote.stub.batch-size:100}")
+    private int batchSize = 100;
+
+    @Value("${quote.stub.latency-ms:0}")
+    private volatile long latencyMs;
+
+    // Share of requests that fail with an IOException, from 0 to 1
+    @Value("${quote.stub.failure-rate:0}")
+    private volatile double failureRate;
+
+    // Answer every request with a price of 0, like a provider that parses an error as a quote
+    @Value("${quote.stub.invalid-prices:false}")
+    private volatile boolean invalidPrices;
+
+    // Refuse every request as over quota, like a provider whose rate limit is used up
+    @Value("${quote.stub.throttled:false}")
+    private volatile boolean throttled;
+
+    public StubQuoteProvider() {
+        this("stub");
+    }
+
+    // Named, for setting up a primary and a secondary stub outside Spring
+    public StubQuoteProvider(String name) {
+        this.name = name;
+    }
+
+    @Value("${quote.stub.prices:}")
+    public void setConfiguredPrices(String configuredPrices) {
+        for (String entry : configuredPrices.split(",")) {
+            String[] parts = entry.split("=");
+            if (parts.length == 2) {
+                prices.put(parts[0].trim(), Double.parseDouble(parts[1].trim()));
+            }
+        }
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Double fetchQuote(String ticker) throws IOException {
+        requestCount.incrementAndGet();
+        simulateLatency();
+        simulateFailure();
+        return priceFor(ticker);
+    }
+
+    @Override
+    public boolean supportsBulk() {
+        return bulkEnabled;
+    }
+
+    @Override
+    public int maxBatchSize() {
+        return bulkEnabled ? batchSize : 1;
+    }
+
+    @Override
+    public Map<String, Double> fetchQuotes(List<String> tickers) throws IOException {
+        requestCount.incrementAndGet();
+        simulateLatency();
+        simulateFailure();
+        Map<String, Double> quotes = new HashMap<>();
+        for (String ticker : tickers) {
+            quotes.put(ticker, priceFor(ticker));
+        }
+        return quotes;
+    }
+
+    public void setPrice(String ticker, double price) {
+        prices.put(ticker, price);
+    }
+
+    public void setBulkEnabled(boolean bulkEnabled) {
+        this.bulkEnabled = bulkEnabled;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public void setLatencyMs(long latencyMs) {
+        this.latencyMs = latencyMs;
+    }
+
+    public void setFailureRate(double failureRate) {
+        this.failureRate = failureRate;
+    }
+
+    public void setInvalidPrices(boolean invalidPrices) {
+        this.invalidPrices = invalidPrices;
+    }
+
+    public void setThrottled(boolean throttled) {
+        this.throttled = throttled;
+    }
+
+    // Number of upstream requests served so far (one per fetchQuote or fetchQuotes call)
+    public int getRequestCount() {
+        return requestCount.get();
+    }
+
+    public void resetRequestCount() {
+        requestCount.set(0);
+    }
+
+    private Double priceFor(String ticker) {
+        if (invalidPrices) {
+            return 0.0;
+        }
+        // Unknown tickers get a stable pseudo-price so every symbol resolves offline
+        return prices.computeIfAbsent(ticker, t -> 10.0 + Math.floorMod(t.hashCode(), 49000) / 100.0);
+    }
+
+    private void simulateFailure() throws IOException {
+        if (throttled) {
+            throw new QuoteThrottledException("Injected throttling from " + name);
+        }
+        if (failureRate > 0 && ThreadLocalRandom.current().nextDouble() < failureRate) {
+            throw new IOException("Injected failure from " + name);
+        }
+    }
+
+    private void simulateLatency() {
+        if (latencyMs > 0) {
+            try {
+                Thread.sleep(latencyMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
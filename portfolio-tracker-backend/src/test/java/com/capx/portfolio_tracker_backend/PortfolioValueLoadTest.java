@@ -0,0 +1,151 @@
+package com.capx.portfolio_tracker_backend;
+
+import com.capx.portfolio_tracker_backend.models.Stock;
+import com.capx.portfolio_tracker_backend.repository.StockRepository;
+import com.capx.portfolio_tracker_backend.service.PortfolioService;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.core.env.Environment;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Load test for /portfolio/value against a slow local quote server. Every request misses the price
+// cache and the snapshot memo, so request threads block on upstream quotes.
+//   platform threads: mvn test -Dtest=PortfolioValueLoadTest -Dloadtest=true
+//   virtual threads:  JAVA_HOME=<jdk21> mvn -Pjava21 test -Dtest=PortfolioValueLoadTest -Dloadtest=true
+//                     -Dspring.threads.virtual.enabled=true
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "quote.provider=alphavantage",
+        "quote.cache.market-open-ttl-seconds=0",
+        "quote.cache.market-closed-ttl-seconds=0",
+        "quote.cache.max-stale-seconds=0",
+        "portfolio.snapshot.max-age-seconds=-1",
+        "quote.fetch.parallelism=50"
+})
+class PortfolioValueLoadTest {
+    private static final int CONCURRENCY = 1000;
+    private static final int ROUNDS = 3;
+    private static final int HOLDINGS = 5;
+    private static final long QUOTE_LATENCY_MS = 50;
+
+    private static final HttpServer quoteServer = startQuoteServer();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private StockRepository stockRepository;
+
+    @Autowired
+    private PortfolioService portfolioService;
+
+    @Autowired
+    private Environment environment;
+
+    @DynamicPropertySource
+    static void quoteServerUrl(DynamicPropertyRegistry registry) {
+        registry.add("alphavantage.api.url",
+                () -> "http://127.0.0.1:" + quoteServer.getAddress().getPort() + "/query");
+    }
+
+    @AfterAll
+    static void stopQuoteServer() {
+        quoteServer.stop(0);
+    }
+
+    @Test
+    void portfolioValueUnderConcurrentLoad() throws Exception {
+        stockRepository.deleteAll();
+        for (int i = 0; i < HOLDINGS; i++) {
+            stockRepository.save(new Stock("Load " + i, "LOAD" + i, 10, 100.0, 100.0));
+        }
+        stockRepository.assignUnownedStocks(portfolioService.getDefaultPortfolioId());
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newFixedThreadPool(16))
+                .build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + port + "/portfolio/value")).build();
+        // Warm-up round so connection setup and JIT do not land in the measurement
+        runRound(client, request, 200);
+
+        List<Long> latencies = new ArrayList<>();
+        long started = System.nanoTime();
+        for (int round = 0; round < ROUNDS; round++) {
+            latencies.addAll(runRound(client, request, CONCURRENCY));
+        }
+        double elapsedSeconds = (System.nanoTime() - started) / 1e9;
+
+        long[] sorted = latencies.stream().mapToLong(Long::longValue).toArray();
+        Arrays.sort(sorted);
+        System.out.printf("threads=%s requests=%d throughput=%.0f req/s p50=%d ms p99=%d ms max=%d ms%n",
+                environment.getProperty("spring.threads.virtual.enabled", "false").equals("true") ? "virtual" : "platform",
+                sorted.length, sorted.length / elapsedSeconds,
+                sorted[sorted.length / 2], sorted[(int) (sorted.length * 0.99)], sorted[sorted.length - 1]);
+        assertEquals(CONCURRENCY * ROUNDS, sorted.length);
+    }
+
+    // Fire all requests at once and return per-request latency in ms
+    private static List<Long> runRound(HttpClient client, HttpRequest request, int requests) {
+        List<CompletableFuture<Long>> inFlight = new ArrayList<>();
+        for (int i = 0; i < requests; i++) {
+            long sent = System.nanoTime();
+            inFlight.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .thenApply(response -> {
+                        assertEquals(200, response.statusCode());
+                        return (System.nanoTime() - sent) / 1_000_000;
+                    }));
+        }
+        List<Long> latencies = new ArrayList<>();
+        for (CompletableFuture<Long> future : inFlight) {
+            latencies.add(future.join());
+        }
+        return latencies;
+    }
+
+    private static HttpServer startQuoteServer() {
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 1000);
+            server.setExecutor(Executors.newCachedThreadPool());
+            server.createContext("/query", exchange -> {
+                try {
+                    Thread.sleep(QUOTE_LATENCY_MS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                byte[] body = "{\"Global Quote\": {\"05. price\": \"101.25\"}}".getBytes(StandardCharsets.UTF_8);
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            });
+            server.start();
+            return server;
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.capx.portfolio_tracker_backend.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+class ActuatorEndpointTests {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void exposesPricingAndEndpointMetricsForPrometheus() throws Exception {
+        mockMvc.perform(get("/pricing/metrics")).andExpect(status().isOk());
+
+        String scrape = mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertTrue(scrape.contains("quote_upstream_latency_seconds"));
+        assertTrue(scrape.contains("quote_lookups_total"));
+        assertTrue(scrape.contains("price_refresh_duration_seconds"));
+        assertTrue(scrape.contains("http_server_requests_seconds_bucket"));
+    }
+}
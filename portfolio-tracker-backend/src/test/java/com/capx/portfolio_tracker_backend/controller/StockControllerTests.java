@@ -0,0 +1,113 @@
+package com.capx.portfolio_tracker_backend.controller;
+
+import com.capx.portfolio_tracker_backend.models.Stock;
+import com.capx.portfolio_tracker_backend.repository.StockRepository;
+import com.capx.portfolio_tracker_backend.service.PortfolioService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class StockControllerTests {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private StockRepository stockRepository;
+
+    @Autowired
+    private PortfolioService portfolioService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void seedStocks() {
+        stockRepository.deleteAll();
+        // Two stocks share a name so the id tie-breaker is exercised
+        String[] names = {"Delta", "Alpha", "Charlie", "Bravo", "Bravo"};
+        for (int i = 0; i < names.length; i++) {
+            stockRepository.save(new Stock(names[i], "PAGE" + i, 1, 10.0, 10.0));
+        }
+        stockRepository.assignUnownedStocks(portfolioService.getDefaultPortfolioId());
+    }
+
+    @Test
+    void pagesThroughAllStocksWithTheNextCursor() throws Exception {
+        List<String> tickers = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            MockHttpServletRequestBuilder request = get("/stocks/all")
+                    .param("limit", "2").param("sort", "name").param("direction", "desc");
+            if (cursor != null) {
+                request.param("cursor", cursor);
+            }
+            MvcResult result = mockMvc.perform(request).andExpect(status().isOk()).andReturn();
+            for (JsonNode stock : objectMapper.readTree(result.getResponse().getContentAsString())) {
+                tickers.add(stock.get("ticker").asText());
+            }
+            cursor = result.getResponse().getHeader("X-Next-Cursor");
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(3, pages);
+        assertEquals(List.of("PAGE0", "PAGE2", "PAGE4", "PAGE3", "PAGE1"), tickers);
+    }
+
+    @Test
+    void withoutPagingParamsReturnsTheWholeList() throws Exception {
+        MvcResult result = mockMvc.perform(get("/stocks/all")).andExpect(status().isOk()).andReturn();
+        assertEquals(5, objectMapper.readTree(result.getResponse().getContentAsString()).size());
+        assertEquals(null, result.getResponse().getHeader("X-Next-Cursor"));
+    }
+
+    @Test
+    void rejectsUnknownSortFieldsAndBadCursors() throws Exception {
+        mockMvc.perform(get("/stocks/all").param("sort", "currentPrice")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/stocks/all").param("cursor", "not-a-cursor")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void reportsOnlyDuplicateTickersAsConflicts() throws Exception {
+        mockMvc.perform(post("/stocks/add").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"Again\", \"ticker\": \"PAGE0\", \"quantity\": 1, \"buyPrice\": 10.0}"))
+                .andExpect(status().isConflict());
+        // stock_name is NOT NULL
+        mockMvc.perform(post("/stocks/add").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ticker\": \"NONAME\", \"quantity\": 1, \"buyPrice\": 10.0}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void exportsOneJsonObjectPerLine() throws Exception {
+        MvcResult started = mockMvc.perform(get("/stocks/export")).andExpect(request().asyncStarted()).andReturn();
+        MvcResult result = mockMvc.perform(asyncDispatch(started)).andExpect(status().isOk()).andReturn();
+
+        String[] lines = result.getResponse().getContentAsString().strip().split("\n");
+        assertEquals(5, lines.length);
+        for (String line : lines) {
+            assertTrue(objectMapper.readTree(line).has("ticker"));
+        }
+    }
+}
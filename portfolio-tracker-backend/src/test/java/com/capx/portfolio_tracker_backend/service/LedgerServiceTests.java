@@ -0,0 +1,127 @@
+package com.capx.portfolio_tracker_backend.service;
+
+import com.capx.portfolio_tracker_backend.models.Position;
+import com.capx.portfolio_tracker_backend.models.Trade;
+import com.capx.portfolio_tracker_backend.models.TradeType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+class LedgerServiceTests {
+    @Autowired
+    private LedgerService ledgerService;
+
+    @Autowired
+    private PortfolioService portfolioService;
+
+    private long portfolioId;
+
+    @BeforeEach
+    void createPortfolio() {
+        portfolioId = portfolioService.createPortfolio("Ledger", "ledger-user", null).getId();
+    }
+
+    @Test
+    void tradesAreFoldedIntoPositionsAsTheyAreAppended() {
+        append(TradeType.BUY, "LEDG", 10, 100.0);
+        append(TradeType.BUY, "LEDG", 10, 200.0);
+        append(TradeType.SELL, "LEDG", 5, 300.0);
+        append(TradeType.DIVIDEND, "LEDG", 0, 1.0);
+        append(TradeType.SPLIT, "LEDG", 2, 0);
+
+        Position position = ledgerService.getPositions(portfolioId).get(0);
+        assertEquals(30, position.getQuantity(), 1e-9);
+        assertEquals(75.0, position.getAverageCost(), 1e-9);
+        assertEquals(2250.0, position.getCostBasis(), 1e-9);
+        assertEquals(750.0, position.getRealizedPnl(), 1e-9);
+        assertEquals(15.0, position.getDividends(), 1e-9);
+        assertEquals(30 * position.getMarketPrice() - 2250.0, position.getUnrealizedPnl(), 1e-9);
+
+        // Selling more than is held is rejected and leaves the position untouched
+        assertThrows(IllegalArgumentException.class, () -> append(TradeType.SELL, "LEDG", 31, 10.0));
+        assertEquals(30, ledgerService.getPositions(portfolioId).get(0).getQuantity(), 1e-9);
+        assertEquals(5, ledgerService.getTrades(portfolioId, 0, 100).size());
+    }
+
+    @Test
+    void rebuildReplaysOnlyTradesAfterTheLatestSnapshot() {
+        append(TradeType.BUY, "SNPA", 10, 10.0);
+        append(TradeType.BUY, "SNPB", 4, 50.0);
+        ledgerService.snapshot(portfolioId);
+        append(TradeType.SELL, "SNPA", 4, 20.0);
+        append(TradeType.BUY, "SNPC", 1, 5.0);
+        List<Position> incremental = ledgerService.getPositions(portfolioId);
+
+        Map<String, Object> stats = ledgerService.rebuildPositions(portfolioId);
+
+        assertEquals(2L, stats.get("tradesReplayed"));
+        List<Position> rebuilt = ledgerService.getPositions(portfolioId);
+        assertEquals(incremental.size(), rebuilt.size());
+        for (int i = 0; i < rebuilt.size(); i++) {
+            assertEquals(incremental.get(i).getTicker(), rebuilt.get(i).getTicker());
+            assertEquals(incremental.get(i).getQuantity(), rebuilt.get(i).getQuantity(), 1e-9);
+            assertEquals(incremental.get(i).getCostBasis(), rebuilt.get(i).getCostBasis(), 1e-9);
+            assertEquals(incremental.get(i).getRealizedPnl(), rebuilt.get(i).getRealizedPnl(), 1e-9);
+        }
+    }
+
+    @Test
+    void csvImportIsBatchedAndAllOrNothing() {
+        int trades = 20_000;
+        StringBuilder csv = new StringBuilder("type,ticker,quantity,price,executed_at\n");
+        for (int i = 0; i < trades; i++) {
+            // Two buys then one sell of the same size per ticker, so every position ends at one lot
+            String type = i % 3 == 2 ? "SELL" : "BUY";
+            csv.append(type).append(",IMP").append(i / 3 % 50).append(",2,").append(10 + i % 7)
+                    .append(",2025-01-06T14:30:00Z\n");
+        }
+        Map<String, Object> stats = ledgerService.importTrades(portfolioId, stream(csv.toString()));
+
+        assertEquals((long) trades, stats.get("tradesImported"));
+        assertEquals(50, stats.get("positionsUpdated"));
+        assertEquals(trades, ledgerService.getTrades(portfolioId, 0, trades + 1).size());
+
+        // The third line oversells, so nothing from this file is kept
+        String bad = "BUY,IMPBAD,1,10\nBUY,IMPBAD,1,10\nSELL,IMPBAD,5,10\n";
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                () -> ledgerService.importTrades(portfolioId, stream(bad)));
+        assertEquals(true, error.getMessage().startsWith("Line 3"));
+        assertEquals(trades, ledgerService.getTrades(portfolioId, 0, trades + 10).size());
+    }
+
+    @Test
+    void tickersAreNormalisedAndNonFiniteAmountsRejected() {
+        append(TradeType.BUY, " norm ", 2, 10.0);
+        ledgerService.importTrades(portfolioId, stream("BUY,Norm,3,10\n"));
+
+        List<Position> positions = ledgerService.getPositions(portfolioId);
+        assertEquals(1, positions.size());
+        assertEquals("NORM", positions.get(0).getTicker());
+        assertEquals(5, positions.get(0).getQuantity(), 1e-9);
+
+        assertThrows(IllegalArgumentException.class, () -> append(TradeType.BUY, "NORM", Double.POSITIVE_INFINITY, 10.0));
+        assertThrows(IllegalArgumentException.class, () -> append(TradeType.BUY, "NORM", 1, Double.NaN));
+        assertThrows(IllegalArgumentException.class,
+                () -> ledgerService.importTrades(portfolioId, stream("BUY,NORM,1,Infinity\n")));
+        assertEquals(5, ledgerService.getPositions(portfolioId).get(0).getQuantity(), 1e-9);
+    }
+
+    private void append(TradeType type, String ticker, double quantity, double price) {
+        ledgerService.appendTrade(portfolioId, new Trade(ticker, type, quantity, price, Instant.now()));
+    }
+
+    private static ByteArrayInputStream stream(String csv) {
+        return new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8));
+    }
+}
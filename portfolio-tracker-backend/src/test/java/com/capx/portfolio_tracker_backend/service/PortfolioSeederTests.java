@@ -0,0 +1,47 @@
+package com.capx.portfolio_tracker_backend.service;
+
+import com.capx.portfolio_tracker_backend.models.Portfolio;
+import com.capx.portfolio_tracker_backend.service.quote.StubQuoteProvider;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:seeded;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        // Keep this database's rows out of the cache regions the other test contexts share
+        "spring.jpa.properties.hibernate.cache.region_prefix=seeded",
+        "seed.portfolios=40",
+        "seed.portfolios-per-user=4",
+        "seed.holdings-per-portfolio=5",
+        "seed.ticker-pool=8"
+})
+class PortfolioSeederTests {
+    @Autowired
+    private PortfolioService portfolioService;
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private StubQuoteProvider stubQuoteProvider;
+
+    @Test
+    void tickersSharedAcrossPortfoliosAreFetchedOnce() {
+        List<Portfolio> portfolios = portfolioService.getPortfolios(PortfolioSeeder.OWNER_PREFIX + "0");
+        assertEquals(4, portfolios.size());
+
+        stubQuoteProvider.resetRequestCount();
+        for (int user = 0; user < 10; user++) {
+            for (Portfolio portfolio : portfolioService.getPortfolios(PortfolioSeeder.OWNER_PREFIX + user)) {
+                assertEquals(5, stockService.getPortfolioSnapshot(portfolio.getId()).getStockCount());
+            }
+        }
+        // 200 holdings, but only 8 distinct tickers to price
+        assertTrue(stubQuoteProvider.getRequestCount() <= 8, "requests: " + stubQuoteProvider.getRequestCount());
+    }
+}
@@ -0,0 +1,58 @@
+package com.capx.portfolio_tracker_backend.service;
+
+import com.capx.portfolio_tracker_backend.models.Portfolio;
+import com.capx.portfolio_tracker_backend.models.Stock;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class PortfolioServiceTests {
+    @Autowired
+    private PortfolioService portfolioService;
+
+    @Autowired
+    private StockService stockService;
+
+    @Test
+    void holdingsAndSnapshotsAreScopedByPortfolio() {
+        long growth = portfolioService.createPortfolio("Growth", "scope-user", null).getId();
+        long income = portfolioService.createPortfolio("Income", "scope-user", null).getId();
+
+        // The same ticker may be held in several portfolios, but only once per portfolio
+        stockService.saveStock(growth, new Stock("Shared", "SCOPE", 2, 10.0, null));
+        stockService.saveStock(income, new Stock("Shared", "SCOPE", 5, 10.0, null));
+        stockService.saveStock(income, new Stock("Other", "SCOPE2", 1, 10.0, null));
+        assertThrows(DataIntegrityViolationException.class,
+                () -> stockService.saveStock(growth, new Stock("Shared again", "SCOPE", 1, 10.0, null)));
+
+        assertEquals(1, stockService.getPortfolioSnapshot(growth).getStockCount());
+        assertEquals(20.0, stockService.getPortfolioSnapshot(growth).getTotalInvested(), 1e-9);
+        assertEquals(2, stockService.getPortfolioSnapshot(income).getStockCount());
+        assertEquals(60.0, stockService.getPortfolioSnapshot(income).getTotalInvested(), 1e-9);
+
+        // A stock is only visible through the portfolio that holds it
+        Stock incomeStock = stockService.getAllStocks(income).get(0);
+        assertTrue(stockService.getStockById(growth, incomeStock.getId()).isEmpty());
+        assertEquals(false, stockService.deleteStock(growth, incomeStock.getId()));
+
+        assertEquals(2, portfolioService.getPortfolios("scope-user").size());
+        assertTrue(portfolioService.deletePortfolio(income));
+        assertEquals(0, stockService.getAllStocks(income).size());
+        assertThrows(PortfolioNotFoundException.class, () -> portfolioService.resolve(income));
+    }
+
+    @Test
+    void missingPortfolioIdMeansTheDefaultPortfolio() {
+        long defaultId = portfolioService.getDefaultPortfolioId();
+        assertEquals(defaultId, portfolioService.resolve(null));
+        Portfolio portfolio = portfolioService.getPortfolios(PortfolioService.DEFAULT_OWNER).get(0);
+        assertEquals(defaultId, portfolio.getId());
+        assertThrows(IllegalArgumentException.class, () -> portfolioService.deletePortfolio(defaultId));
+    }
+}
@@ -0,0 +1,134 @@
+package com.capx.portfolio_tracker_backend.service;
+
+import com.capx.portfolio_tracker_backend.models.Stock;
+import com.capx.portfolio_tracker_backend.repository.StockRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class PortfolioStreamServiceTests {
+    @Autowired
+    private PortfolioStreamService portfolioStreamService;
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private StockRepository stockRepository;
+
+    @Autowired
+    private PortfolioService portfolioService;
+
+    private long portfolioId;
+
+    @BeforeEach
+    void clearPortfolio() {
+        stockRepository.deleteAll();
+        stockService.onStocksChanged();
+        portfolioId = portfolioService.getDefaultPortfolioId();
+    }
+
+    @Test
+    void sendsSnapshotThenOnlyChangedFields() throws Exception {
+        RecordingEmitter emitter = new RecordingEmitter(null);
+        portfolioStreamService.subscribe(portfolioId, emitter);
+        emitter.awaitEvents(1);
+        assertEquals(PortfolioStreamService.SNAPSHOT_EVENT, emitter.names.get(0));
+
+        stockService.saveStock(portfolioId, new Stock("Stream", "STRM", 4, 10.0, null));
+        portfolioStreamService.broadcast();
+        emitter.awaitEvents(2);
+        assertEquals(PortfolioStreamService.DELTA_EVENT, emitter.names.get(1));
+        Map<?, ?> delta = (Map<?, ?>) emitter.payloads.get(1);
+        assertEquals(1, delta.get("stockCount"));
+        assertTrue(delta.containsKey("distribution"));
+        assertEquals(40.0, delta.get("totalInvested"));
+
+        // Nothing changed, so nothing is sent
+        portfolioStreamService.broadcast();
+        Thread.sleep(200);
+        assertEquals(2, emitter.names.size());
+    }
+
+    @Test
+    void slowSubscriberOnlyReceivesTheLatestState() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingEmitter emitter = new RecordingEmitter(release);
+        portfolioStreamService.subscribe(portfolioId, emitter);
+
+        for (int i = 0; i < 3; i++) {
+            stockService.saveStock(portfolioId, new Stock("Slow " + i, "SLOW" + i, 1, 10.0, null));
+            portfolioStreamService.broadcast();
+        }
+        release.countDown();
+
+        emitter.awaitEvents(2);
+        Thread.sleep(200);
+        assertEquals(List.of(PortfolioStreamService.SNAPSHOT_EVENT, PortfolioStreamService.DELTA_EVENT), emitter.names);
+        assertEquals(3, ((Map<?, ?>) emitter.payloads.get(1)).get("stockCount"));
+        assertTrue(portfolioStreamService.getStats().get("streamEventsSuperseded") >= 1);
+    }
+
+    // Captures event names and payloads; if a latch is given, the first send blocks until it is released
+    private static final class RecordingEmitter extends SseEmitter {
+        final List<String> names = new CopyOnWriteArrayList<>();
+        final List<Object> payloads = new CopyOnWriteArrayList<>();
+        private final CountDownLatch release;
+
+        RecordingEmitter(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            Set<ResponseBodyEmitter.DataWithMediaType> parts = builder.build();
+            String name = null;
+            Object payload = null;
+            for (ResponseBodyEmitter.DataWithMediaType part : parts) {
+                if (part.getData() instanceof String text) {
+                    int start = text.indexOf("event:");
+                    if (start >= 0) {
+                        name = text.substring(start + 6, text.indexOf('\n', start));
+                    }
+                } else {
+                    payload = part.getData();
+                }
+            }
+            if (name == null) {
+                return; // Heartbeat comment
+            }
+            if (release != null && names.isEmpty()) {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            payloads.add(payload);
+            names.add(name);
+        }
+
+        void awaitEvents(int count) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + 5000;
+            while (names.size() < count && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(count, names.size());
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.capx.portfolio_tracker_backend.service;
+
+import com.capx.portfolio_tracker_backend.config.PriceCacheProperties;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PriceCacheTests {
+    // Wednesday 2025-01-15 15:00 UTC = 10:00 in New York (open), 20:30 in Mumbai (closed)
+    private static final Instant US_SESSION = Instant.parse("2025-01-15T15:00:00Z");
+    // Saturday 2025-01-18 12:00 UTC, both markets closed until Monday
+    private static final Instant WEEKEND = Instant.parse("2025-01-18T12:00:00Z");
+
+    @Test
+    void usesShortTtlWhileMarketIsOpen() {
+        PriceCache cache = new PriceCache(new PriceCacheProperties());
+
+        assertEquals(300, cache.ttlSecondsFor("AAPL", US_SESSION));
+    }
+
+    @Test
+    void capsClosedTtlAtNextSessionOpen() {
+        PriceCache cache = new PriceCache(new PriceCacheProperties());
+
+        // 20:30 IST Wednesday -> 09:15 IST Thursday
+        assertEquals(12 * 3600 + 45 * 60, cache.ttlSecondsFor("RELIANCE.BSE", US_SESSION));
+        // Over the weekend the full closed TTL applies
+        assertEquals(86_400, cache.ttlSecondsFor("AAPL", WEEKEND));
+    }
+
+    @Test
+    void tickerAndExchangeOverridesWin() {
+        PriceCacheProperties properties = new PriceCacheProperties();
+        properties.setTickerTtlSeconds(Map.of("AAPL", 15L));
+        properties.setExchangeTtlSeconds(Map.of("BSE", 900L));
+        PriceCache cache = new PriceCache(properties);
+
+        assertEquals(15, cache.ttlSecondsFor("AAPL", WEEKEND));
+        assertEquals(900, cache.ttlSecondsFor("TCS.BSE", US_SESSION));
+        assertEquals("US", cache.exchangeOf("BRK.B"));
+    }
+
+    @Test
+    void warmedEntriesAreStaleAndFreshEntriesAreNot() {
+        PriceCache cache = new PriceCache(new PriceCacheProperties());
+        Instant now = Instant.now();
+
+        cache.warm("WARM", 10.0, now);
+        cache.put("LIVE", 20.0, now);
+
+        assertFalse(cache.get("WARM").isFresh(now.getEpochSecond()));
+        assertTrue(cache.get("LIVE").isFresh(now.getEpochSecond()));
+    }
+
+    @Test
+    void staysWithinSizeBound() {
+        PriceCacheProperties properties = new PriceCacheProperties();
+        properties.setMaxSize(100);
+        PriceCache cache = new PriceCache(properties);
+        Instant now = Instant.now();
+
+        for (int i = 0; i < 10_000; i++) {
+            cache.put("T" + i, i, now);
+        }
+
+        Map<String, Long> stats = cache.getStats();
+        assertTrue(stats.get("cacheSize") <= 100);
+        assertNotNull(stats.get("cacheEvictions"));
+        assertTrue(stats.get("cacheEvictions") > 0);
+    }
+}
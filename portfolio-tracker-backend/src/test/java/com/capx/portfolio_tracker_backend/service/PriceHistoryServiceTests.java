@@ -0,0 +1,74 @@
+package com.capx.portfolio_tracker_backend.service;
+
+import com.capx.portfolio_tracker_backend.models.OhlcSeries;
+import com.capx.portfolio_tracker_backend.models.PriceSeries;
+import com.capx.portfolio_tracker_backend.service.quote.StubQuoteProvider;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+class PriceHistoryServiceTests {
+    private static final Instant BASE = Instant.parse("2025-01-06T14:30:00Z");
+
+    @Autowired
+    private PriceHistoryService priceHistoryService;
+
+    @Autowired
+    private StockPriceService stockPriceService;
+
+    @Autowired
+    private StubQuoteProvider stubQuoteProvider;
+
+    @Test
+    void downsamplesTicksToOhlcBuckets() {
+        double[] prices = {10, 12, 9, 11, 20, 18};
+        for (int i = 0; i < prices.length; i++) {
+            // Three ticks in each of two consecutive minutes
+            priceHistoryService.record("HIST", prices[i], BASE.plusSeconds(i * 20L));
+        }
+        priceHistoryService.flush();
+
+        OhlcSeries minutes = priceHistoryService.getOhlc("HIST", BASE, BASE.plus(Duration.ofHours(1)), "minute");
+        assertArrayEquals(new long[]{BASE.toEpochMilli(), BASE.plusSeconds(60).toEpochMilli()}, minutes.getT());
+        assertArrayEquals(new double[]{10, 11}, minutes.getOpen());
+        assertArrayEquals(new double[]{12, 20}, minutes.getHigh());
+        assertArrayEquals(new double[]{9, 11}, minutes.getLow());
+        assertArrayEquals(new double[]{9, 18}, minutes.getClose());
+        assertArrayEquals(new int[]{3, 3}, minutes.getTicks());
+
+        OhlcSeries days = priceHistoryService.getOhlc("HIST", BASE.minus(Duration.ofDays(1)), BASE.plus(Duration.ofDays(1)), "day");
+        assertEquals(1, days.getSize());
+        assertEquals(20, days.getHigh()[0]);
+
+        PriceSeries raw = priceHistoryService.getTicks("HIST", BASE.plusSeconds(20), BASE.plusSeconds(60));
+        assertArrayEquals(new double[]{12, 9}, raw.getPrice());
+    }
+
+    @Test
+    void recordsEveryFetchedQuote() {
+        stubQuoteProvider.setPrice("HISTFETCH", 3.0);
+        Instant before = Instant.now();
+        Double price = stockPriceService.getStockPrice("HISTFETCH");
+        priceHistoryService.flush();
+
+        PriceSeries raw = priceHistoryService.getTicks("HISTFETCH", before, Instant.now().plusSeconds(1));
+        assertEquals(1, raw.getSize());
+        assertEquals(price, raw.getPrice()[0], 1e-9);
+    }
+
+    @Test
+    void rejectsUnknownIntervalsAndOversizedRawRanges() {
+        assertThrows(IllegalArgumentException.class,
+                () -> priceHistoryService.getOhlc("HIST", BASE, BASE.plusSeconds(60), "week"));
+        assertThrows(IllegalArgumentException.class,
+                () -> priceHistoryService.getTicks("HIST", BASE, BASE.plus(Duration.ofDays(30))));
+    }
+}
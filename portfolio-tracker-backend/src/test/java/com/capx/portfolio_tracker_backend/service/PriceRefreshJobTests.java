@@ -0,0 +1,121 @@
+package com.capx.portfolio_tracker_backend.service;
+
+import com.capx.portfolio_tracker_backend.models.PriceRefreshCheckpoint;
+import com.capx.portfolio_tracker_backend.models.Stock;
+import com.capx.portfolio_tracker_backend.repository.PriceRefreshCheckpointRepository;
+import com.capx.portfolio_tracker_backend.repository.StockRepository;
+import com.capx.portfolio_tracker_backend.service.quote.StubQuoteProvider;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.PayloadApplicationEvent;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Zero TTLs so every run goes back to the quote provider
+@SpringBootTest(properties = {
+        "quote.cache.market-open-ttl-seconds=0",
+        "quote.cache.market-closed-ttl-seconds=0",
+        "price.refresh.chunk-size=2"
+})
+class PriceRefreshJobTests {
+    @Autowired
+    private PriceRefreshJob priceRefreshJob;
+
+    @Autowired
+    private StockRepository stockRepository;
+
+    @Autowired
+    private PriceRefreshCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private StubQuoteProvider stubQuoteProvider;
+
+    @Autowired
+    private ConfigurableApplicationContext applicationContext;
+
+    private final List<Stock> stocks = new ArrayList<>();
+
+    @BeforeEach
+    void seedStocks() {
+        checkpointRepository.deleteAll();
+        stockRepository.deleteAll();
+        stocks.clear();
+        for (int i = 0; i < 5; i++) {
+            stubQuoteProvider.setPrice("RFR" + i, 10.0 + i);
+            stocks.add(stockRepository.save(new Stock("Refresh " + i, "RFR" + i, 1, 100.0, null)));
+        }
+    }
+
+    @Test
+    void writesOnlyRowsWhosePriceChanged() {
+        Map<String, Object> first = priceRefreshJob.refresh();
+        assertEquals(5L, first.get("rowsScanned"));
+        assertEquals(5L, first.get("rowsUpdated"));
+
+        stubQuoteProvider.setPrice("RFR3", 99.0);
+        Map<String, Object> second = priceRefreshJob.refresh();
+        assertEquals(5L, second.get("rowsScanned"));
+        assertEquals(1L, second.get("rowsUpdated"));
+
+        Stock changed = stockRepository.findById(stocks.get(3).getId()).orElseThrow();
+        Stock unchanged = stockRepository.findById(stocks.get(2).getId()).orElseThrow();
+        assertNotEquals(unchanged.getCurrentPrice(), changed.getCurrentPrice());
+        double expectedChange = (changed.getCurrentPrice() - 100.0) / 100.0 * 100;
+        assertEquals(expectedChange, changed.getPercentageChange(), 1e-9);
+        assertFalse(checkpointRepository.findById(PriceRefreshJob.JOB_NAME).orElseThrow().isRunning());
+    }
+
+    @Test
+    void rewritesEarlierChunksWhenAPriceChangesMidRun() {
+        // A second holding of RFR0 lands in the last chunk, which fetches RFR0 again
+        Stock later = new Stock("Refresh 0 again", "RFR0", 2, 100.0, null);
+        later.setPortfolioId(2L);
+        stocks.add(stockRepository.save(later));
+        // The quote moves as soon as the first chunk has cached it
+        ApplicationListener<PayloadApplicationEvent<?>> moveQuote = event -> {
+            if (event.getPayload() instanceof PriceUpdateEvent update
+                    && update.getTicker().equals("RFR0") && update.getPrice() == 10.0) {
+                stubQuoteProvider.setPrice("RFR0", 55.0);
+            }
+        };
+        applicationContext.addApplicationListener(moveQuote);
+        Map<String, Object> stats;
+        try {
+            stats = priceRefreshJob.refresh();
+        } finally {
+            applicationContext.removeApplicationListener(moveQuote);
+        }
+
+        assertEquals(1L, stats.get("rowsReconciled"));
+        assertEquals(55.0, stockRepository.findById(stocks.get(0).getId()).orElseThrow().getCurrentPrice());
+        assertEquals(55.0, stockRepository.findById(later.getId()).orElseThrow().getCurrentPrice());
+    }
+
+    @Test
+    void resumesAnInterruptedRunAfterTheCheckpoint() {
+        PriceRefreshCheckpoint checkpoint = new PriceRefreshCheckpoint(PriceRefreshJob.JOB_NAME);
+        checkpoint.start(Instant.now());
+        checkpoint.setLastStockId(stocks.get(2).getId());
+        checkpoint.setRowsScanned(3);
+        checkpointRepository.save(checkpoint);
+
+        Map<String, Object> stats = priceRefreshJob.refresh();
+
+        assertTrue((Boolean) stats.get("resumed"));
+        assertEquals(2L, stats.get("rowsScanned"));
+        assertEquals(null, stockRepository.findById(stocks.get(0).getId()).orElseThrow().getCurrentPrice());
+        assertEquals(5L, checkpointRepository.findById(PriceRefreshJob.JOB_NAME).orElseThrow().getRowsScanned());
+    }
+}
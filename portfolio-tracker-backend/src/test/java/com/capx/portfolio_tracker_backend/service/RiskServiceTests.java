@@ -0,0 +1,183 @@
+package com.capx.portfolio_tracker_backend.service;
+
+import com.capx.portfolio_tracker_backend.models.HoldingRisk;
+import com.capx.portfolio_tracker_backend.models.RiskReport;
+import com.capx.portfolio_tracker_backend.models.Stock;
+import com.capx.portfolio_tracker_backend.service.quote.StubQuoteProvider;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class RiskServiceTests {
+    private static final int DAYS = 60;
+
+    @Autowired
+    private RiskService riskService;
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private PortfolioService portfolioService;
+
+    @Autowired
+    private PriceHistoryService priceHistoryService;
+
+    @Autowired
+    private StubQuoteProvider stubQuoteProvider;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void measuresRiskFromDailyCloses() {
+        long portfolioId = portfolioService.createPortfolio("Risk", "risk-owner", null).getId();
+        // RISKB moves twice as much as RISKA in log terms, and the benchmark moves with RISKA
+        SplittableRandom random = new SplittableRandom(7);
+        double logA = Math.log(100.0);
+        double logB = Math.log(50.0);
+        Instant today = Instant.now();
+        for (int d = DAYS; d >= 1; d--) {
+            Instant day = today.minus(Duration.ofDays(d));
+            double move = random.nextDouble(-0.02, 0.02);
+            logA += move;
+            logB += 2 * move;
+            priceHistoryService.record("RISKA", Math.exp(logA), day);
+            priceHistoryService.record("RISKB", Math.exp(logB), day);
+            priceHistoryService.record("SPY", Math.exp(logA), day);
+        }
+        priceHistoryService.record("RISKNEW", 10.0, today.minus(Duration.ofDays(2)));
+        priceHistoryService.flush();
+        // Today's fetched prices equal yesterday's closes, so today adds a zero return
+        stubQuoteProvider.setPrice("RISKA", Math.exp(logA));
+        stubQuoteProvider.setPrice("RISKB", Math.exp(logB));
+        stubQuoteProvider.setPrice("RISKNEW", 10.0);
+        stockService.saveStock(portfolioId, new Stock("Risk A", "RISKA", 10, 90.0, null));
+        stockService.saveStock(portfolioId, new Stock("Risk B", "RISKB", 20, 40.0, null));
+        stockService.saveStock(portfolioId, new Stock("Risk New", "RISKNEW", 5, 10.0, null));
+
+        RiskReport report = riskService.getRiskReport(portfolioId);
+
+        assertEquals(List.of("RISKA", "RISKB"), report.getTickers());
+        assertEquals(1.0, report.getCorrelation()[0][1], 1e-9);
+        HoldingRisk a = report.getHoldings().get(0);
+        HoldingRisk b = report.getHoldings().get(1);
+        HoldingRisk young = report.getHoldings().get(2);
+        assertEquals(2 * a.getVolatility(), b.getVolatility(), 1e-9);
+        assertEquals(1.0, a.getBeta(), 1e-9);
+        assertEquals(2.0, b.getBeta(), 1e-9);
+        assertNull(young.getVolatility());
+        assertEquals(report.getTotalValue() - young.getValue(), report.getModelledValue(), 1e-9);
+
+        assertNotNull(report.getHistoricalVar());
+        assertTrue(report.getHistoricalVar() > 0.0);
+        assertTrue(report.getMonteCarloVar() > 0.0);
+        assertTrue(report.getMonteCarloVar() < report.getModelledValue());
+
+        assertSame(report, riskService.getRiskReport(portfolioId));
+        stockService.saveStock(portfolioId, new Stock("Risk C", "RISKC", 1, 90.0, null));
+        assertNotSame(report, riskService.getRiskReport(portfolioId));
+    }
+
+    @Test
+    void concurrentRequestsShareOneComputation() throws Exception {
+        long portfolioId = portfolioService.createPortfolio("Risk shared", "risk-owner", null).getId();
+        Instant today = Instant.now();
+        for (int d = DAYS; d >= 1; d--) {
+            priceHistoryService.record("RISKS", 100.0 + d % 7, today.minus(Duration.ofDays(d)));
+        }
+        priceHistoryService.flush();
+        stockService.saveStock(portfolioId, new Stock("Risk Shared", "RISKS", 10, 90.0, null));
+        Timer duration = meterRegistry.get("portfolio.risk.duration").timer();
+        long computed = duration.count();
+
+        ExecutorService requests = Executors.newFixedThreadPool(4);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<RiskReport>> reports = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            reports.add(requests.submit(() -> {
+                start.await();
+                return riskService.getRiskReport(portfolioId);
+            }));
+        }
+        start.countDown();
+        RiskReport first = reports.get(0).get();
+        for (Future<RiskReport> report : reports) {
+            assertSame(first, report.get());
+        }
+        requests.shutdown();
+
+        assertEquals(computed + 1, duration.count());
+    }
+
+    @Test
+    void monteCarloVarMatchesTheNormalQuantile() {
+        // Alternating +-1% daily log returns: mean 0 and a sample deviation just over 1%
+        double[] returns = new double[250];
+        for (int t = 0; t < returns.length; t++) {
+            returns[t] = t % 2 == 0 ? 0.01 : -0.01;
+        }
+        double sigma = RiskCalculator.stdDev(returns);
+        double value = 1_000_000;
+
+        double var = RiskCalculator.monteCarloVar(new double[][]{returns}, new double[]{value}, 0.95, 1, 100_000, 1);
+
+        // 95% quantile of the normal is 1.645; expm1 of the log-return quantile gives the loss
+        double expected = -value * Math.expm1(-1.6449 * sigma);
+        assertEquals(expected, var, expected * 0.02);
+        assertEquals(var, RiskCalculator.monteCarloVar(new double[][]{returns}, new double[]{value}, 0.95, 1, 100_000, 1));
+    }
+
+    @Test
+    void monteCarloVarKeepsTheCovarianceOfManyHoldings() {
+        // More holdings than shared factors: a weak market factor, so most risk is each holding's own
+        SplittableRandom random = new SplittableRandom(7);
+        int holdings = 60;
+        double[] market = new double[250];
+        for (int t = 0; t < market.length; t++) {
+            market[t] = random.nextGaussian() * 0.004;
+        }
+        double[][] returns = new double[holdings][market.length];
+        double[] values = new double[holdings];
+        for (int i = 0; i < holdings; i++) {
+            double beta = random.nextDouble(0.5, 1.5);
+            for (int t = 0; t < market.length; t++) {
+                returns[i][t] = beta * market[t] + random.nextGaussian() * 0.02;
+            }
+            values[i] = random.nextDouble(1_000, 10_000);
+        }
+        // Standard deviation of the portfolio's daily P&L, to first order: sqrt(v^T * covariance * v)
+        double[] pnl = new double[market.length];
+        for (int i = 0; i < holdings; i++) {
+            double mean = RiskCalculator.mean(returns[i]);
+            for (int t = 0; t < market.length; t++) {
+                pnl[t] += values[i] * (returns[i][t] - mean);
+            }
+        }
+        double sigma = RiskCalculator.stdDev(pnl);
+
+        double var = RiskCalculator.monteCarloVar(returns, values, 0.95, 1, 100_000, 1);
+
+        assertEquals(1.6449 * sigma, var, 1.6449 * sigma * 0.03);
+    }
+}
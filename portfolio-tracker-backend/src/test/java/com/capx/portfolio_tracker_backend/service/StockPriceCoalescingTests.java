@@ -0,0 +1,87 @@
+package com.capx.portfolio_tracker_backend.service;
+
+import com.capx.portfolio_tracker_backend.service.quote.StubQuoteProvider;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Prices expire after one second here so stale-while-revalidate can be observed
+@SpringBootTest(properties = {
+        "quote.cache.market-open-ttl-seconds=1",
+        "quote.cache.market-closed-ttl-seconds=1"
+})
+class StockPriceCoalescingTests {
+    @Autowired
+    private StockPriceService stockPriceService;
+
+    @Autowired
+    private StubQuoteProvider stubQuoteProvider;
+
+    @AfterEach
+    void restoreProvider() {
+        stubQuoteProvider.setLatencyMs(0);
+    }
+
+    @Test
+    void concurrentMissesShareOneUpstreamFetch() throws Exception {
+        stubQuoteProvider.setLatencyMs(300);
+        stubQuoteProvider.resetRequestCount();
+        long coalescedBefore = stockPriceService.getFetchMetrics().get("coalescedRequests");
+
+        int callers = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(callers);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Double>> results = new ArrayList<>();
+        for (int i = 0; i < callers; i++) {
+            results.add(pool.submit(() -> {
+                start.await();
+                return stockPriceService.getStockPrice("COAL");
+            }));
+        }
+        start.countDown();
+        for (Future<Double> result : results) {
+            assertNotNull(result.get());
+        }
+        pool.shutdown();
+
+        assertEquals(1, stubQuoteProvider.getRequestCount());
+        assertEquals(callers - 1, stockPriceService.getFetchMetrics().get("coalescedRequests") - coalescedBefore);
+    }
+
+    @Test
+    void expiredPriceIsServedWhileRefreshingInBackground() throws Exception {
+        stubQuoteProvider.setPrice("SWR", 1.0);
+        Double initial = stockPriceService.getStockPrice("SWR");
+        Thread.sleep(1100);
+
+        stubQuoteProvider.setPrice("SWR", 2.0);
+        stubQuoteProvider.setLatencyMs(300);
+        long staleBefore = stockPriceService.getFetchMetrics().get("staleHits");
+        long started = System.nanoTime();
+        Double stale = stockPriceService.getStockPrice("SWR");
+        long elapsedMs = (System.nanoTime() - started) / 1_000_000;
+
+        assertEquals(initial, stale);
+        assertTrue(elapsedMs < 300, "stale read should not wait for the upstream fetch");
+        assertEquals(1, stockPriceService.getFetchMetrics().get("staleHits") - staleBefore);
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (stockPriceService.getFetchMetrics().get("inFlight") > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        stubQuoteProvider.setLatencyMs(0);
+        assertEquals(initial * 2, stockPriceService.getStockPrice("SWR"), 1e-9);
+    }
+}
@@ -0,0 +1,102 @@
+package com.capx.portfolio_tracker_backend.service;
+
+import com.capx.portfolio_tracker_backend.models.Stock;
+import com.capx.portfolio_tracker_backend.repository.StockRepository;
+import com.capx.portfolio_tracker_backend.service.quote.StubQuoteProvider;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class StockPriceServiceTests {
+    @Autowired
+    private StockPriceService stockPriceService;
+
+    @Autowired
+    private StubQuoteProvider stubQuoteProvider;
+
+    @Autowired
+    private StockRepository stockRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void resetProvider() {
+        stubQuoteProvider.resetRequestCount();
+    }
+
+    @AfterEach
+    void restoreProvider() {
+        stubQuoteProvider.setBulkEnabled(true);
+        stubQuoteProvider.setBatchSize(100);
+        stubQuoteProvider.setFailureRate(0.0);
+    }
+
+    @Test
+    void batchesCacheMissesIntoBulkRequests() {
+        List<String> tickers = tickers("BULK", 250);
+
+        Map<String, Double> prices = stockPriceService.getStockPrices(tickers);
+
+        assertEquals(250, prices.size());
+        assertEquals(3, stubQuoteProvider.getRequestCount());
+
+        // Second lookup is served entirely from the cache
+        stockPriceService.getStockPrices(tickers);
+        assertEquals(3, stubQuoteProvider.getRequestCount());
+    }
+
+    @Test
+    void fansOutSingleQuotesWhenBulkIsUnavailable() {
+        stubQuoteProvider.setBulkEnabled(false);
+        stubQuoteProvider.setPrice("FAN0", 2.0);
+        List<String> tickers = tickers("FAN", 20);
+
+        Map<String, Double> prices = stockPriceService.getStockPrices(tickers);
+
+        assertEquals(20, prices.size());
+        assertEquals(20, stubQuoteProvider.getRequestCount());
+        assertEquals(stockPriceService.getStockPrice("FAN0"), prices.get("FAN0"));
+    }
+
+    @Test
+    void recordsUpstreamLatencyAndLookupOutcomes() {
+        long attempts = meterRegistry.get("quote.upstream.latency").tag("outcome", "success").timer().count();
+        double hits = meterRegistry.get("quote.lookups").tag("result", "hit").functionCounter().count();
+
+        stockPriceService.getStockPrice("METER");
+        stockPriceService.getStockPrice("METER");
+
+        assertEquals(attempts + 1, meterRegistry.get("quote.upstream.latency").tag("outcome", "success").timer().count());
+        assertEquals(hits + 1, meterRegistry.get("quote.lookups").tag("result", "hit").functionCounter().count());
+        assertTrue(meterRegistry.get("cache.size").tag("cache", "quote.prices").gauge().value() >= 1);
+    }
+
+    @Test
+    void fallsBackToThePersistedPriceWhenNoProviderAnswers() {
+        stockRepository.save(new Stock("Persisted", "PERSIST", 1, 40.0, 42.5));
+        stubQuoteProvider.setFailureRate(1.0);
+
+        // One lookup: three failed attempts stay below the circuit breaker's threshold
+        assertEquals(42.5, stockPriceService.getStockPrice("PERSIST"));
+    }
+
+    private static List<String> tickers(String prefix, int count) {
+        List<String> tickers = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            tickers.add(prefix + i);
+        }
+        return tickers;
+    }
+}
@@ -0,0 +1,151 @@
+package com.capx.portfolio_tracker_backend.service;
+
+import com.capx.portfolio_tracker_backend.models.PortfolioSnapshot;
+import com.capx.portfolio_tracker_backend.models.Stock;
+import com.capx.portfolio_tracker_backend.service.quote.StubQuoteProvider;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class StockServiceTests {
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private StubQuoteProvider stubQuoteProvider;
+
+    @Autowired
+    private PriceRefreshJob priceRefreshJob;
+
+    @Autowired
+    private StockPriceService stockPriceService;
+
+    @Autowired
+    private PortfolioService portfolioService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long portfolioId;
+
+    @BeforeEach
+    void clearPortfolio() {
+        portfolioId = portfolioService.getDefaultPortfolioId();
+        stockService.deleteAllStocks(portfolioId);
+    }
+
+    @Test
+    void storesTheDefaultCurrencyWhenNoneIsGiven() throws Exception {
+        // Same constraint as SQL/TABLES.sql, so a NULL currency would be rejected
+        assertEquals("NO", jdbcTemplate.queryForObject("SELECT IS_NULLABLE FROM INFORMATION_SCHEMA.COLUMNS"
+                + " WHERE TABLE_NAME = 'STOCKS' AND COLUMN_NAME = 'CURRENCY'", String.class));
+        Stock added = stockService.saveStock(portfolioId, new Stock("No Currency", "NOCCY", 1, 10.0, null));
+        Stock update = new Stock("No Currency", "NOCCY", 2, 10.0, null);
+        update.setCurrency(null);
+        stockService.updateStock(portfolioId, added.getId(), update);
+
+        assertEquals(Stock.DEFAULT_CURRENCY, jdbcTemplate.queryForObject(
+                "SELECT currency FROM stocks WHERE id = ?", String.class, added.getId()));
+    }
+
+    @Test
+    void snapshotComputesAllMetricsInOnePass() {
+        stubQuoteProvider.setPrice("SNAPA", 2.0);
+        stubQuoteProvider.setPrice("SNAPB", 1.0);
+        stockService.saveStock(portfolioId, new Stock("Snap A", "SNAPA", 3, 100.0, null));
+        stockService.saveStock(portfolioId, new Stock("Snap B", "SNAPB", 2, 100.0, null));
+
+        PortfolioSnapshot snapshot = stockService.getPortfolioSnapshot(portfolioId);
+
+        double priceA = stockService.getAllStocks(portfolioId).get(0).getCurrentPrice();
+        double priceB = stockService.getAllStocks(portfolioId).get(1).getCurrentPrice();
+        double totalValue = priceA * 3 + priceB * 2;
+        assertEquals(2, snapshot.getStockCount());
+        assertEquals(totalValue, snapshot.getTotalValue(), 1e-9);
+        assertEquals(500.0, snapshot.getTotalInvested(), 1e-9);
+        assertEquals(totalValue - 500.0, snapshot.getProfitLoss(), 1e-9);
+        assertEquals(priceA * 3 / totalValue * 100, snapshot.getDistribution().get("Snap A"), 1e-9);
+        assertEquals("SNAPA", snapshot.getTopPerformingStock().getTicker());
+    }
+
+    @Test
+    void snapshotIsReusedUntilHoldingsChange() {
+        stockService.saveStock(portfolioId, new Stock("Memo", "MEMO", 1, 10.0, null));
+
+        PortfolioSnapshot first = stockService.getPortfolioSnapshot(portfolioId);
+        assertSame(first, stockService.getPortfolioSnapshot(portfolioId));
+
+        stockService.saveStock(portfolioId, new Stock("Memo Two", "MEMO2", 1, 10.0, null));
+        PortfolioSnapshot second = stockService.getPortfolioSnapshot(portfolioId);
+        assertNotSame(first, second);
+        assertEquals(2, second.getStockCount());
+    }
+
+    @Test
+    void snapshotUsesDatabaseAggregatesWhilePersistedPricesAreCurrent() {
+        stubQuoteProvider.setPrice("AGGA", 4.0);
+        stubQuoteProvider.setPrice("AGGB", 2.0);
+        stockService.saveStock(portfolioId, new Stock("Agg A", "AGGA", 2, 100.0, null));
+        stockService.saveStock(portfolioId, new Stock("Agg B", "AGGB", 5, 100.0, null));
+        PortfolioSnapshot live = stockService.getPortfolioSnapshot(portfolioId);
+        assertEquals(PortfolioSnapshot.SOURCE_LIVE, live.getSource());
+
+        priceRefreshJob.refresh();
+        stockService.onStocksChanged(); // Drop the memoized live snapshot
+        PortfolioSnapshot persisted = stockService.getPortfolioSnapshot(portfolioId);
+
+        assertEquals(PortfolioSnapshot.SOURCE_PERSISTED, persisted.getSource());
+        assertEquals(live.getTotalValue(), persisted.getTotalValue(), 1e-6);
+        assertEquals(live.getTotalInvested(), persisted.getTotalInvested(), 1e-6);
+        assertEquals(live.getStockCount(), persisted.getStockCount());
+        assertEquals(live.getDistribution().get("Agg B"), persisted.getDistribution().get("Agg B"), 1e-6);
+        assertEquals("AGGA", persisted.getTopPerformingStock().getTicker());
+
+        // A new price in the cache means the persisted prices may be behind
+        stockPriceService.getStockPrice("AGGC");
+        assertEquals(PortfolioSnapshot.SOURCE_LIVE, stockService.getPortfolioSnapshot(portfolioId).getSource());
+    }
+
+    @Test
+    void repeatedReadsAreServedFromTheSecondLevelCache() throws Exception {
+        Stock saved = stockService.saveStock(portfolioId, new Stock("Cached", "L2C", 3, 10.0, null));
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        stockService.getAllStocks(portfolioId);
+        long queryHits = statistics.getQueryCacheHitCount();
+        stockService.getAllStocks(portfolioId);
+        assertTrue(statistics.getQueryCacheHitCount() > queryHits);
+
+        stockService.getStockById(portfolioId, saved.getId());
+        long entityHits = statistics.getSecondLevelCacheHitCount();
+        stockService.getStockById(portfolioId, saved.getId());
+        assertTrue(statistics.getSecondLevelCacheHitCount() > entityHits);
+
+        // Writes through the service are seen at once
+        Stock update = new Stock("Cached", "L2C", 7, 10.0, null);
+        stockService.updateStock(portfolioId, saved.getId(), update);
+        assertEquals(7, stockService.getAllStocks(portfolioId).get(0).getQuantity());
+
+        // Plain JDBC writes are seen once the rows are evicted
+        jdbcTemplate.update("UPDATE stocks SET current_price = 123.0 WHERE id = ?", saved.getId());
+        stockService.onStocksChanged(List.of(saved.getId()));
+        assertEquals(123.0, stockService.getStockById(portfolioId, saved.getId()).orElseThrow().getCurrentPrice());
+        assertEquals(123.0, stockService.getAllStocks(portfolioId).get(0).getCurrentPrice());
+    }
+}
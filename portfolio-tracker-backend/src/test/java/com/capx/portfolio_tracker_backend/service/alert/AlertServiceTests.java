@@ -0,0 +1,129 @@
+package com.capx.portfolio_tracker_backend.service.alert;
+
+import com.capx.portfolio_tracker_backend.models.AlertRule;
+import com.capx.portfolio_tracker_backend.models.AlertRuleType;
+import com.capx.portfolio_tracker_backend.models.Stock;
+import com.capx.portfolio_tracker_backend.repository.AlertRuleRepository;
+import com.capx.portfolio_tracker_backend.service.PortfolioService;
+import com.capx.portfolio_tracker_backend.service.PriceUpdateEvent;
+import com.capx.portfolio_tracker_backend.service.StockPriceService;
+import com.capx.portfolio_tracker_backend.service.StockService;
+import com.capx.portfolio_tracker_backend.service.quote.StubQuoteProvider;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class AlertServiceTests {
+    @Autowired
+    private AlertService alertService;
+
+    @Autowired
+    private AlertRuleRepository alertRuleRepository;
+
+    @Autowired
+    private PortfolioService portfolioService;
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private StockPriceService stockPriceService;
+
+    @Autowired
+    private StubQuoteProvider stubQuoteProvider;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Test
+    void firesThePriceRulesAQuoteCrosses() throws InterruptedException {
+        long portfolioId = portfolioService.createPortfolio("Alerts", "alert-owner", null).getId();
+        stubQuoteProvider.setPrice("ALRTA", 100.0);
+        Stock stock = stockService.saveStock(portfolioId, new Stock("Alert A", "ALRTA", 10, 100.0, null));
+        long indexed = alertService.getIndexedRuleCount();
+
+        AlertRule below95 = alertService.createRule(portfolioId, new AlertRule(AlertRuleType.PRICE_BELOW, "ALRTA", null, null, 95.0));
+        AlertRule below80 = alertService.createRule(portfolioId, new AlertRule(AlertRuleType.PRICE_BELOW, "ALRTA", null, null, 80.0));
+        AlertRule above105 = alertService.createRule(portfolioId, new AlertRule(AlertRuleType.PRICE_ABOVE, "ALRTA", null, null, 105.0));
+        AlertRule drop10 = alertService.createRule(portfolioId, new AlertRule(AlertRuleType.POSITION_DROP, null, stock.getId(), 10.0, null));
+        assertEquals(90.0, drop10.getThreshold(), 1e-9);
+        assertEquals(indexed + 4, alertService.getIndexedRuleCount());
+        assertThrows(IllegalArgumentException.class, () -> alertService.createRule(portfolioId,
+                new AlertRule(AlertRuleType.PRICE_BELOW, "ALRTA", null, null, null)));
+        assertThrows(IllegalArgumentException.class, () -> alertService.createRule(portfolioId,
+                new AlertRule(AlertRuleType.POSITION_DROP, null, -1L, 10.0, null)));
+
+        // The quote is cached and fresh, so publish the next one the way the price cache would
+        quote("ALRTA", 89.0);
+
+        AlertRule fired = awaitTriggered(below95.getId());
+        assertEquals(89.0, fired.getTriggeredValue(), 1e-9);
+        assertNotNull(awaitTriggered(drop10.getId()).getTriggeredAt());
+        assertNull(alertRuleRepository.findById(below80.getId()).orElseThrow().getTriggeredAt());
+        assertNull(alertRuleRepository.findById(above105.getId()).orElseThrow().getTriggeredAt());
+        assertEquals(indexed + 2, alertService.getIndexedRuleCount());
+
+        assertTrue(alertService.deleteRule(portfolioId, below80.getId()));
+        assertEquals(indexed + 1, alertService.getIndexedRuleCount());
+        assertEquals(3, alertService.getRules(portfolioId).size());
+    }
+
+    @Test
+    void fetchedQuotesAreEvaluated() throws InterruptedException {
+        long portfolioId = portfolioService.createPortfolio("Alert Fetch", "alert-owner", null).getId();
+        AlertRule above = alertService.createRule(portfolioId, new AlertRule(AlertRuleType.PRICE_ABOVE, "ALRTC", null, null, 50.0));
+        stubQuoteProvider.setPrice("ALRTC", 51.0);
+
+        assertEquals(51.0, stockPriceService.getStockPrice("ALRTC"), 1e-9);
+
+        assertEquals(51.0, awaitTriggered(above.getId()).getTriggeredValue(), 1e-9);
+    }
+
+    @Test
+    void firesPortfolioChangeRulesOncePerDay() throws InterruptedException {
+        long portfolioId = portfolioService.createPortfolio("Alert Change", "alert-owner", null).getId();
+        stubQuoteProvider.setPrice("ALRTB", 100.0);
+        stockService.saveStock(portfolioId, new Stock("Alert B", "ALRTB", 10, 100.0, null));
+        AlertRule rule = alertService.createRule(portfolioId, new AlertRule(AlertRuleType.PORTFOLIO_CHANGE, null, null, 5.0, null));
+
+        // A new holding adds 6% to the value; the next quote of a held ticker re-evaluates the portfolio
+        stubQuoteProvider.setPrice("ALRTD", 10.0);
+        stockService.saveStock(portfolioId, new Stock("Alert D", "ALRTD", 6, 10.0, null));
+        quote("ALRTB", 100.0);
+
+        AlertRule fired = awaitTriggered(rule.getId());
+        assertEquals(6.0, fired.getTriggeredValue(), 1e-9);
+
+        // A bigger move the same day does not fire again
+        stubQuoteProvider.setPrice("ALRTE", 10.0);
+        stockService.saveStock(portfolioId, new Stock("Alert E", "ALRTE", 50, 10.0, null));
+        quote("ALRTB", 100.0);
+        Thread.sleep(300);
+        assertEquals(6.0, alertRuleRepository.findById(rule.getId()).orElseThrow().getTriggeredValue(), 1e-9);
+    }
+
+    private void quote(String ticker, double price) {
+        eventPublisher.publishEvent(new PriceUpdateEvent(ticker, price, Instant.now()));
+    }
+
+    private AlertRule awaitTriggered(long ruleId) throws InterruptedException {
+        for (int attempt = 0; attempt < 100; attempt++) {
+            AlertRule rule = alertRuleRepository.findById(ruleId).orElseThrow();
+            if (rule.getTriggeredAt() != null) {
+                return rule;
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("Rule " + ruleId + " did not fire");
+    }
+}
@@ -0,0 +1,80 @@
+package com.capx.portfolio_tracker_backend.service.alert;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ThresholdIndexTests {
+    @Test
+    void takesOnlyTheRulesThePriceCrosses() {
+        ThresholdIndex index = new ThresholdIndex();
+        index.add(1, 100.0, true);  // below 100
+        index.add(2, 90.0, true);   // below 90
+        index.add(3, 110.0, false); // above 110
+        index.add(4, 120.0, false); // above 120
+        index.add(5, 95.0, true);   // below 95
+
+        assertEquals(0, index.takeTriggered(100.0).length); // equal to the threshold is not below it
+        assertArrayEquals(new long[]{5, 1}, index.takeTriggered(92.0));
+        assertEquals(0, index.takeTriggered(92.0).length);  // fired rules are gone
+        assertArrayEquals(new long[]{3}, index.takeTriggered(115.0));
+        assertArrayEquals(new long[]{2}, index.takeTriggered(85.0));
+        assertEquals(1, index.size());
+        assertArrayEquals(new long[]{4}, index.takeTriggered(125.0));
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void removesOneRuleAmongEqualThresholds() {
+        ThresholdIndex index = new ThresholdIndex();
+        index.add(1, 50.0, false);
+        index.add(2, 50.0, false);
+        index.add(3, 50.0, false);
+
+        assertTrue(index.remove(2, 50.0, false));
+        assertFalse(index.remove(2, 50.0, false));
+        assertFalse(index.remove(1, 50.0, true));
+        assertArrayEquals(new long[]{1, 3}, index.takeTriggered(51.0));
+    }
+
+    @Test
+    void bulkLoadedIndexMatchesABruteForceScan() {
+        SplittableRandom random = new SplittableRandom(3);
+        int rules = 100_000;
+        double[] thresholds = new double[rules];
+        boolean[] below = new boolean[rules];
+        boolean[] fired = new boolean[rules];
+        ThresholdIndex index = new ThresholdIndex();
+        for (int id = 0; id < rules; id++) {
+            thresholds[id] = random.nextDouble(50.0, 150.0);
+            below[id] = random.nextBoolean();
+            index.append(id, thresholds[id], below[id]);
+        }
+        index.sort();
+
+        for (int quote = 0; quote < 200; quote++) {
+            double price = 100.0 + random.nextGaussian() * 10.0;
+            long[] expected = new long[rules];
+            int count = 0;
+            for (int id = 0; id < rules; id++) {
+                if (!fired[id] && (below[id] ? price < thresholds[id] : price > thresholds[id])) {
+                    fired[id] = true;
+                    expected[count++] = id;
+                }
+            }
+            assertArrayEquals(Arrays.copyOf(expected, count), sorted(index.takeTriggered(price)));
+        }
+    }
+
+    private static long[] sorted(long[] ids) {
+        long[] copy = ids.clone();
+        Arrays.sort(copy);
+        return copy;
+    }
+}
@@ -0,0 +1,79 @@
+package com.capx.portfolio_tracker_backend.service.fx;
+
+import com.capx.portfolio_tracker_backend.models.PortfolioSnapshot;
+import com.capx.portfolio_tracker_backend.models.Stock;
+import com.capx.portfolio_tracker_backend.service.PortfolioService;
+import com.capx.portfolio_tracker_backend.service.StockService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+class FxRateServiceTests {
+    @Autowired
+    private FxRateService fxRateService;
+
+    @Autowired
+    private StubFxRateProvider stubFxRateProvider;
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private PortfolioService portfolioService;
+
+    @Test
+    void snapshotIsConvertedIntoTheReportingCurrency() {
+        fxRateService.refresh();
+        long portfolioId = portfolioService.createPortfolio("Euro", "fx-user", "eur").getId();
+        Stock listedInEuro = new Stock("Euro Listed", "FXEUR", 2, 10.0, null);
+        listedInEuro.setCurrency("EUR");
+        stockService.saveStock(portfolioId, listedInEuro);
+        stockService.saveStock(portfolioId, new Stock("Dollar Listed", "FXUSD", 1, 100.0, null));
+
+        PortfolioSnapshot snapshot = stockService.getPortfolioSnapshot(portfolioId);
+        double eurPerUsd = fxRateService.getRates().rate("USD", "EUR");
+        assertEquals("EUR", snapshot.getCurrency());
+        assertEquals(20.0 + 100.0 * eurPerUsd, snapshot.getTotalInvested(), 1e-9);
+
+        portfolioService.setReportingCurrency(portfolioId, "USD");
+        PortfolioSnapshot inDollars = stockService.getPortfolioSnapshot(portfolioId);
+        assertEquals("USD", inDollars.getCurrency());
+        assertEquals(20.0 / eurPerUsd + 100.0, inDollars.getTotalInvested(), 1e-9);
+
+        assertThrows(IllegalArgumentException.class, () -> portfolioService.setReportingCurrency(portfolioId, "XYZ"));
+    }
+
+    @Test
+    void rateChangeInvalidatesMemoizedSnapshots() {
+        fxRateService.refresh();
+        long portfolioId = portfolioService.createPortfolio("Rupee", "fx-user", "INR").getId();
+        stockService.saveStock(portfolioId, new Stock("Rupee Holding", "FXINR", 1, 10.0, null));
+        PortfolioSnapshot first = stockService.getPortfolioSnapshot(portfolioId);
+        assertSame(first, stockService.getPortfolioSnapshot(portfolioId));
+
+        // An unchanged table keeps the version, so nothing is recomputed
+        long version = fxRateService.getVersion();
+        fxRateService.refresh();
+        assertEquals(version, fxRateService.getVersion());
+        assertSame(first, stockService.getPortfolioSnapshot(portfolioId));
+
+        double inr = fxRateService.getRates().rate("USD", "INR");
+        stubFxRateProvider.setRate("INR", inr * 2);
+        try {
+            fxRateService.refresh();
+            PortfolioSnapshot second = stockService.getPortfolioSnapshot(portfolioId);
+            assertNotSame(first, second);
+            assertEquals(version + 1, second.getFxVersion());
+            assertEquals(first.getTotalInvested() * 2, second.getTotalInvested(), 1e-9);
+        } finally {
+            stubFxRateProvider.setRate("INR", inr);
+            fxRateService.refresh();
+        }
+    }
+}
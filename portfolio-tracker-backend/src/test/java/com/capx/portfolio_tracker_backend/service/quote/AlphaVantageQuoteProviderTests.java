@@ -0,0 +1,116 @@
+package com.capx.portfolio_tracker_backend.service.quote;
+
+import com.capx.portfolio_tracker_backend.config.QuoteClientConfig;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Runs the provider against a local stub of the Alpha Vantage query endpoint
+class AlphaVantageQuoteProviderTests {
+    private static final String GLOBAL_QUOTE = "{\"Meta\": {\"note\": [1, 2]}, \"Global Quote\": {"
+            + "\"01. symbol\": \"IBM\", \"02. open\": \"231.00\", \"05. price\": \"233.4500\","
+            + " \"06. volume\": \"3040021\"}}";
+    private static final String BULK_QUOTES = "{\"endpoint\": \"Realtime Bulk Quotes\", \"data\": ["
+            + "{\"symbol\": \"IBM\", \"close\": \"233.45\"}, {\"symbol\": \"MSFT\", \"close\": \"410.10\"},"
+            + " {\"symbol\": \"NONE\", \"close\": null}]}";
+
+    private HttpServer server;
+    private final Map<String, String> responses = new ConcurrentHashMap<>();
+    private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+
+    @BeforeEach
+    void startServer() throws IOException {
+        // Without this the stub's split header/body writes stall on delayed ACKs and slow every request
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/query", exchange -> {
+            clientPorts.add(exchange.getRemoteAddress().getPort());
+            String function = exchange.getRequestURI().getQuery().replaceAll(".*function=([A-Z_]+).*", "$1");
+            byte[] body = responses.getOrDefault(function, "{}").getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        responses.put("GLOBAL_QUOTE", GLOBAL_QUOTE);
+        responses.put("REALTIME_BULK_QUOTES", BULK_QUOTES);
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    void streamsPriceOutOfGlobalQuote() throws IOException {
+        assertEquals(233.45, provider(false).fetchQuote("IBM"), 1e-9);
+    }
+
+    @Test
+    void reportsRateLimitNotesAsThrottling() {
+        responses.put("GLOBAL_QUOTE", "{\"Note\": \"Thank you for using Alpha Vantage!\"}");
+
+        IOException e = assertThrows(QuoteThrottledException.class, () -> provider(false).fetchQuote("IBM"));
+        assertTrue(e.getMessage().contains("Thank you for using Alpha Vantage!"), e.getMessage());
+    }
+
+    @Test
+    void failsWhenGlobalQuoteIsMissing() {
+        responses.put("GLOBAL_QUOTE", "{\"Error Message\": \"Invalid API call.\"}");
+
+        IOException e = assertThrows(IOException.class, () -> provider(false).fetchQuote("IBM"));
+        assertFalse(e instanceof QuoteThrottledException);
+    }
+
+    @Test
+    void emptyGlobalQuoteMeansNoQuote() throws IOException {
+        responses.put("GLOBAL_QUOTE", "{\"Global Quote\": {}}");
+
+        assertNull(provider(false).fetchQuote("NONE"));
+    }
+
+    @Test
+    void parsesBulkQuotes() throws IOException {
+        Map<String, Double> prices = provider(true).fetchQuotes(List.of("IBM", "MSFT", "NONE"));
+
+        assertEquals(Map.of("IBM", 233.45, "MSFT", 410.10), prices);
+    }
+
+    @Test
+    void reusesOneConnectionAcrossQuotes() throws IOException {
+        AlphaVantageQuoteProvider provider = provider(false);
+        for (int i = 0; i < 20; i++) {
+            provider.fetchQuote("IBM");
+        }
+
+        assertEquals(1, clientPorts.size());
+    }
+
+    private AlphaVantageQuoteProvider provider(boolean bulkEnabled) {
+        QuoteClientConfig config = new QuoteClientConfig();
+        return new AlphaVantageQuoteProvider(config.quoteHttpClient(1000), config.quoteJsonFactory(),
+                "test", baseUrl(), bulkEnabled, 2000);
+    }
+
+    private String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/query";
+    }
+}
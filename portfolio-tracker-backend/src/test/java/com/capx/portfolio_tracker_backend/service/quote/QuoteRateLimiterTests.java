@@ -0,0 +1,59 @@
+package com.capx.portfolio_tracker_backend.service.quote;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class QuoteRateLimiterTests {
+
+    @Test
+    void interactiveRequestsOvertakeQueuedBulkRequests() throws Exception {
+        QuoteRateLimiter limiter = new QuoteRateLimiter(600, 0, 5000);
+        for (int i = 0; i < 600; i++) {
+            limiter.acquire(QuotePriority.BULK);
+        }
+
+        List<QuotePriority> admitted = new CopyOnWriteArrayList<>();
+        Thread bulk = new Thread(() -> acquire(limiter, QuotePriority.BULK, admitted));
+        Thread interactive = new Thread(() -> acquire(limiter, QuotePriority.INTERACTIVE, admitted));
+        bulk.start();
+        Thread.sleep(20);
+        interactive.start();
+        bulk.join();
+        interactive.join();
+
+        assertEquals(List.of(QuotePriority.INTERACTIVE, QuotePriority.BULK), admitted);
+    }
+
+    @Test
+    void rejectsCallsOnceDailyBudgetIsSpent() throws Exception {
+        QuoteRateLimiter limiter = new QuoteRateLimiter(100, 3, 1000);
+        for (int i = 0; i < 3; i++) {
+            limiter.acquire(QuotePriority.INTERACTIVE);
+        }
+
+        assertThrows(QuoteBudgetExceededException.class, () -> limiter.acquire(QuotePriority.INTERACTIVE));
+        assertEquals(1L, limiter.getStats().get("rateLimitRejected"));
+    }
+
+    @Test
+    void givesUpAfterMaxWait() throws Exception {
+        QuoteRateLimiter limiter = new QuoteRateLimiter(1, 0, 50);
+        limiter.acquire(QuotePriority.INTERACTIVE);
+
+        assertThrows(QuoteBudgetExceededException.class, () -> limiter.acquire(QuotePriority.BULK));
+    }
+
+    private static void acquire(QuoteRateLimiter limiter, QuotePriority priority, List<QuotePriority> admitted) {
+        try {
+            limiter.acquire(priority);
+            admitted.add(priority);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
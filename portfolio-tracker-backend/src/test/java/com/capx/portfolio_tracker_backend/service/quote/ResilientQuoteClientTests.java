@@ -0,0 +1,168 @@
+package com.capx.portfolio_tracker_backend.service.quote;
+
+import com.capx.portfolio_tracker_backend.config.QuoteResilienceProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Drives the client against two stub providers with injected latency, failures and zero prices
+class ResilientQuoteClientTests {
+    private final StubQuoteProvider primary = new StubQuoteProvider("primary");
+    private final StubQuoteProvider secondary = new StubQuoteProvider("secondary");
+    private final QuoteResilienceProperties properties = new QuoteResilienceProperties();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void setUp() {
+        primary.setPrice("IBM", 233.45);
+        primary.setPrice("MSFT", 410.10);
+        secondary.setPrice("IBM", 233.40);
+        secondary.setPrice("MSFT", 410.00);
+        properties.setSecondaryProvider("secondary");
+        properties.setFailureThreshold(3);
+        properties.setHedgeDelayMs(0);
+    }
+
+    @Test
+    void opensThePrimaryCircuitAndFailsOver() {
+        primary.setFailureRate(1.0);
+        ResilientQuoteClient client = client();
+
+        assertEquals(233.40, client.fetchQuote("IBM", QuotePriority.BULK));
+        assertEquals(3, primary.getRequestCount());
+        assertEquals(CircuitBreaker.State.OPEN, client.getCircuitState("primary"));
+
+        // The open circuit answers for the primary without calling it
+        assertEquals(410.00, client.fetchQuote("MSFT", QuotePriority.BULK));
+        assertEquals(3, primary.getRequestCount());
+        assertEquals(1L, client.getStats().get("primaryCircuitRejected"));
+    }
+
+    @Test
+    void opensTheCircuitOnTheFirstThrottledRequest() {
+        primary.setThrottled(true);
+        ResilientQuoteClient client = client();
+
+        assertEquals(233.40, client.fetchQuote("IBM", QuotePriority.BULK));
+        assertEquals(1, primary.getRequestCount());
+        assertEquals(CircuitBreaker.State.OPEN, client.getCircuitState("primary"));
+        assertEquals(1.0, meterRegistry.get("quote.upstream.throttled").tag("provider", "primary").counter().count());
+    }
+
+    @Test
+    void closesTheCircuitWhenTheTrialCallSucceeds() throws InterruptedException {
+        properties.setOpenMs(50);
+        primary.setFailureRate(1.0);
+        ResilientQuoteClient client = client();
+        client.fetchQuote("IBM", QuotePriority.BULK);
+
+        primary.setFailureRate(0.0);
+        Thread.sleep(60);
+
+        assertEquals(233.45, client.fetchQuote("IBM", QuotePriority.BULK));
+        assertEquals(CircuitBreaker.State.CLOSED, client.getCircuitState("primary"));
+    }
+
+    @Test
+    void rejectsZeroQuotesWithoutRetrying() {
+        primary.setInvalidPrices(true);
+        ResilientQuoteClient client = client();
+
+        assertEquals(233.40, client.fetchQuote("IBM", QuotePriority.BULK));
+        assertEquals(1, primary.getRequestCount());
+        assertEquals(1.0, meterRegistry.get("quote.upstream.rejected").tag("provider", "primary").counter().count());
+
+        secondary.setInvalidPrices(true);
+        assertNull(client.fetchQuote("IBM", QuotePriority.BULK));
+    }
+
+    @Test
+    void hedgesASlowPrimaryWithTheSecondary() {
+        properties.setHedgeDelayMs(50);
+        primary.setLatencyMs(2000);
+        ResilientQuoteClient client = client();
+
+        long start = System.nanoTime();
+        Double price = client.fetchQuote("IBM", QuotePriority.INTERACTIVE);
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals(233.40, price);
+        assertTrue(elapsedMs < 1000, "took " + elapsedMs + " ms");
+        assertEquals(1L, client.getStats().get("hedgedRequests"));
+    }
+
+    @Test
+    void startsTheHedgeDelayWhenThePrimaryRequestIsSent() throws InterruptedException {
+        properties.setHedgeDelayMs(50);
+        // The primary's limiter is spent, so its next request waits about a second for a permit
+        QuoteRateLimiter limiter = new QuoteRateLimiter(60, 0, 5000);
+        for (int i = 0; i < 60; i++) {
+            limiter.acquire(QuotePriority.BULK);
+        }
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("quote-test-");
+        ResilientQuoteClient client = new ResilientQuoteClient(List.of(primary, secondary), "primary", limiter,
+                properties, meterRegistry, executor, executor, 1, 5);
+
+        assertEquals(233.45, client.fetchQuote("IBM", QuotePriority.INTERACTIVE));
+        assertEquals(0L, client.getStats().get("hedgedRequests"));
+        assertEquals(0, secondary.getRequestCount());
+    }
+
+    @Test
+    void doesNotHedgeWhenTheHedgePoolIsBusy() {
+        properties.setHedgeDelayMs(50);
+        primary.setLatencyMs(200);
+        ThreadPoolTaskExecutor hedgePool = new ThreadPoolTaskExecutor();
+        hedgePool.setCorePoolSize(1);
+        hedgePool.setMaxPoolSize(1);
+        hedgePool.setQueueCapacity(0);
+        hedgePool.initialize();
+        CountDownLatch release = new CountDownLatch(1);
+        hedgePool.execute(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        try {
+            ResilientQuoteClient client = new ResilientQuoteClient(List.of(primary, secondary), "primary",
+                    new QuoteRateLimiter(100_000, 0, 1000), properties, meterRegistry,
+                    new SimpleAsyncTaskExecutor("quote-test-"), hedgePool, 1, 5);
+
+            assertEquals(233.45, client.fetchQuote("IBM", QuotePriority.INTERACTIVE));
+            assertEquals(0, secondary.getRequestCount());
+        } finally {
+            release.countDown();
+            hedgePool.shutdown();
+        }
+    }
+
+    @Test
+    void asksTheSecondaryForWhatAFailedBatchMissed() {
+        primary.setFailureRate(1.0);
+        secondary.setBulkEnabled(false);
+        ResilientQuoteClient client = client();
+
+        Map<String, Double> prices = client.fetchQuotes(List.of("IBM", "MSFT"), QuotePriority.BULK);
+
+        assertEquals(Map.of("IBM", 233.40, "MSFT", 410.00), prices);
+        assertEquals(2, secondary.getRequestCount());
+    }
+
+    private ResilientQuoteClient client() {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("quote-test-");
+        return new ResilientQuoteClient(List.of(primary, secondary), "primary", new QuoteRateLimiter(100_000, 0, 1000),
+                properties, meterRegistry, executor, executor, 1, 5);
+    }
+}